@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
@@ -30,6 +31,8 @@ import org.basex.util.list.*;
  *   <li><code>format</code> specifies the XML format, which can be
  *   <code>simple</code> or <code>verbose</code>
  *   (default: <code>verbose</code>).</li>
+ *   <li><code>threads</code> specifies the number of threads that parse
+ *   UTF-8 input in parallel (default: <code>1</code>).</li>
  * </ul>
  *
  * <p>All options are separated by commas, and the keys and values are
@@ -62,6 +65,8 @@ public final class CSVParser extends SingleParser {
   private static final byte[] ENTRY = token("entry");
   /** CSV column attribute. */
   private static final byte[] COLUMN = token("col");
+  /** Minimum size of the chunks that are parsed in parallel. */
+  private static final int CHUNK = 1 << 22;
 
   /** Headers. */
   private final TokenList headers = new TokenList();
@@ -71,11 +76,11 @@ public final class CSVParser extends SingleParser {
   private final String encoding;
   /** Column separator (see {@link ParserProp#SEPARATOR}). */
   private final int separator;
+  /** Number of parsing threads. */
+  private final int threads;
 
   /** Current row. */
   private int row;
-  /** Current column. */
-  private int col;
 
   /**
    * Constructor.
@@ -109,38 +114,172 @@ public final class CSVParser extends SingleParser {
     if(!simple && !val.equals(FORMATS[1])) throw new BaseXException(
         INVALID_VALUE_X_X, ParserProp.FORMAT[0], val);
     encoding = props.get(ParserProp.ENCODING);
+    threads = props.num(ParserProp.THREADS);
   }
 
   @Override
   public void parse() throws IOException {
     builder.startElem(CSV, atts);
+    if(threads > 1 && !(src instanceof IOStream) && utf8()) {
+      parallel();
+    } else {
+      final TokenBuilder tb = new TokenBuilder();
+      final TokenList fields = new TokenList();
+      final NewlineInput nli = new NewlineInput(src).encoding(encoding);
+      try {
+        while(record(nli, separator, tb, fields)) {
+          add(fields, 0, fields.size());
+          fields.reset();
+        }
+      } finally {
+        nli.close();
+      }
+    }
+    builder.endElem();
+  }
+
+  /**
+   * Checks if the input is UTF-8 encoded.
+   * @return result of check
+   * @throws IOException I/O exception
+   */
+  private boolean utf8() throws IOException {
+    final TextInput ti = new TextInput(src);
+    try {
+      return ti.encoding(encoding).encoding() == UTF8;
+    } finally {
+      ti.close();
+    }
+  }
+
+  /**
+   * Splits the input into chunks and parses them in parallel. Chunks end at
+   * record boundaries, which are found by scanning the raw bytes for newlines
+   * that are not enclosed in quotes. A carriage return is a boundary if it is
+   * not followed by a newline; if it is the last scanned byte, it is skipped.
+   * The records are added in input order.
+   * @throws IOException I/O exception
+   */
+  private void parallel() throws IOException {
+    final ExecutorService pool = Executors.newFixedThreadPool(threads);
+    final ArrayDeque<Future<Records>> tasks = new ArrayDeque<Future<Records>>();
+    final InputStream in = src.inputStream();
+    try {
+      byte[] buffer = new byte[CHUNK];
+      // size of buffer, scanned bytes, end of last complete record
+      int size = 0, pos = 0, end = 0;
+      boolean quoted = false;
+      while(true) {
+        final int r = in.read(buffer, size, buffer.length - size);
+        if(r > 0) size += r;
+        for(; pos < size; pos++) {
+          final byte b = buffer[pos];
+          if(b == '"') quoted ^= true;
+          else if(!quoted && (b == '\n' || b == '\r' && pos + 1 < size &&
+              buffer[pos + 1] != '\n')) end = pos + 1;
+        }
+        if(r < 0) {
+          if(size > 0) tasks.add(parse(pool, Arrays.copyOf(buffer, size)));
+          break;
+        }
+        if(size < buffer.length) continue;
+        if(end == 0) {
+          // single record exceeds buffer
+          buffer = Arrays.copyOf(buffer, size << 1);
+        } else {
+          tasks.add(parse(pool, Arrays.copyOf(buffer, end)));
+          System.arraycopy(buffer, end, buffer, 0, size - end);
+          size -= end;
+          pos -= end;
+          end = 0;
+        }
+        // limit number of pending chunks
+        if(tasks.size() > threads) add(finish(tasks.poll()));
+      }
+      while(!tasks.isEmpty()) add(finish(tasks.poll()));
+    } finally {
+      in.close();
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Passes on a chunk to the next free thread.
+   * @param pool thread pool
+   * @param chunk chunk
+   * @return records of the chunk
+   */
+  private Future<Records> parse(final ExecutorService pool, final byte[] chunk) {
+    return pool.submit(new Callable<Records>() {
+      @Override
+      public Records call() throws IOException {
+        final Records recs = new Records();
+        final TokenBuilder tb = new TokenBuilder();
+        final NewlineInput nli = new NewlineInput(new IOContent(chunk));
+        try {
+          nli.encoding(encoding);
+          while(record(nli, separator, tb, recs.fields)) {
+            recs.ends.add(recs.fields.size());
+          }
+        } finally {
+          nli.close();
+        }
+        return recs;
+      }
+    });
+  }
+
+  /**
+   * Waits for the specified parsing task to be finished.
+   * @param task task
+   * @return records
+   * @throws IOException I/O exception
+   */
+  private static Records finish(final Future<Records> task) throws IOException {
+    try {
+      return task.get();
+    } catch(final InterruptedException ex) {
+      throw new IOException(Util.message(ex));
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof IOException) throw (IOException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw new IOException(Util.message(th));
+    }
+  }
 
-    final TokenBuilder tb = new TokenBuilder();
-    final NewlineInput nli = new NewlineInput(src).encoding(encoding);
+  /**
+   * Reads the fields of the next record. Empty lines are skipped.
+   * @param in input
+   * @param sep column separator
+   * @param tb token builder
+   * @param fields list, to which the fields will be added
+   * @return {@code false} if the end of the input has been reached
+   * @throws IOException I/O exception
+   */
+  private static boolean record(final TextInput in, final int sep, final TokenBuilder tb,
+      final TokenList fields) throws IOException {
 
     boolean quoted = false, open = true;
     int ch = -1;
     while(true) {
-      if(ch == -1) ch = nli.read();
+      if(ch == -1) ch = in.read();
       if(ch == -1) break;
       if(quoted) {
         if(ch == '"') {
-          ch = nli.read();
+          ch = in.read();
           if(ch != '"') {
             quoted = false;
             continue;
           }
         }
         tb.add(ch);
-      } else if(ch == separator) {
-        if(open) {
-          open();
-          open = false;
-        }
-        add(tb);
+      } else if(ch == sep) {
+        open = false;
+        fields.add(tb.finish());
+        tb.reset();
       } else if(ch == '\n') {
-        finish(tb, open);
-        open = true;
+        if(!open || !tb.isEmpty()) break;
       } else if(ch == '"') {
         quoted = true;
       } else {
@@ -148,71 +287,69 @@ public final class CSVParser extends SingleParser {
       }
       ch = -1;
     }
-    nli.close();
-
-    finish(tb, open);
-    builder.endElem();
+    if(open && tb.isEmpty()) return false;
+    fields.add(tb.finish());
+    tb.reset();
+    return true;
   }
 
   /**
-   * Opens a new record.
+   * Adds the records of a chunk.
+   * @param recs records
    * @throws IOException I/O exception
    */
-  private void open() throws IOException {
-    if(row == 0) {
-      if(simple) builder.startElem(HEADER, atts);
-    } else {
-      builder.startElem(RECORD, atts);
+  private void add(final Records recs) throws IOException {
+    final int rs = recs.ends.size();
+    for(int r = 0, s = 0; r < rs; r++) {
+      final int e = recs.ends.get(r);
+      add(recs.fields, s, e);
+      s = e;
     }
   }
 
   /**
-   * Finishes the current record.
-   * @param tb token builder
-   * @param open open flag
+   * Adds a record.
+   * @param fields fields
+   * @param s index of the first field
+   * @param e index after the last field
    * @throws IOException I/O exception
    */
-  private void finish(final TokenBuilder tb, final boolean open) throws IOException {
-    boolean close = !open;
-    if(open && !tb.isEmpty()) {
-      open();
-      close = true;
-    }
-    add(tb);
-    if(close) {
-      if(simple || row != 0) builder.endElem();
-      ++row;
+  private void add(final TokenList fields, final int s, final int e) throws IOException {
+    if(row == 0) {
+      // header
+      if(simple) {
+        builder.startElem(HEADER, atts);
+        for(int f = s; f < e; f++) add(ENTRY, fields.get(f));
+        builder.endElem();
+      } else {
+        for(int f = s; f < e; f++) addHeader(fields.get(f));
+      }
+    } else {
+      builder.startElem(RECORD, atts);
+      for(int f = s, col = 0; f < e; f++, col++) {
+        final byte[] value = fields.get(f);
+        if(simple) {
+          add(ENTRY, value);
+        } else {
+          if(col == headers.size()) addHeader(COLUMN);
+          if(value.length != 0) add(headers.get(col), value);
+        }
+      }
+      builder.endElem();
     }
-    col = 0;
+    ++row;
   }
 
   /**
    * Adds a field.
-   * @param tb token builder
+   * @param name element name
+   * @param value value
    * @throws IOException I/O exception
    */
-  private void add(final TokenBuilder tb) throws IOException {
-    if(row == 0 && !simple) {
-      addHeader(tb.finish());
-      tb.reset();
-      return;
-    }
-
-    final byte[] t;
-    if(simple) {
-      t = ENTRY;
-    } else {
-      if(col == headers.size()) addHeader(COLUMN);
-      t = headers.get(col);
-    }
-
-    if(!tb.isEmpty() || simple) {
-      builder.startElem(t, atts);
-      builder.text(tb.finish());
-      builder.endElem();
-      tb.reset();
-    }
-    ++col;
+  private void add(final byte[] name, final byte[] value) throws IOException {
+    builder.startElem(name, atts);
+    builder.text(value);
+    builder.endElem();
   }
 
   /**
@@ -241,4 +378,12 @@ public final class CSVParser extends SingleParser {
     // add header
     headers.add(fb);
   }
+
+  /** Records of a parsed chunk. */
+  private static final class Records {
+    /** Fields of all records. */
+    final TokenList fields = new TokenList();
+    /** Indexes after the last field of each record. */
+    final IntList ends = new IntList();
+  }
 }
@@ -1,23 +1,28 @@
 package org.basex.build.file;
 
+import static org.basex.data.DataText.*;
+import static org.basex.query.util.Err.*;
+import static org.basex.util.Token.*;
+
 import java.io.*;
 
-import org.basex.build.xml.*;
+import org.basex.build.*;
 import org.basex.core.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
+import org.basex.io.out.*;
 import org.basex.query.*;
-import org.basex.query.util.*;
 import org.basex.query.util.json.*;
 import org.basex.query.util.json.JsonParser.Spec;
-import org.basex.query.value.node.*;
 import org.basex.util.*;
-
-import static org.basex.util.Token.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * This class parses files in the JSON format
  * and sends events to the specified database builder.
+ * The input is streamed: no intermediate representation of the document
+ * is created, and the memory consumption is independent of the input size.
  *
  * <p>The parser provides some options, which can be specified via
  * <code>SET PARSEROPT ...</code>:</p>
@@ -39,7 +44,24 @@ import static org.basex.util.Token.*;
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
  */
-public final class JSONParser extends XMLParser {
+public final class JSONParser extends SingleParser {
+  /** Types, in the order in which they are listed in the root element. */
+  private static final byte[][] TYPES = { T_ARRAY, T_OBJECT, T_STRING, T_NUMBER,
+    T_BOOLEAN, NULL };
+  /** Suffix of the type attributes of the root element. */
+  private static final byte[] S = { 's' };
+
+  /** JsonML flag. */
+  private final boolean jsonml;
+  /** Flag for interpreting character escape sequences. */
+  private final boolean unescape;
+  /** Encoding. */
+  private final String encoding;
+  /** Spec. */
+  private final Spec spec;
+  /** Chop whitespaces. */
+  private final boolean chop;
+
   /**
    * Constructor.
    * @param source document source
@@ -59,44 +81,409 @@ public final class JSONParser extends XMLParser {
    */
   public JSONParser(final IO source, final Prop pr, final String options)
       throws IOException {
-    super(toXML(source, options), pr);
+    super(source, pr);
+
+    // set parser properties
+    final ParserProp props = new ParserProp(options);
+    jsonml = props.is(ParserProp.JSONML);
+    unescape = props.is(ParserProp.JSON_UNESC);
+    encoding = props.get(ParserProp.ENCODING);
+    final String sp = props.get(ParserProp.JSON_SPEC);
+    Spec s = Spec.RFC4627;
+    for(final Spec spc : Spec.values()) {
+      if(Token.string(spc.desc).equalsIgnoreCase(sp)) s = spc;
+    }
+    spec = s;
+    chop = pr.is(Prop.CHOP);
+  }
+
+  @Override
+  public void parse() throws IOException {
+    try {
+      if(jsonml) {
+        parse(src, Spec.RFC4627, true, new JsonMLBuilder());
+      } else {
+        // the default format is parsed twice: streams are cached in a temporary file
+        final IOFile tmp = src instanceof IOStream ? cache(src) : null;
+        final IO io = tmp != null ? tmp : src;
+        try {
+          // first pass: check the input and collect the types of all names
+          final JsonCGTypes types = new JsonCGTypes();
+          parse(io, spec, unescape, types);
+          parse(io, spec, unescape, new JsonCGBuilder(types.types));
+        } finally {
+          if(tmp != null) tmp.delete();
+        }
+      }
+    } catch(final QueryException ex) {
+      throw new BaseXException(ex.getLocalizedMessage());
+    }
   }
 
   /**
-   * Converts a JSON document to XML.
-   * @param io io reference
-   * @param options parsing options
-   * @return parser
+   * Copies the specified input to a temporary file.
+   * @param io input
+   * @return temporary file
    * @throws IOException I/O exception
    */
-  private static IO toXML(final IO io, final String options) throws IOException {
-    // set parser properties
-    final ParserProp props = new ParserProp(options);
-    final boolean jsonml = props.is(ParserProp.JSONML),
-        unescape = props.is(ParserProp.JSON_UNESC);
-    final String encoding = props.get(ParserProp.ENCODING),
-        spec = props.get(ParserProp.JSON_SPEC);
+  private static IOFile cache(final IO io) throws IOException {
+    final IOFile tmp = new IOFile(File.createTempFile("json", IO.BASEXSUFFIX));
+    final BufferOutput out = new BufferOutput(tmp.path());
+    try {
+      // the input stream is copied block-wise and closed afterwards
+      new BufferInput(io.inputStream()).copy(out);
+    } finally {
+      out.close();
+    }
+    return tmp;
+  }
+
+  /**
+   * Parses the input and sends events to the specified handler.
+   * @param io input
+   * @param sp JSON spec
+   * @param unesc unescape flag
+   * @param handler JSON handler
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private void parse(final IO io, final Spec sp, final boolean unesc,
+      final JsonHandler handler) throws QueryException, IOException {
+    final NewlineInput nli = new NewlineInput(io).encoding(encoding);
+    try {
+      JsonParser.parse(nli, sp, unesc, handler, null);
+    } finally {
+      nli.close();
+    }
+  }
+
+  /**
+   * Returns the specified text, chopped if whitespaces are to be chopped.
+   * @param text text
+   * @return resulting text
+   */
+  byte[] text(final byte[] text) {
+    return chop ? trim(text) : text;
+  }
+
+  /**
+   * JSON handler for the default format. Names are converted to valid element
+   * names, as described in {@link JsonCGConverter}.
+   */
+  private abstract static class JsonCGHandler implements JsonHandler {
+    /** Cache for converted names. */
+    private final TokenObjMap<byte[]> names = new TokenObjMap<byte[]>();
+    /** Name of the next element. */
+    byte[] name = T_JSON;
 
-    Spec sp = Spec.RFC4627;
-    for(final Spec s : Spec.values())
-      if(Token.string(s.desc).equalsIgnoreCase(spec)) sp = s;
+    /**
+     * Opens an element with the given type.
+     * @param type JSON type
+     * @throws IOException I/O exception
+     */
+    abstract void open(byte[] type) throws IOException;
 
-    // parse input, using specified encoding
-    final byte[] content = new NewlineInput(io).encoding(encoding).content();
+    /**
+     * Adds a text to the current element.
+     * @param text text
+     * @throws IOException I/O exception
+     */
+    abstract void text(byte[] text) throws IOException;
 
-    // parse input and convert to XML node
-    final ANode node;
-    try {
-      final JsonXMLConverter conv = jsonml ? new JsonMLConverter(null) :
-        new JsonCGConverter(sp, unescape, null);
-      node = conv.convert(string(content));
-
-      // create XML input container from serialized node
-      final IOContent xml = new IOContent(node.serialize().toArray());
-      xml.name(io.name());
-      return xml;
-    } catch(final QueryException ex) {
-      throw new BaseXException(ex.getLocalizedMessage());
+    /**
+     * Closes the current element.
+     * @throws IOException I/O exception
+     */
+    abstract void close() throws IOException;
+
+    @Override
+    public void openObject() throws IOException {
+      open(T_OBJECT);
+    }
+
+    @Override
+    public void openEntry(final byte[] key) {
+      name = names.get(key);
+      if(name == null) {
+        name = JsonCGConverter.name(key);
+        names.add(key, name);
+      }
+    }
+
+    @Override
+    public void closeEntry() { }
+
+    @Override
+    public void closeObject() throws IOException {
+      close();
+    }
+
+    @Override
+    public void openArray() throws IOException {
+      open(T_ARRAY);
+    }
+
+    @Override
+    public void openArrayEntry() {
+      name = T_VALUE;
+    }
+
+    @Override
+    public void closeArrayEntry() { }
+
+    @Override
+    public void closeArray() throws IOException {
+      close();
+    }
+
+    @Override
+    public void openConstr(final byte[] nm) throws IOException {
+      openObject();
+      openEntry(nm);
+      openArray();
+    }
+
+    @Override
+    public void openArg() {
+      openArrayEntry();
+    }
+
+    @Override
+    public void closeArg() { }
+
+    @Override
+    public void closeConstr() throws IOException {
+      closeArray();
+      closeObject();
+    }
+
+    @Override
+    public void numberLit(final byte[] value) throws IOException {
+      open(T_NUMBER);
+      text(value);
+      close();
+    }
+
+    @Override
+    public void stringLit(final byte[] value) throws IOException {
+      open(T_STRING);
+      text(value);
+      close();
+    }
+
+    @Override
+    public void nullLit() throws IOException {
+      open(NULL);
+      close();
+    }
+
+    @Override
+    public void booleanLit(final boolean b) throws IOException {
+      open(T_BOOLEAN);
+      text(token(b));
+      close();
+    }
+  }
+
+  /**
+   * Collects the types of all element names. A name is assigned the
+   * {@code null} type if it occurs with different types.
+   */
+  private static final class JsonCGTypes extends JsonCGHandler {
+    /** Types of all names, in the order of their first occurrence. */
+    final TokenObjMap<byte[]> types = new TokenObjMap<byte[]>();
+
+    @Override
+    void open(final byte[] type) {
+      final byte[] tp = types.get(name);
+      if(tp == null) {
+        if(!types.contains(name)) types.add(name, type);
+      } else if(tp != type) {
+        types.add(name, null);
+      }
+    }
+
+    @Override
+    void text(final byte[] text) { }
+
+    @Override
+    void close() { }
+  }
+
+  /**
+   * Sends the events of the default format to the builder.
+   */
+  private final class JsonCGBuilder extends JsonCGHandler {
+    /** Types of all names. */
+    private final TokenObjMap<byte[]> types;
+    /** Root flag. */
+    private boolean root = true;
+
+    /**
+     * Constructor.
+     * @param tps types of all names
+     */
+    JsonCGBuilder(final TokenObjMap<byte[]> tps) {
+      types = tps;
+    }
+
+    @Override
+    void open(final byte[] type) throws IOException {
+      atts.reset();
+      if(type != T_STRING && types.get(name) == null) atts.add(T_TYPE, type);
+      if(root) {
+        // root element: list all names with a common type
+        final ByteList[] lists = new ByteList[TYPES.length];
+        final int ns = types.size();
+        for(int n = 1; n <= ns; n++) {
+          final byte[] tp = types.value(n);
+          if(tp == null || tp == T_STRING) continue;
+          for(int t = 0; t < TYPES.length; t++) {
+            if(tp != TYPES[t]) continue;
+            if(lists[t] == null) lists[t] = new ByteList();
+            else lists[t].add(' ');
+            lists[t].add(types.key(n));
+          }
+        }
+        for(int t = 0; t < TYPES.length; t++) {
+          if(lists[t] != null) atts.add(concat(TYPES[t], S), lists[t].toArray());
+        }
+        root = false;
+      }
+      builder.startElem(name, atts);
+    }
+
+    @Override
+    void text(final byte[] text) throws IOException {
+      builder.text(JSONParser.this.text(text));
+    }
+
+    @Override
+    void close() throws IOException {
+      builder.endElem();
+    }
+  }
+
+  /**
+   * Sends the events of a JsonML document to the builder.
+   */
+  private final class JsonMLBuilder implements JsonHandler {
+    /** Name of the element that has not been opened yet. */
+    private byte[] elem;
+    /** Name of the current attribute. */
+    private byte[] att;
+    /** Indicates if the next string is an element name. */
+    private boolean open;
+    /** Indicates if attributes are parsed. */
+    private boolean object;
+
+    @Override
+    public void openObject() throws QueryException {
+      if(elem == null || object) error("No object allowed at this stage");
+      object = true;
+    }
+
+    @Override
+    public void openEntry(final byte[] key) throws QueryException {
+      att = name(key);
+    }
+
+    @Override
+    public void closeEntry() { }
+
+    @Override
+    public void closeObject() throws IOException {
+      object = false;
+      start();
+    }
+
+    @Override
+    public void openArray() throws QueryException, IOException {
+      if(att != null || open) error("No array allowed at this stage");
+      start();
+      open = true;
+    }
+
+    @Override
+    public void openArrayEntry() { }
+
+    @Override
+    public void closeArrayEntry() { }
+
+    @Override
+    public void closeArray() throws QueryException, IOException {
+      if(open) error("Missing element name");
+      start();
+      builder.endElem();
+    }
+
+    @Override
+    public void stringLit(final byte[] value) throws QueryException, IOException {
+      if(att != null) {
+        atts.add(att, value);
+        att = null;
+      } else if(open) {
+        elem = name(value);
+        atts.reset();
+        open = false;
+      } else {
+        start();
+        builder.text(text(value));
+      }
+    }
+
+    @Override
+    public void numberLit(final byte[] value) throws QueryException {
+      error("No numbers allowed");
+    }
+
+    @Override
+    public void nullLit() throws QueryException {
+      error("No 'null' allowed");
+    }
+
+    @Override
+    public void booleanLit(final boolean b) throws QueryException {
+      error("No booleans allowed");
+    }
+
+    @Override
+    public void openConstr(final byte[] nm) throws QueryException {
+      error("No constructor functions allowed");
+    }
+    @Override public void openArg() { }
+    @Override public void closeArg() { }
+    @Override public void closeConstr() { }
+
+    /**
+     * Opens the pending element.
+     * @throws IOException I/O exception
+     */
+    private void start() throws IOException {
+      if(elem == null) return;
+      builder.startElem(elem, atts);
+      elem = null;
+    }
+
+    /**
+     * Checks if the specified name is valid.
+     * @param name name
+     * @return name
+     * @throws QueryException query exception
+     */
+    private byte[] name(final byte[] name) throws QueryException {
+      if(!XMLToken.isNCName(name)) error("Invalid name: \"%\"", name);
+      return name;
+    }
+
+    /**
+     * Raises an error with the specified message.
+     * @param msg error message
+     * @param ext error details
+     * @throws QueryException query exception
+     */
+    private void error(final String msg, final Object... ext) throws QueryException {
+      throw BXJS_PARSEML.thrw(null, Util.inf(msg, ext));
     }
   }
 }
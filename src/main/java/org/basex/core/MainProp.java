@@ -68,6 +68,10 @@ public final class MainProp extends AProp {
   public static final Object[] LOG = { "LOG", true };
   /** Log message cut-off. */
   public static final Object[] LOGMSGMAXLEN = { "LOGMSGMAXLEN", 1000 };
+  /** Number of log entries that are buffered and written asynchronously (0: off). */
+  public static final Object[] LOGBUFFER = { "LOGBUFFER", 0 };
+  /** Minimum time (ms) of queries that will be written to the slow query log (0: off). */
+  public static final Object[] SLOWQUERY = { "SLOWQUERY", 0 };
 
   /** Comment: written to property file. */
   public static final Object[] C_HTTP = { "HTTP Services" };
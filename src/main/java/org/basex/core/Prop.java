@@ -119,6 +119,8 @@ public final class Prop extends AProp {
   public static final Object[] ATTRINDEX = { "ATTRINDEX", true };
   /** Flag for creating a full-text index. */
   public static final Object[] FTINDEX = { "FTINDEX", false };
+  /** Flag for creating a name index. */
+  public static final Object[] NAMEINDEX = { "NAMEINDEX", false };
 
   /** Maximum number of text/attribute index entries
    *  to keep in memory during index creation. */
@@ -145,6 +147,10 @@ public final class Prop extends AProp {
   public static final Object[] LANGUAGE = { "LANGUAGE", "en" };
   /** Path to full-text stopword list. */
   public static final Object[] STOPWORDS = { "STOPWORDS", "" };
+  /** Flag for creating a sorted full-text dictionary. */
+  public static final Object[] FTSORTED = { "FTSORTED", false };
+  /** Flag for BM25 scoring of index-based full-text results. */
+  public static final Object[] BM25 = { "BM25", false };
 
   // Query Options
 
@@ -162,6 +168,8 @@ public final class Prop extends AProp {
   public static final Object[] FORCECREATE = { "FORCECREATE", false };
   /** Levenshtein default error. */
   public static final Object[] LSERROR = { "LSERROR", 0 };
+  /** Number of threads for evaluating database paths in parallel. */
+  public static final Object[] QUERYPARALLEL = { "QUERYPARALLEL", 1 };
   /** Number of query executions. */
   public static final Object[] RUNS = { "RUNS", 1 };
 
@@ -173,6 +181,8 @@ public final class Prop extends AProp {
   public static final Object[] SERIALIZER = { "SERIALIZER", "" };
   /** Exporter serialization parameters. */
   public static final Object[] EXPORTER = { "EXPORTER", "" };
+  /** Number of documents that will be exported in parallel. */
+  public static final Object[] EXPORTPARALLEL = { "EXPORTPARALLEL", 1 };
 
   /** Prints an XML plan. */
   public static final Object[] XMLPLAN = { "XMLPLAN", false };
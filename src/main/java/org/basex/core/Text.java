@@ -236,7 +236,7 @@ public interface Text {
     LI + CmdCreate.EVENT + " [" + C_NAME + "]: " + NL +
     "  " + lang("c_create9") + NL +
     LI + CmdCreate.INDEX + " [" + CmdIndex.TEXT + '|' + CmdIndex.ATTRIBUTE +
-    '|' + CmdIndex.FULLTEXT + "]:" + NL +
+    '|' + CmdIndex.FULLTEXT + '|' + CmdIndex.NAME + "]:" + NL +
     "  " + lang("c_create5") + NL +
     LI + CmdCreate.USER + " [" + C_NAME + "] ([" + C_PW + "]):" + NL +
     "  " + lang("c_create8")
@@ -307,8 +307,8 @@ public interface Text {
       "  " + lang("c_drop21") + NL +
     LI + CmdDrop.EVENT + " [" + C_NAME + "]:" + NL +
       "  " + lang("c_drop25", C_NAME) + NL +
-    LI + CmdDrop.INDEX + " [" + CmdIndex.TEXT + '|' +
-      CmdIndex.ATTRIBUTE + '|' + CmdIndex.FULLTEXT + "]:" + NL +
+    LI + CmdDrop.INDEX + " [" + CmdIndex.TEXT + '|' + CmdIndex.ATTRIBUTE +
+      '|' + CmdIndex.FULLTEXT + '|' + CmdIndex.NAME + "]:" + NL +
       "  " + lang("c_drop22") + NL +
     LI + CmdDrop.USER + " [" + C_NAME + "] (" + ON + " [database]): " + NL +
       "  " + lang("c_drop23")
@@ -485,6 +485,8 @@ public interface Text {
   String INDEX_ATTRIBUTES_D = lang("index_attributes") + DOTS;
   /** Create full-text index. */
   String INDEX_FULLTEXT_D = lang("index_fulltext") + DOTS;
+  /** Create name index. */
+  String INDEX_NAMES_D = lang("index_names") + DOTS;
 
   /** Database created. */
   String DB_CREATED_X_X = lang("db_created_%_%");
@@ -636,6 +638,8 @@ public interface Text {
   String UPDATED_CC = lang("updated") + COLS;
   /** "Printed: ". */
   String PRINTED_CC = lang("printed") + COLS;
+  /** "Resources: ". */
+  String RESOURCES_CC = lang("resources") + COLS;
   /** "Results: %". */
   String RESULTS_X = lang("results_%");
   /** "Query executed in %". */
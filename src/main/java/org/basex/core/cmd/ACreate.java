@@ -9,6 +9,7 @@ import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.ft.*;
+import org.basex.index.name.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.util.*;
@@ -118,6 +119,7 @@ public abstract class ACreate extends Command {
       case TEXT:      ib = new ValueIndexBuilder(data, true); break;
       case ATTRIBUTE: ib = new ValueIndexBuilder(data, false); break;
       case FULLTEXT:  ib = new FTBuilder(data); break;
+      case NAME:      ib = new NameIndexBuilder(data); break;
       default:        throw Util.notexpected();
     }
     data.closeIndex(index);
@@ -145,6 +147,10 @@ public abstract class ACreate extends Command {
         data.meta.ftxtindex = false;
         pat = DATAFTX;
         break;
+      case NAME:
+        data.meta.nameindex = false;
+        pat = DATANAM + '.';
+        break;
       default:
     }
     data.closeIndex(index);
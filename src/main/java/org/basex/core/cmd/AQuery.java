@@ -55,6 +55,7 @@ public abstract class AQuery extends Command {
     if(qe != null) {
       err = qe.getMessage();
     } else {
+      qi.usage.attach();
       try {
         final boolean serial = prop.is(Prop.SERIALIZE);
         qi.runs = Math.max(1, prop.num(Prop.RUNS));
@@ -100,6 +101,7 @@ public abstract class AQuery extends Command {
         out.flush();
         // remove string list if global locking is used and if query is updating
         if(mprop.is(MainProp.GLOBALLOCK) && qp.updating) qi.locked = null;
+        qi.slow(context, query, 0, null);
         return info(qi.toString(qp, out, hits, prop.is(Prop.QUERYINFO)));
 
       } catch(final QueryException ex) {
@@ -118,7 +120,9 @@ public abstract class AQuery extends Command {
       } finally {
         // close processor after exceptions
         if(qp != null) qp.close();
+        qi.usage.detach();
       }
+      qi.slow(context, query, p.time(), err);
     }
     return extError(err);
   }
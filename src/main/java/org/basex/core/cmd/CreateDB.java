@@ -11,6 +11,7 @@ import org.basex.core.parse.Commands.*;
 import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.ft.*;
+import org.basex.index.name.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
@@ -101,6 +102,7 @@ public final class CreateDB extends ACreate {
           if(data.meta.createtext) create(IndexType.TEXT,      data, this);
           if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, this);
           if(data.meta.createftxt) create(IndexType.FULLTEXT,  data, this);
+          if(data.meta.createname) create(IndexType.NAME,      data, this);
         } finally {
           data.finishUpdate();
         }
@@ -161,6 +163,8 @@ public final class CreateDB extends ACreate {
         new ValueIndexBuilder(data, false).build());
       if(data.meta.createftxt) data.setIndex(IndexType.FULLTEXT,
         new FTBuilder(data).build());
+      if(data.meta.createname) data.setIndex(IndexType.NAME,
+        new NameIndexBuilder(data).build());
       data.close();
     } finally {
       builder.close();
@@ -49,9 +49,14 @@ public final class CreateIndex extends ACreate {
         data.meta.stemming = prop.is(Prop.STEMMING);
         data.meta.casesens = prop.is(Prop.CASESENS);
         data.meta.diacritics = prop.is(Prop.DIACRITICS);
+        data.meta.ftsorted = prop.is(Prop.FTSORTED);
         data.meta.language = Language.get(prop);
         index = IndexType.FULLTEXT;
         break;
+      case NAME:
+        data.meta.createname = true;
+        index = IndexType.NAME;
+        break;
       default:
         return error(UNKNOWN_CMD_X, this);
     }
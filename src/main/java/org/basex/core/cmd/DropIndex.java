@@ -45,6 +45,10 @@ public final class DropIndex extends ACreate {
         data.meta.createftxt = false;
         it = IndexType.FULLTEXT;
         break;
+      case NAME:
+        data.meta.createname = false;
+        it = IndexType.NAME;
+        break;
       default:
         return error(UNKNOWN_CMD_X, this);
     }
@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -25,7 +26,7 @@ public final class Export extends Command {
   /** Currently exported file. */
   private IO progFile;
   /** Current number of exported file. */
-  private int progPos;
+  private volatile int progPos;
   /** Total number of files to be exported. */
   private int progSize;
 
@@ -92,25 +93,46 @@ public final class Export extends Command {
 
     // XML documents
     final int is = il.size();
-    for(int i = 0; i < is; i++) {
-      final int pre = il.get(i);
-      // create file path
-      final IO f = root.merge(Token.string(data.text(pre, true)));
-      if(e != null) {
-        e.checkStop();
-        e.progFile = f;
-        e.progPos++;
+    final int threads = Math.min(is, data.meta.prop.num(Prop.EXPORTPARALLEL));
+    final ExecutorService pool = threads > 1 ?
+        Executors.newFixedThreadPool(threads) : null;
+    final ArrayList<Future<Void>> tasks = new ArrayList<Future<Void>>();
+    try {
+      for(int i = 0; i < is; i++) {
+        final int pre = il.get(i);
+        // create file path
+        final IO f = root.merge(Token.string(data.text(pre, true)));
+        if(e != null) {
+          e.checkStop();
+          e.progFile = f;
+          if(pool == null) e.progPos++;
+        }
+        // create dir if necessary
+        final IOFile dir = new IOFile(f.dirPath());
+        if(!dir.exists()) dir.md();
+
+        // serialize file, or pass it on to the next free thread
+        final String path = unique(exported, f.path());
+        if(pool == null) {
+          serialize(data, pre, path, sp);
+        } else {
+          tasks.add(pool.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+              serialize(data, pre, path, sp);
+              return null;
+            }
+          }));
+        }
       }
-      // create dir if necessary
-      final IOFile dir = new IOFile(f.dirPath());
-      if(!dir.exists()) dir.md();
-
-      // serialize file
-      final PrintOutput po = new PrintOutput(unique(exported, f.path()));
-      final Serializer ser = Serializer.get(po, sp);
-      ser.serialize(new DBNode(data, pre));
-      ser.close();
-      po.close();
+      // wait for parallel serializations to be finished
+      for(final Future<Void> task : tasks) {
+        if(e != null) e.checkStop();
+        finish(task);
+        if(e != null) e.progPos++;
+      }
+    } finally {
+      if(pool != null) pool.shutdownNow();
     }
 
     // export raw files
@@ -126,6 +148,45 @@ public final class Export extends Command {
     }
   }
 
+  /**
+   * Serializes a single document to the specified file.
+   * @param data data reference
+   * @param pre pre value of the document
+   * @param path file path
+   * @param sp serialization parameters
+   * @throws IOException I/O exception
+   */
+  static void serialize(final Data data, final int pre, final String path,
+      final SerializerProp sp) throws IOException {
+
+    final PrintOutput po = new PrintOutput(path);
+    try {
+      final Serializer ser = Serializer.get(po, sp);
+      ser.serialize(new DBNode(data, pre));
+      ser.close();
+    } finally {
+      po.close();
+    }
+  }
+
+  /**
+   * Waits for the specified serialization task to be finished.
+   * @param task task
+   * @throws IOException I/O exception
+   */
+  private static void finish(final Future<Void> task) throws IOException {
+    try {
+      task.get();
+    } catch(final InterruptedException ex) {
+      throw new IOException(Util.message(ex));
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof IOException) throw (IOException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw new IOException(Util.message(th));
+    }
+  }
+
   @Override
   public double prog() {
     return progSize == 0 ? 0 : (double) progPos / progSize;
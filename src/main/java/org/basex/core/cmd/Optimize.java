@@ -7,6 +7,7 @@ import java.io.*;
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.ft.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
@@ -72,7 +73,8 @@ public final class Optimize extends ACreate {
   public static void optimize(final Data data, final Optimize c) throws IOException {
     // initialize structural indexes
     final MetaData md = data.meta;
-    if(!md.uptodate) {
+    final boolean paths = !md.uptodate;
+    if(paths) {
       data.paths.init();
       data.resources.init();
       data.tagindex.init();
@@ -122,6 +124,9 @@ public final class Optimize extends ACreate {
     optimize(IndexType.ATTRIBUTE, data, md.createattr, md.attrindex, c);
     optimize(IndexType.TEXT,      data, md.createtext, md.textindex, c);
     optimize(IndexType.FULLTEXT,  data, md.createftxt, md.ftxtindex, c);
+    // the name index contains the posting lists of the rebuilt path summary
+    optimize(IndexType.NAME,      data, md.createname,
+        md.nameindex && !(paths && md.createname), c);
   }
 
   /**
@@ -138,7 +143,16 @@ public final class Optimize extends ACreate {
       final boolean create, final boolean old, final Optimize c) throws IOException {
 
     // check if flags are nothing has changed
-    if(create == old) return;
+    if(create == old) {
+      // merge pending updates into the full-text index
+      final Index index = type == IndexType.FULLTEXT ? d.ftxindex : null;
+      if(create && index instanceof FTIndex && ((FTIndex) index).updated()) {
+        final FTBuilder ib = new FTBuilder(d, (FTIndex) index);
+        d.closeIndex(type);
+        d.setIndex(type, (c == null ? ib : c.progress(ib)).build());
+      }
+      return;
+    }
 
     // create or drop index
     if(create) create(type, d, c);
@@ -116,6 +116,7 @@ public final class OptimizeAll extends ACreate {
     ctx.prop.set(Prop.STEMMING,   m.stemming);
     ctx.prop.set(Prop.CASESENS,   m.casesens);
     ctx.prop.set(Prop.DIACRITICS, m.diacritics);
+    ctx.prop.set(Prop.FTSORTED,   m.ftsorted);
     ctx.prop.set(Prop.LANGUAGE,   m.language.toString());
 
     // build database and index structures
@@ -125,10 +126,12 @@ public final class OptimizeAll extends ACreate {
       if(m.createtext) create(IndexType.TEXT, d, cmd);
       if(m.createattr) create(IndexType.ATTRIBUTE, d, cmd);
       if(m.createftxt) create(IndexType.FULLTEXT, d, cmd);
+      if(m.createname) create(IndexType.NAME, d, cmd);
       // adopt original meta data
       d.meta.createtext = m.createtext;
       d.meta.createattr =  m.createattr;
       d.meta.createftxt = m.createftxt;
+      d.meta.createname = m.createname;
       d.meta.filesize   = m.filesize;
       d.meta.users      = m.users;
       d.meta.dirty      = true;
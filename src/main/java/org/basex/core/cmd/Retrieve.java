@@ -34,12 +34,7 @@ public final class Retrieve extends ACreate {
       return error(RES_NOT_FOUND_X, path);
 
     try {
-      final BufferInput bi = new BufferInput(bin);
-      try {
-        for(int b; (b = bi.read()) != -1;) out.write(b);
-      } finally {
-        bi.close();
-      }
+      new BufferInput(bin).copy(out);
       return info(QUERY_EXECUTED_X, perf);
     } catch(final IOException ex) {
       return error(FILE_NOT_STORED_X, ex);
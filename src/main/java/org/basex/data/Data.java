@@ -481,8 +481,17 @@ public abstract class Data {
       // write namespace uri reference
       table.write1(pre, kind == ELEM ? 3 : 11, nuri);
       // write name reference
-      table.write2(pre, 1, (nsFlag(pre) ? 1 << 15 : 0) |
-        (kind == ELEM ? tagindex : atnindex).index(name, null, false));
+      final int oname = name(pre), nname =
+        (kind == ELEM ? tagindex : atnindex).index(name, null, false);
+      table.write2(pre, 1, (nsFlag(pre) ? 1 << 15 : 0) | nname);
+      if(meta.updindex && oname != nname) {
+        // update name index
+        indexBegin();
+        final int id = id(pre);
+        indexName(id, oname, kind, false);
+        indexName(id, nname, kind, true);
+        indexEnd();
+      }
       // write namespace flag
       table.write2(npre, 1, (ne || nsFlag(npre) ? 1 << 15 : 0) | name(npre));
     }
@@ -983,6 +992,7 @@ public abstract class Data {
 
     // build and insert new entry
     final int i = newID();
+    if(meta.updindex) indexName(i, name, ELEM, true);
     final int n = ne ? 1 << 7 : 0;
     s(Math.min(IO.MAXATTS, asize) << 3 | ELEM);
     s(n | (byte) (name >> 8)); s(name); s(uri);
@@ -1025,6 +1035,7 @@ public abstract class Data {
     // add attribute to text storage
     final int i = newID();
     final long v = index(pre, i, value, ATTR);
+    if(meta.updindex) indexName(i, name, ATTR, true);
     final int n = ne ? 1 << 7 : 0;
     s(Math.min(IO.MAXATTS, dist) << 3 | ATTR);
     s(n | (byte) (name >> 8)); s(name); s(v >> 32);
@@ -1084,6 +1095,16 @@ public abstract class Data {
   /** Notify the index structures that an update operation is finished. */
   void indexEnd() { }
 
+  /**
+   * Notify the name index that a name has been assigned to or removed from a node.
+   * @param id id of the node
+   * @param name name id
+   * @param kind node kind
+   * @param add add or remove name
+   */
+  @SuppressWarnings("unused")
+  void indexName(final int id, final int name, final int kind, final boolean add) { }
+
   /**
    * Delete a node and its descendants from the corresponding indexes.
    * @param pre pre value of the node to delete
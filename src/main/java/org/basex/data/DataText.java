@@ -46,6 +46,8 @@ public interface DataText {
   String DBATVIDX = "ATVINDEX";
   /** Full-text indexing. */
   String DBFTXIDX = "FTXINDEX";
+  /** Name indexing. */
+  String DBNAMIDX = "NAMINDEX";
   /** Full-text stemming. */
   String DBFTST = "FTSTEM";
   /** Full-text language. */
@@ -54,6 +56,14 @@ public interface DataText {
   String DBFTCS = "FTCS";
   /** Full-text diacritics removal. */
   String DBFTDC = "FTDC";
+  /** Sorted full-text dictionary. */
+  String DBFTSO = "FTSORT";
+  /** Node ids in the full-text index. */
+  String DBFTID = "FTIDS";
+  /** Number of texts in the full-text index. */
+  String DBFTTX = "FTTEXTS";
+  /** Total length of the texts in the full-text index. */
+  String DBFTLEN = "FTLENGTH";
   /** Maximum token length. */
   String DBMAXLEN = "MAXLEN";
   /** Maximum number of categories. */
@@ -72,6 +82,8 @@ public interface DataText {
   String DBCRTATV = "CRTATV";
   /** Full-text indexing. */
   String DBCRTFTX = "CRTFTX";
+  /** Name indexing. */
+  String DBCRTNAM = "CRTNAM";
 
   /** Full-text wildcards indexing (legacy, obsolete). */
   String DBWCIDX = "WCINDEX";
@@ -101,10 +113,14 @@ public interface DataText {
   String DATAATV = "atv";
   /** Database - Full-text index. */
   String DATAFTX = "ftx";
+  /** Database - Name index. */
+  String DATANAM = "nam";
   /** Database - Stopword list. */
   String DATASWL = "swl";
   /** Database - Updating flag. */
   String DATAUPD = "upd";
+  /** Database - Document paths. */
+  String DATADOC = "doc";
 
   // XML SERIALIZATION ========================================================
 
@@ -89,6 +89,11 @@ public final class DiskData extends Data {
       if(meta.attrindex) atvindex = new DiskValues(this, false);
     }
     if(meta.ftxtindex) ftxindex = new FTIndex(this);
+    if(meta.nameindex) {
+      tagindex.postings(new NameIndex(this, true));
+      atnindex.postings(new NameIndex(this, false));
+      paths.postings(new NameIndex(this));
+    }
     init();
   }
 
@@ -163,6 +168,7 @@ public final class DiskData extends Data {
       closeIndex(IndexType.TEXT);
       closeIndex(IndexType.ATTRIBUTE);
       closeIndex(IndexType.FULLTEXT);
+      closeIndex(IndexType.NAME);
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -170,6 +176,15 @@ public final class DiskData extends Data {
 
   @Override
   public synchronized void closeIndex(final IndexType type) {
+    if(type == IndexType.NAME) {
+      // posting lists are attached to the name indexes and the path summary
+      tagindex.close();
+      atnindex.close();
+      paths.close();
+      meta.dirty = true;
+      return;
+    }
+
     // close existing index
     final Index index = index(type);
     if(index == null) return;
@@ -214,6 +229,9 @@ public final class DiskData extends Data {
       values.flush();
       if(txtindex != null) ((DiskValues) txtindex).flush();
       if(atvindex != null) ((DiskValues) atvindex).flush();
+      if(ftxindex != null) ((FTIndex) ftxindex).flush();
+      flush(tagindex.postings());
+      flush(atnindex.postings());
     } catch(final IOException ex) {
       Util.stack(ex);
     } finally {
@@ -221,6 +239,14 @@ public final class DiskData extends Data {
     }
   }
 
+  /**
+   * Flushes the specified posting lists.
+   * @param pl posting lists (can be {@code null})
+   */
+  private static void flush(final NameIndex pl) {
+    if(pl != null) pl.flush();
+  }
+
   /**
    * Returns a file that indicates ongoing updates.
    * @return updating file
@@ -307,6 +333,11 @@ public final class DiskData extends Data {
       final DiskValues index = (DiskValues) (text ? txtindex : atvindex);
       // don't index document names
       if(index != null && kind != DOC) index.replace(oldval, value, id);
+      if(ftxindex != null && kind == TEXT) {
+        final FTIndex ftx = (FTIndex) ftxindex;
+        ftx.delete(id, oldval);
+        ftx.add(id, value);
+      }
     }
 
     // reference to text store
@@ -354,6 +385,23 @@ public final class DiskData extends Data {
   protected void indexEnd() {
     if(!txts.isEmpty()) ((DiskValues) txtindex).index(txts);
     if(!atvs.isEmpty()) ((DiskValues) atvindex).index(atvs);
+    if(meta.nameindex) updateNames();
+  }
+
+  @Override
+  void indexName(final int id, final int name, final int kind, final boolean add) {
+    if(!meta.nameindex) return;
+    final NameIndex pl = (kind == ELEM ? tagindex : atnindex).postings();
+    if(add) pl.add(name, id);
+    else pl.delete(name, id);
+  }
+
+  /**
+   * Writes the cached changes to the name index.
+   */
+  private void updateNames() {
+    tagindex.postings().update();
+    atnindex.postings().update();
   }
 
   @Override
@@ -382,6 +430,10 @@ public final class DiskData extends Data {
       }
       ids.add(id);
     }
+    // add tokens to full-text index
+    if(meta.updindex && kind == TEXT && ftxindex != null) {
+      ((FTIndex) ftxindex).add(id, value);
+    }
 
     // add text to text file
     // inline integer value...
@@ -397,6 +449,22 @@ public final class DiskData extends Data {
 
   @Override
   protected void indexDelete(final int pre, final int size) {
+    if(meta.nameindex) {
+      // remove names of all elements and attributes
+      final int l = pre + size;
+      for(int p = pre; p < l; ++p) {
+        final int k = kind(p);
+        if(k == ELEM || k == ATTR) indexName(id(p), name(p), k, false);
+      }
+      updateNames();
+    }
+    if(ftxindex != null) {
+      // remove tokens of all texts
+      final int l = pre + size;
+      for(int p = pre; p < l; ++p) {
+        if(kind(p) == TEXT) ((FTIndex) ftxindex).delete(id(p), text(p, true));
+      }
+    }
     if(!(meta.textindex || meta.attrindex)) return;
 
     // collect all keys and ids
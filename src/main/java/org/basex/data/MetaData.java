@@ -53,12 +53,16 @@ public final class MetaData {
   public volatile boolean attrindex;
   /** Indicates if a full-text index exists. */
   public volatile boolean ftxtindex;
+  /** Indicates if a name index exists. */
+  public volatile boolean nameindex;
   /** Indicates if text index is to be recreated. */
   public volatile boolean createtext;
   /** Indicates if attribute index is to be recreated. */
   public volatile boolean createattr;
   /** Indicates if full-text index is to be recreated. */
   public volatile boolean createftxt;
+  /** Indicates if name index is to be recreated. */
+  public volatile boolean createname;
 
   /** Flag for full-text stemming. */
   public volatile boolean stemming;
@@ -66,6 +70,14 @@ public final class MetaData {
   public volatile boolean casesens;
   /** Flag for full-text diacritics removal. */
   public volatile boolean diacritics;
+  /** Flag for sorted full-text dictionary. */
+  public volatile boolean ftsorted;
+  /** Flag for node ids (instead of pre values) in the full-text index. */
+  public volatile boolean ftids;
+  /** Number of texts in the full-text index. */
+  public volatile int fttexts;
+  /** Total length of the texts in the full-text index. */
+  public volatile long ftlength;
 
   /** Maximum number of categories. */
   public volatile int maxcats;
@@ -82,6 +94,8 @@ public final class MetaData {
   public volatile boolean corrupt;
   /** Dirty flag. */
   public volatile boolean dirty;
+  /** Number of updates since the database was opened. */
+  public volatile long updates;
 
   /** Table size. */
   public volatile int size;
@@ -126,9 +140,11 @@ public final class MetaData {
     createtext = prop.is(Prop.TEXTINDEX);
     createattr = prop.is(Prop.ATTRINDEX);
     createftxt = prop.is(Prop.FTINDEX);
+    createname = prop.is(Prop.NAMEINDEX);
     diacritics = prop.is(Prop.DIACRITICS);
     stemming = prop.is(Prop.STEMMING);
     casesens = prop.is(Prop.CASESENS);
+    ftsorted = prop.is(Prop.FTSORTED);
     updindex = prop.is(Prop.UPDINDEX);
     maxlen = prop.num(Prop.MAXLEN);
     maxcats = prop.num(Prop.MAXCATS);
@@ -299,15 +315,21 @@ public final class MetaData {
         else if(k.equals(DBLASTID))   lastid     = toInt(v);
         else if(k.equals(DBTIME))     time       = toLong(v);
         else if(k.equals(DBFSIZE))    filesize   = toLong(v);
+        else if(k.equals(DBFTTX))     fttexts    = toInt(v);
+        else if(k.equals(DBFTLEN))    ftlength   = toLong(v);
         else if(k.equals(DBFTDC))     diacritics = toBool(v);
+        else if(k.equals(DBFTSO))     ftsorted   = toBool(v);
+        else if(k.equals(DBFTID))     ftids      = toBool(v);
         else if(k.equals(DBCHOP))     chop       = toBool(v);
         else if(k.equals(DBUPDIDX))   updindex   = toBool(v);
         else if(k.equals(DBTXTIDX))   textindex  = toBool(v);
         else if(k.equals(DBATVIDX))   attrindex  = toBool(v);
         else if(k.equals(DBFTXIDX))   ftxtindex  = toBool(v);
+        else if(k.equals(DBNAMIDX))   nameindex  = toBool(v);
         else if(k.equals(DBCRTTXT))   createtext = toBool(v);
         else if(k.equals(DBCRTATV))   createattr = toBool(v);
         else if(k.equals(DBCRTFTX))   createftxt = toBool(v);
+        else if(k.equals(DBCRTNAM))   createname = toBool(v);
         else if(k.equals(DBWCIDX))    wcindex    = toBool(v);
         else if(k.equals(DBFTST))     stemming   = toBool(v);
         else if(k.equals(DBFTCS))     casesens   = toBool(v);
@@ -328,6 +350,8 @@ public final class MetaData {
     corrupt = dbfile(DATAUPD).exists();
     // deactivate full-text index if obsolete trie structure was used
     if(wcindex) ftxtindex = false;
+    // deactivate updatable full-text index if it references pre values
+    if(updindex && !ftids) ftxtindex = false;
   }
 
   /**
@@ -349,12 +373,18 @@ public final class MetaData {
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBFTXIDX,   ftxtindex);
+    writeInfo(out, DBNAMIDX,   nameindex);
     writeInfo(out, DBCRTTXT,   createtext);
     writeInfo(out, DBCRTATV,   createattr);
     writeInfo(out, DBCRTFTX,   createftxt);
+    writeInfo(out, DBCRTNAM,   createname);
     writeInfo(out, DBFTST,     stemming);
     writeInfo(out, DBFTCS,     casesens);
     writeInfo(out, DBFTDC,     diacritics);
+    writeInfo(out, DBFTSO,     ftsorted);
+    writeInfo(out, DBFTID,     ftids);
+    writeInfo(out, DBFTTX,     fttexts);
+    writeInfo(out, DBFTLEN,    ftlength);
     writeInfo(out, DBMAXLEN,   maxlen);
     writeInfo(out, DBMAXCATS,  maxcats);
     writeInfo(out, DBUPTODATE, uptodate);
@@ -371,13 +401,15 @@ public final class MetaData {
   void update() {
     // update database timestamp
     time = System.currentTimeMillis();
+    updates++;
     uptodate = false;
     dirty = true;
     if(!updindex) {
       textindex = false;
       attrindex = false;
+      nameindex = false;
+      ftxtindex = false;
     }
-    ftxtindex = false;
   }
 
   // PRIVATE METHODS ==========================================================
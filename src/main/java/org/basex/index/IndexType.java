@@ -18,5 +18,7 @@ public enum IndexType {
   /** Full-text index. */
   FULLTEXT,
   /** Path index. */
-  PATH
+  PATH,
+  /** Name index. */
+  NAME
 }
@@ -9,6 +9,7 @@ import java.io.*;
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.io.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 import org.basex.util.ft.*;
@@ -23,8 +24,10 @@ import org.basex.util.list.*;
 public final class FTBuilder extends IndexBuilder {
   /** Value trees. */
   private final FTIndexTrees tree;
-  /** Word parser. */
+  /** Word parser ({@code null} if pending updates are merged). */
   private final FTLexer lex;
+  /** Pending updates to be merged ({@code null} if the index is built). */
+  private final FTDelta delta;
   /** Current lexer position. */
   int pos;
   /** Number of indexed tokens. */
@@ -53,6 +56,20 @@ public final class FTBuilder extends IndexBuilder {
       throw new BaseXException(NO_STEMMER_X, fto.ln);
 
     lex = new FTLexer(fto);
+    delta = null;
+  }
+
+  /**
+   * Constructor for merging the pending updates of an updatable index
+   * into the index files.
+   * @param d data reference
+   * @param index full-text index
+   */
+  public FTBuilder(final Data d, final FTIndex index) {
+    super(d, 0);
+    tree = new FTIndexTrees(d.meta.maxlen);
+    lex = null;
+    delta = index.delta;
   }
 
   /**
@@ -66,6 +83,11 @@ public final class FTBuilder extends IndexBuilder {
     final Performance perf = Prop.debug ? new Performance() : null;
     Util.debug(det());
 
+    // number and total length of indexed texts
+    int texts = 0;
+    long length = 0;
+    // updatable indexes reference node ids
+    final boolean ids = data.meta.updindex;
     for(pre = 0; pre < size; ++pre) {
       if((pre & 0xFFFF) == 0) check();
 
@@ -74,7 +96,13 @@ public final class FTBuilder extends IndexBuilder {
 
       pos = -1;
       final StopWords sw = lex.ftOpt().sw;
-      lex.init(data.text(pre, true));
+      final byte[] text = data.text(pre, true);
+      final int id = ids ? data.id(pre) : pre;
+      lex.init(text);
+      if(lex.hasNext()) {
+        texts++;
+        length += text.length;
+      }
       while(lex.hasNext()) {
         final byte[] tok = lex.nextToken();
         ++pos;
@@ -85,7 +113,7 @@ public final class FTBuilder extends IndexBuilder {
             writeIndex(true);
             finishSplit();
           }
-          tree.index(tok, pre, pos, splits);
+          tree.index(tok, id, pos, splits);
           count++;
         }
       }
@@ -95,12 +123,46 @@ public final class FTBuilder extends IndexBuilder {
     write(splits > 0);
 
     data.meta.ftxtindex = true;
+    data.meta.ftids = ids;
+    data.meta.fttexts = texts;
+    data.meta.ftlength = length;
+    finishIndex(perf);
+  }
+
+  /**
+   * Merges pending updates into the index files. The tokens of inserted texts
+   * are written to a first partial index, and the existing index files are
+   * merged with this index, skipping the entries of removed texts.
+   * @throws IOException I/O Exception
+   */
+  private void update() throws IOException {
+    final Performance perf = Prop.debug ? new Performance() : null;
+    Util.debug(det());
+
+    for(final byte[] tok : delta.tokens) {
+      final IntList il = delta.tokens.get(tok);
+      final int is = il.size();
+      for(int i = 0; i < is; i += 2) tree.index(tok, il.get(i), il.get(i + 1), 0);
+      count += is >> 1;
+    }
+    writeIndex(true);
+
+    // existing index files are merged as second partial index
+    for(final char c : new char[] { 'x', 'y', 'z' }) {
+      final IOFile file = data.meta.dbfile(DATAFTX + c);
+      if(!file.rename(data.meta.dbfile(DATAFTX + splits + c)))
+        throw new BaseXException(FILE_NOT_SAVED);
+    }
+    data.meta.dbfile(DATAFTX + 's').delete();
+    merge(new FTList(data, 0, null), new FTList(data, splits++, delta.removed));
+    delta.file().delete();
     finishIndex(perf);
   }
 
   @Override
   public FTIndex build() throws IOException {
-    index();
+    if(delta != null) update();
+    else index();
     return new FTIndex(data);
   }
 
@@ -113,23 +175,29 @@ public final class FTBuilder extends IndexBuilder {
     writeIndex(partial);
     if(!partial) return;
 
-    // merges temporary index files
+    // open all temporary sorted lists
+    final FTList[] v = new FTList[splits];
+    for(int b = 0; b < splits; ++b) v[b] = new FTList(data, b, null);
+    merge(v);
+  }
+
+  /**
+   * Merges temporary index files.
+   * @param v temporary sorted lists
+   * @throws IOException I/O exception
+   */
+  private void merge(final FTList... v) throws IOException {
     final DataOutput outX = new DataOutput(data.meta.dbfile(DATAFTX + 'x'));
     final DataOutput outY = new DataOutput(data.meta.dbfile(DATAFTX + 'y'));
     final DataOutput outZ = new DataOutput(data.meta.dbfile(DATAFTX + 'z'));
     final IntList ind = new IntList();
-
-    // open all temporary sorted lists
-    final FTList[] v = new FTList[splits];
-    for(int b = 0; b < splits; ++b) v[b] = new FTList(data, b);
-
     final IntList il = new IntList();
     while(check(v)) {
       int m = 0;
       il.reset();
       il.add(m);
       // find next token to write on disk
-      for(int i = 0; i < splits; ++i) {
+      for(int i = 0; i < v.length; ++i) {
         if(m == i || v[i].tok.length == 0) continue;
         final int l = v[i].tok.length - v[m].tok.length;
         final int d = diff(v[m].tok, v[i].tok);
@@ -142,23 +210,31 @@ public final class FTBuilder extends IndexBuilder {
         }
       }
 
-      if(ind.isEmpty() || ind.get(ind.size() - 2) < v[m].tok.length) {
-        ind.add(v[m].tok.length);
+      // merge full-text data; skip tokens without entries
+      final byte[] tok = v[m].tok;
+      final long off = outZ.size();
+      final int s = merge(outZ, il, v);
+      if(s == 0) continue;
+
+      if(ind.isEmpty() || ind.get(ind.size() - 2) < tok.length) {
+        ind.add(tok.length);
         ind.add((int) outY.size());
       }
 
       // write token
-      outY.writeBytes(v[m].tok);
+      outY.writeBytes(tok);
       // pointer on full-text data
-      outY.write5(outZ.size());
-      // merge and write data size
-      outY.write4(merge(outZ, il, v));
+      outY.write5(off);
+      // write data size
+      outY.write4(s);
     }
-    writeInd(outX, ind, ind.get(ind.size() - 2) + 1, (int) outY.size());
+    final int end = (int) outY.size();
+    writeInd(outX, ind, ind.isEmpty() ? 1 : ind.get(ind.size() - 2) + 1, end);
 
     outX.close();
     outY.close();
     outZ.close();
+    if(data.meta.ftsorted) FTDict.write(data, ind, end);
   }
 
   /**
@@ -225,6 +301,7 @@ public final class FTBuilder extends IndexBuilder {
     outX.close();
     outY.close();
     outZ.close();
+    if(!partial && data.meta.ftsorted) FTDict.write(data, ind, tr);
     tree.initFT();
 
     // increase split counter
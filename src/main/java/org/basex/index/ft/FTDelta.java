@@ -0,0 +1,203 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.ft.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class contains the updates of a full-text index that have not been
+ * merged into the index files yet. The tokens of inserted texts are kept in
+ * main memory, and the ids of deleted and replaced texts are recorded, as
+ * their entries in the index files are obsolete. The updates are merged into
+ * the index files when the database is optimized.</p>
+ *
+ * <p>Pending updates are stored in file <b>u</b>:<br/>
+ * Structure: {@code r, [i] ... t, [k, s, [id, pos] ...] ...}<br/>
+ * {@code r} is the number of removed ids [Num]<br/>
+ * {@code i} is a removed id [Num]<br/>
+ * {@code t} is the number of tokens [Num]<br/>
+ * {@code k} is the token [Token]<br/>
+ * {@code s} is the number of id/pos entries [Num]<br/>
+ * {@code id, pos} are the id and position of a token [Num]</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+final class FTDelta {
+  /** Id/pos entries of inserted texts, indexed by their tokens. */
+  final TokenObjMap<IntList> tokens = new TokenObjMap<IntList>();
+  /** Ids of texts whose entries in the index files are obsolete. */
+  final IntSet removed = new IntSet();
+  /** Data reference. */
+  private final Data data;
+  /** Lexer, using the options of the index. */
+  private final FTLexer lex;
+  /** Dirty flag. */
+  private boolean dirty;
+
+  /**
+   * Constructor, reading pending updates from disk.
+   * @param d data reference
+   * @throws IOException I/O exception
+   */
+  FTDelta(final Data d) throws IOException {
+    data = d;
+    final FTOpt fto = new FTOpt().copy(d.meta);
+    fto.sw = new StopWords();
+    fto.sw.comp(d);
+    lex = new FTLexer(fto);
+
+    final IOFile file = file();
+    if(!file.exists()) return;
+    final DataInput in = new DataInput(file);
+    try {
+      for(int r = in.readNum(); r > 0; r--) removed.add(in.readNum());
+      for(int t = in.readNum(); t > 0; t--) {
+        final byte[] tok = in.readToken();
+        final int s = in.readNum();
+        final IntList il = new IntList(s);
+        for(int i = 0; i < s; i++) il.add(in.readNum());
+        tokens.add(tok, il);
+      }
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Indexes the tokens of an inserted text.
+   * @param id id of the text node
+   * @param text text
+   */
+  void add(final int id, final byte[] text) {
+    final StopWords sw = lex.ftOpt().sw;
+    lex.init(text);
+    if(!lex.hasNext()) return;
+
+    data.meta.fttexts++;
+    data.meta.ftlength += text.length;
+    int pos = -1;
+    while(lex.hasNext()) {
+      final byte[] tok = lex.nextToken();
+      ++pos;
+      // skip too long and stopword tokens
+      if(tok.length > data.meta.maxlen || !sw.isEmpty() && sw.contains(tok)) continue;
+      IntList il = tokens.get(tok);
+      if(il == null) {
+        il = new IntList(2);
+        tokens.add(tok, il);
+      }
+      il.add(id);
+      il.add(pos);
+    }
+    dirty = true;
+  }
+
+  /**
+   * Removes the tokens of a deleted text.
+   * @param id id of the text node
+   * @param text text
+   */
+  void delete(final int id, final byte[] text) {
+    lex.init(text);
+    if(!lex.hasNext()) return;
+
+    data.meta.fttexts--;
+    data.meta.ftlength -= text.length;
+    removed.add(id);
+    while(lex.hasNext()) {
+      final byte[] tok = lex.nextToken();
+      final IntList il = tokens.get(tok);
+      if(il == null) continue;
+      // remove all entries of the text
+      final int s = il.size();
+      final IntList nl = new IntList(s);
+      for(int i = 0; i < s; i += 2) {
+        if(il.get(i) == id) continue;
+        nl.add(il.get(i));
+        nl.add(il.get(i + 1));
+      }
+      if(nl.size() != s) tokens.add(tok, nl);
+    }
+    dirty = true;
+  }
+
+  /**
+   * Checks if the entries of the specified id in the index files are obsolete.
+   * @param id id
+   * @return result of check
+   */
+  boolean removed(final int id) {
+    return removed.contains(id);
+  }
+
+  /**
+   * Returns the number of id/pos entries of the specified token.
+   * @param token token
+   * @return number of entries
+   */
+  int size(final byte[] token) {
+    final IntList il = tokens.get(token);
+    return il == null ? 0 : il.size() >> 1;
+  }
+
+  /**
+   * Checks if no updates are pending.
+   * @return result of check
+   */
+  boolean isEmpty() {
+    return removed.size() == 0 && tokens.isEmpty();
+  }
+
+  /**
+   * Writes pending updates to disk, or deletes the update file if no
+   * updates are left.
+   * @throws IOException I/O exception
+   */
+  void write() throws IOException {
+    if(!dirty) return;
+    dirty = false;
+
+    final IOFile file = file();
+    if(isEmpty()) {
+      file.delete();
+      return;
+    }
+    final DataOutput out = new DataOutput(file);
+    try {
+      final int rs = removed.size();
+      out.writeNum(rs);
+      for(int r = 1; r <= rs; r++) out.writeNum(removed.key(r));
+
+      int ts = 0;
+      for(int t = 1; t <= tokens.size(); t++) if(tokens.value(t).size() != 0) ts++;
+      out.writeNum(ts);
+      for(int t = 1; t <= tokens.size(); t++) {
+        final IntList il = tokens.value(t);
+        final int s = il.size();
+        if(s == 0) continue;
+        out.writeToken(tokens.key(t));
+        out.writeNum(s);
+        for(int i = 0; i < s; i++) out.writeNum(il.get(i));
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Returns the update file.
+   * @return file
+   */
+  IOFile file() {
+    return data.meta.dbfile(DATAFTX + 'u');
+  }
+}
@@ -0,0 +1,209 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class provides access to the sorted dictionary of a full-text index.
+ * In contrast to the token file of the index, in which the tokens are grouped
+ * by their length, all tokens are stored in lexicographical order. This way,
+ * all tokens starting with a common prefix can be found in a contiguous
+ * range.</p>
+ *
+ * <p>The dictionary is stored in file <b>s</b>. The tokens are divided into
+ * blocks with a fixed number of entries, and each token is front-coded
+ * relative to its predecessor in the same block:<br/>
+ * Structure: {@code [c, t, z, s] ... [b0, b1, ... bn, n]}<br/>
+ * {@code c} is the length of the prefix shared with the previous token [Num]<br/>
+ * {@code t} is the remaining part of the token [Token]<br/>
+ * {@code z} is the pointer on the data entries of the token [long]<br/>
+ * {@code s} is the number of pre values, saved in data [Num]<br/>
+ * {@code b0, b1, ... bn} are the pointers on the first token of each block
+ * [long]<br/>
+ * {@code n} is the number of blocks [int]</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+final class FTDict {
+  /** Number of tokens per block. */
+  private static final int BLOCK = 16;
+
+  /** Dictionary. */
+  private final DataAccess da;
+  /** Number of blocks. */
+  private final int blocks;
+  /** Offset of the block pointers. */
+  private final long table;
+
+  /** Current token. */
+  private byte[] token = EMPTY;
+  /** Pointer on the data entries of the current token. */
+  private long pointer;
+  /** Number of pre values of the current token. */
+  private int size;
+
+  /**
+   * Constructor, opening the dictionary.
+   * @param d data reference
+   * @throws IOException I/O exception
+   */
+  FTDict(final Data d) throws IOException {
+    da = new DataAccess(d.meta.dbfile(DATAFTX + 's'));
+    final long l = da.length() - 4;
+    blocks = da.read4(l);
+    table = l - 5L * blocks;
+  }
+
+  /**
+   * Moves the cursor to the first token that is equal to or greater than
+   * the specified prefix.
+   * @param prefix prefix
+   * @return {@code true} if a token was found
+   */
+  boolean seek(final byte[] prefix) {
+    if(blocks == 0) return false;
+    // find last block starting with a smaller token
+    int l = 0, h = blocks - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      da.cursor(da.read5(table + 5L * m));
+      da.readNum();
+      if(diff(da.readToken(), prefix) < 0) l = m + 1;
+      else h = m - 1;
+    }
+    da.cursor(da.read5(table + 5L * Math.max(0, h)));
+    while(next()) {
+      if(diff(token, prefix) >= 0) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Moves the cursor to the next token.
+   * @return {@code true} if a token was found
+   */
+  boolean next() {
+    if(da.cursor() >= table) return false;
+    final int c = da.readNum();
+    final byte[] t = da.readToken();
+    final byte[] tok = new byte[c + t.length];
+    System.arraycopy(token, 0, tok, 0, c);
+    System.arraycopy(t, 0, tok, c, t.length);
+    token = tok;
+    pointer = da.read5();
+    size = da.readNum();
+    return true;
+  }
+
+  /**
+   * Returns the current token.
+   * @return token
+   */
+  byte[] token() {
+    return token;
+  }
+
+  /**
+   * Returns the pointer on the data entries of the current token.
+   * @return pointer
+   */
+  long pointer() {
+    return pointer;
+  }
+
+  /**
+   * Returns the number of pre values of the current token.
+   * @return size
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Closes the dictionary.
+   */
+  void close() {
+    da.close();
+  }
+
+  /**
+   * Writes the sorted dictionary to disk. The tokens of all length groups of
+   * the token file are merged in lexicographical order.
+   * @param d data reference
+   * @param ind token lengths and offsets of the length groups
+   * @param end end offset of the last group
+   * @throws IOException I/O exception
+   */
+  static void write(final Data d, final IntList ind, final int end)
+      throws IOException {
+
+    final DataAccess inY = new DataAccess(d.meta.dbfile(DATAFTX + 'y'));
+    final DataOutput out = new DataOutput(d.meta.dbfile(DATAFTX + 's'));
+    try {
+      // current tokens, offsets, end offsets and token lengths of all length groups
+      final int gs = ind.size() >> 1;
+      final byte[][] toks = new byte[gs][];
+      final int[] pos = new int[gs], ends = new int[gs], lens = new int[gs];
+      final MinHeap<byte[], Integer> heap = new MinHeap<byte[], Integer>(gs,
+          new Comparator<byte[]>() {
+            @Override
+            public int compare(final byte[] t1, final byte[] t2) {
+              return diff(t1, t2);
+            }
+          });
+      for(int g = 0; g < gs; g++) {
+        lens[g] = ind.get(g << 1);
+        pos[g] = ind.get((g << 1) + 1);
+        ends[g] = g + 1 < gs ? ind.get((g << 1) + 3) : end;
+        if(pos[g] < ends[g]) {
+          toks[g] = inY.readBytes(pos[g], lens[g]);
+          heap.insert(toks[g], g);
+        }
+      }
+
+      long[] offsets = new long[1];
+      int blocks = 0, c = 0;
+      byte[] prev = EMPTY;
+      while(!heap.isEmpty()) {
+        final int g = heap.removeMin();
+        final int p = pos[g], l = lens[g];
+        final byte[] tok = toks[g];
+        // start new block
+        int s = 0;
+        if(c++ % BLOCK == 0) {
+          if(blocks == offsets.length) offsets = Arrays.copyOf(offsets, blocks << 1);
+          offsets[blocks++] = out.size();
+        } else {
+          final int ml = Math.min(prev.length, l);
+          while(s < ml && prev[s] == tok[s]) s++;
+        }
+        out.writeNum(s);
+        out.writeToken(Arrays.copyOfRange(tok, s, l));
+        out.write5(inY.read5(p + l));
+        out.writeNum(inY.read4(p + l + 5));
+        prev = tok;
+
+        pos[g] += l + FTIndex.ENTRY;
+        if(pos[g] < ends[g]) {
+          toks[g] = inY.readBytes(pos[g], l);
+          heap.insert(toks[g], g);
+        }
+      }
+      for(int b = 0; b < blocks; b++) out.write5(offsets[b]);
+      out.write4(blocks);
+    } finally {
+      out.close();
+      inY.close();
+    }
+  }
+}
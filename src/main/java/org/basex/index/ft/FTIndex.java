@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 import static org.basex.util.ft.FTFlag.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -13,6 +14,7 @@ import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.io.random.*;
+import org.basex.query.*;
 import org.basex.query.ft.*;
 import org.basex.util.*;
 import org.basex.util.ft.*;
@@ -43,12 +45,18 @@ import org.basex.util.list.*;
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
  * </ul>
  *
+ * <p>If the database is updatable ({@link MetaData#updindex}), node ids are
+ * stored instead of pre values, and updates are recorded in a delta
+ * ({@link FTDelta}), which is searched together with the index files.</p>
+ *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
  */
 public final class FTIndex implements Index {
   /** Entry size. */
-  private static final int ENTRY = 9;
+  static final int ENTRY = 9;
+  /** Maximum number of id/pos entries of all cached results. */
+  private static final int MAXCACHE = 1 << 20;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
   private final IntMap<byte[]> ctext = new IntMap<byte[]>();
@@ -64,9 +72,20 @@ public final class FTIndex implements Index {
   final DataAccess inY;
   /** Storing pre and pos values for each token. */
   final DataAccess inZ;
+  /** Sorted dictionary ({@code null} if it has not been created). */
+  private final FTDict dict;
+  /** Pending updates ({@code null} if the index is not updatable). */
+  final FTDelta delta;
 
   /** Cache for number of hits and data reference per token. */
   final IndexCache cache = new IndexCache();
+  /** Cached results, indexed by the search options and tokens, in access order. */
+  private final LinkedHashMap<String, FTCache> results =
+      new LinkedHashMap<String, FTCache>(16, 0.75f, true);
+  /** Number of id/pos entries of all cached results. */
+  private int cached;
+  /** Number of database updates at the time the results were cached. */
+  private long updates;
   /** Token positions. */
   final int[] tp;
 
@@ -99,6 +118,8 @@ public final class FTIndex implements Index {
       tp[p] = r;
     }
     tp[tp.length - 1] = (int) inY.length();
+    dict = d.meta.ftsorted ? new FTDict(d) : null;
+    delta = d.meta.updindex ? new FTDelta(d) : null;
   }
 
   @Override
@@ -113,26 +134,70 @@ public final class FTIndex implements Index {
     final FTOpt opt = ((FTLexer) it).ftOpt();
     if(opt.is(FZ) || opt.is(WC)) return Math.max(1, data.meta.size / 10);
 
-    return entry(tok).size;
+    return entry(tok).size + (delta != null ? delta.size(tok) : 0);
   }
 
   @Override
   public synchronized IndexIterator iter(final IndexToken it) {
     final byte[] tok = it.get();
-
-    // wildcard search
     final FTOpt opt = ((FTLexer) it).ftOpt();
-    if(opt.is(WC)) return wc(tok);
+    final boolean wc = opt.is(WC), fz = !wc && opt.is(FZ);
+    int k = 0;
+    if(fz) {
+      k = data.meta.prop.num(Prop.LSERROR);
+      if(k == 0) k = tok.length >> 2;
+    }
 
-    // fuzzy search
-    if(opt.is(FZ)) {
-      final int k = data.meta.prop.num(Prop.LSERROR);
-      return fuzzy(tok, k == 0 ? tok.length >> 2 : k);
+    // return cached result
+    final String key = (wc ? "w" : fz ? "f" + k : "") + ':' + string(tok);
+    FTCache ftc = cached(key);
+    if(ftc == null) {
+      if(wc) {
+        // wildcard search
+        ftc = wc(tok);
+      } else if(fz) {
+        // fuzzy search
+        ftc = fuzzy(tok, k);
+      } else {
+        ftc = cache(tok);
+      }
+      if(ftc == null) return FTIndexIterator.FTEMPTY;
+      cache(key, ftc);
     }
+    return iter(ftc);
+  }
 
-    // return cached or new result
-    final IndexEntry e = entry(tok);
-    return e.size > 0 ? iter(e.pointer, e.size, inZ) : FTIndexIterator.FTEMPTY;
+  /**
+   * Returns the cached result for the specified key. All results are discarded
+   * if the database has been updated in the meantime.
+   * @param key key
+   * @return result, or {@code null} if no result has been cached
+   */
+  private FTCache cached(final String key) {
+    if(updates != data.meta.updates) {
+      results.clear();
+      cached = 0;
+      updates = data.meta.updates;
+    }
+    return results.get(key);
+  }
+
+  /**
+   * Caches a result. The least recently used results are discarded if the
+   * maximum number of cached entries is exceeded.
+   * @param key key
+   * @param ftc result
+   */
+  private void cache(final String key, final FTCache ftc) {
+    final int s = ftc.pre.size();
+    if(s > MAXCACHE >> 2) return;
+    final Iterator<FTCache> iter = results.values().iterator();
+    while(cached + s > MAXCACHE && iter.hasNext()) {
+      cached -= iter.next().pre.size();
+      iter.remove();
+    }
+    results.put(key, ftc);
+    cached += s;
   }
 
   /**
@@ -153,7 +218,7 @@ public final class FTIndex implements Index {
   public EntryIterator entries(final IndexEntries entries) {
     final byte[] prefix = entries.get();
     return new EntryIterator() {
-      int ti = prefix.length - 1, i, e, nr;
+      int ti = prefix.length - 1, i, e, nr, d;
       boolean inner;
 
       @Override
@@ -165,6 +230,7 @@ public final class FTIndex implements Index {
             final long poi = inY.read5();
             nr = inY.read4();
             if(prefix.length != 0) cache.add(entry, nr, poi);
+            if(delta != null) nr += delta.size(entry);
             i += ti + ENTRY;
             return entry;
           }
@@ -182,6 +248,13 @@ public final class FTIndex implements Index {
           final byte[] n = next();
           if(n != null) return n;
         }
+        // add tokens that only occur in inserted texts
+        inner = false;
+        while(delta != null && ++d <= delta.tokens.size()) {
+          final byte[] entry = delta.tokens.key(d);
+          nr = delta.size(entry);
+          if(nr != 0 && startsWith(entry, prefix) && token(entry) == -1) return entry;
+        }
         // all entries processed: return null
         return null;
       }
@@ -237,8 +310,48 @@ public final class FTIndex implements Index {
     return tb.finish();
   }
 
+  /**
+   * Indexes the tokens of an inserted text.
+   * @param id id of the text node
+   * @param text text
+   */
+  public synchronized void add(final int id, final byte[] text) {
+    delta.add(id, text);
+  }
+
+  /**
+   * Removes the tokens of a deleted text.
+   * @param id id of the text node
+   * @param text text
+   */
+  public synchronized void delete(final int id, final byte[] text) {
+    delta.delete(id, text);
+  }
+
+  /**
+   * Checks if updates are pending that have not been merged into the index files.
+   * @return result of check
+   */
+  public synchronized boolean updated() {
+    return delta != null && !delta.isEmpty();
+  }
+
+  /**
+   * Writes pending updates to disk.
+   */
+  public synchronized void flush() {
+    if(delta == null) return;
+    try {
+      delta.write();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
   @Override
   public synchronized void close() {
+    flush();
+    if(dict != null) dict.close();
     inX.close();
     inY.close();
     inZ.close();
@@ -319,13 +432,14 @@ public final class FTIndex implements Index {
    * Performs a fuzzy search for the specified token with a maximum number of errors.
    * @param token token to look for
    * @param k number of errors allowed
-   * @return iterator
+   * @return id cache
    */
-  private synchronized IndexIterator fuzzy(final byte[] token, final int k) {
-    FTIndexIterator it = FTIndexIterator.FTEMPTY;
+  private FTCache fuzzy(final byte[] token, final int k) {
+    final IntList pr = new IntList();
+    final IntList ps = new IntList();
     final int tl = token.length;
     final int e = Math.min(tp.length - 1, tl + k);
-    int s = Math.max(1, tl - k) - 1;
+    int s = Math.max(1, tl - k) - 1, terms = 0, compared = 0;
 
     while(++s <= e) {
       int p = tp[s];
@@ -333,71 +447,143 @@ public final class FTIndex implements Index {
       int i = s + 1;
       int r = -1;
       while(i < tp.length && r == -1) r = tp[i++];
+      final int o = s + ENTRY;
+      terms += (r - p) / o;
       while(p < r) {
-        if(ls.similar(inY.readBytes(p, s), token, k)) {
-          it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ), it);
+        final byte[] t = inY.readBytes(p, s);
+        final int l = ls.prefix(t, token, k);
+        compared++;
+        if(l == -1) add(pointer(p, s), size(p, s), pr, ps);
+        if(l == -1 || l == s) {
+          p += o;
+        } else {
+          // skip all tokens starting with the dissimilar prefix
+          final byte[] n = next(t, l);
+          p = n == null ? r : find(n, p, r - o, s);
         }
-        p += s + ENTRY;
       }
     }
-    return it;
+    if(delta != null) {
+      for(final byte[] t : delta.tokens) {
+        if(t.length <= e && ls.prefix(t, token, k) == -1) add(t, pr, ps);
+      }
+    }
+    final FTCache ftc = new FTCache(pr, ps);
+    ftc.info = Util.info(QueryText.EVALFUZZY, token, compared, terms);
+    return ftc;
+  }
+
+  /**
+   * Returns the smallest token that is greater than all tokens starting with
+   * the specified prefix.
+   * @param token token
+   * @param l length of the prefix
+   * @return token, or {@code null} if no greater token exists
+   */
+  private static byte[] next(final byte[] token, final int l) {
+    int i = l;
+    while(--i >= 0 && token[i] == -1);
+    if(i < 0) return null;
+    final byte[] n = Arrays.copyOf(token, i + 1);
+    n[i]++;
+    return n;
   }
 
   /**
    * Performs a wildcard search for the specified token.
    * @param token token to look for
-   * @return iterator
+   * @return id cache, or {@code null} if the token is no valid wildcard expression
    */
-  private synchronized IndexIterator wc(final byte[] token) {
-    final FTIndexIterator it = FTIndexIterator.FTEMPTY;
+  private FTCache wc(final byte[] token) {
     final FTWildcard wc = new FTWildcard(token);
-    if(!wc.parse()) return it;
+    if(!wc.parse()) return null;
 
     final IntList pr = new IntList();
     final IntList ps = new IntList();
     final byte[] pref = wc.prefix();
     final int l = Math.min(tp.length - 1, wc.max());
-    for(int ti = pref.length; ti <= l; ti++) {
-      int i = tp[ti];
-      if(i == -1) continue;
-      int c = ti + 1;
-      int e = -1;
-      while(c < tp.length && e == -1) e = tp[c++];
-      i = find(pref, i, e, ti);
-
-      while(i < e) {
-        final byte[] t = inY.readBytes(i, ti);
+    if(dict != null) {
+      // sorted dictionary: parse all tokens starting with the prefix
+      for(boolean more = dict.seek(pref); more; more = dict.next()) {
+        final byte[] t = dict.token();
         if(!startsWith(t, pref)) break;
-        if(wc.match(t)) {
-          inZ.cursor(pointer(i, ti));
-          final int s = size(i, ti);
-          for(int d = 0; d < s; d++) {
-            pr.add(inZ.readNum());
-            ps.add(inZ.readNum());
-          }
+        if(t.length <= l && wc.match(t)) add(dict.pointer(), dict.size(), pr, ps);
+      }
+    } else {
+      for(int ti = pref.length; ti <= l; ti++) {
+        int i = tp[ti];
+        if(i == -1) continue;
+        int c = ti + 1;
+        int e = -1;
+        while(c < tp.length && e == -1) e = tp[c++];
+        i = find(pref, i, e, ti);
+
+        while(i < e) {
+          final byte[] t = inY.readBytes(i, ti);
+          if(!startsWith(t, pref)) break;
+          if(wc.match(t)) add(pointer(i, ti), size(i, ti), pr, ps);
+          i += ti + ENTRY;
         }
-        i += ti + ENTRY;
       }
     }
-    return iter(new FTCache(pr, ps));
+    if(delta != null) {
+      for(final byte[] t : delta.tokens) {
+        if(t.length <= l && startsWith(t, pref) && wc.match(t)) add(t, pr, ps);
+      }
+    }
+    return new FTCache(pr, ps);
   }
 
   /**
-   * Returns an iterator for an index entry.
+   * Returns the id/pos entries of a token.
+   * @param token token
+   * @return id cache, or {@code null} if the token was not found
+   */
+  private FTCache cache(final byte[] token) {
+    final IndexEntry e = entry(token);
+    final IntList pr = new IntList(e.size);
+    final IntList ps = new IntList(e.size);
+    if(e.size > 0) add(e.pointer, e.size, pr, ps);
+    if(delta != null) add(token, pr, ps);
+    return pr.isEmpty() ? null : new FTCache(pr, ps);
+  }
+
+  /**
+   * Adds the id/pos entries of an index entry to the specified lists.
    * @param off offset on entries
    * @param size number of id/pos entries
-   * @param da data source
-   * @return iterator
+   * @param pr pre values
+   * @param ps positions
    */
-  private FTIndexIterator iter(final long off, final int size, final DataAccess da) {
-    da.cursor(off);
-    final IntList pr = new IntList(size);
-    final IntList ps = new IntList(size);
+  private void add(final long off, final int size, final IntList pr, final IntList ps) {
+    inZ.cursor(off);
     for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
+      final int p = inZ.readNum(), s = inZ.readNum();
+      if(delta == null) {
+        pr.add(p);
+      } else {
+        // skip entries of deleted and replaced texts, convert ids to pre values
+        if(delta.removed(p)) continue;
+        pr.add(data.pre(p));
+      }
+      ps.add(s);
+    }
+  }
+
+  /**
+   * Adds the id/pos entries of a token in inserted texts to the specified lists.
+   * @param token token
+   * @param pr pre values
+   * @param ps positions
+   */
+  private void add(final byte[] token, final IntList pr, final IntList ps) {
+    final IntList il = delta.tokens.get(token);
+    if(il == null) return;
+    final int s = il.size();
+    for(int i = 0; i < s; i += 2) {
+      pr.add(data.pre(il.get(i)));
+      ps.add(il.get(i + 1));
     }
-    return iter(new FTCache(pr, ps));
   }
 
   /**
@@ -407,6 +593,7 @@ public final class FTIndex implements Index {
    */
   private synchronized FTIndexIterator iter(final FTCache ftc) {
     final int size = ftc.pre.size();
+    Usage.hits(size);
 
     return new FTIndexIterator() {
       final FTMatches all = new FTMatches(toknum);
@@ -439,6 +626,16 @@ public final class FTIndex implements Index {
         return size;
       }
 
+      @Override
+      public int texts() {
+        return ftc.texts;
+      }
+
+      @Override
+      public String info() {
+        return ftc.info;
+      }
+
       @Override
       public String toString() {
         return Integer.toString(size);
@@ -447,7 +644,8 @@ public final class FTIndex implements Index {
   }
 
   /**
-   * Full-text cache.
+   * Full-text cache. The instances are immutable and can be shared by
+   * several iterators.
    */
   static final class FTCache {
     /** Order. */
@@ -456,6 +654,10 @@ public final class FTIndex implements Index {
     final IntList pre;
     /** Pos values. */
     final IntList pos;
+    /** Number of distinct pre values. */
+    final int texts;
+    /** Information on the index access (may be {@code null}). */
+    String info;
 
     /**
      * Constructor.
@@ -469,6 +671,15 @@ public final class FTIndex implements Index {
       order = Array.createOrder(v, true);
       pre = pr;
       pos = ps;
+      int t = 0;
+      for(int i = 0, p = -1; i < s; i++) {
+        final int n = pr.get(order[i]);
+        if(n != p) {
+          p = n;
+          t++;
+        }
+      }
+      texts = t;
     }
   }
 }
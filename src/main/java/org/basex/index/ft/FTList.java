@@ -4,10 +4,12 @@ import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.random.*;
+import org.basex.util.hash.*;
 
 /**
  * This class provides temporary access to sorted list data.
@@ -27,6 +29,8 @@ final class FTList {
   private final IOFile filed;
   /** Wasted flag. */
   private boolean wasted;
+  /** Ids of entries to be skipped (can be {@code null}). */
+  private final IntSet skip;
 
   /** Size file. */
   private final IOFile sizes;
@@ -55,9 +59,11 @@ final class FTList {
    * Constructor, initializing the index structure.
    * @param d data
    * @param cf prefix
+   * @param sk ids of entries to be skipped (can be {@code null})
    * @throws IOException I/O exception
    */
-  FTList(final Data d, final int cf) throws IOException {
+  FTList(final Data d, final int cf, final IntSet sk) throws IOException {
+    skip = sk;
     files = d.meta.dbfile(DATAFTX + cf + 'y');
     filed = d.meta.dbfile(DATAFTX + cf + 'z');
     str = new DataAccess(files);
@@ -91,9 +97,16 @@ final class FTList {
     } else {
       prv = new int[size];
       pov = new int[size];
+      int s = 0;
       for(int j = 0; j < size; ++j) {
-        prv[j] = dat.readNum();
-        pov[j] = dat.readNum();
+        prv[s] = dat.readNum();
+        pov[s] = dat.readNum();
+        if(skip == null || !skip.contains(prv[s])) s++;
+      }
+      if(s != size) {
+        prv = Arrays.copyOf(prv, s);
+        pov = Arrays.copyOf(pov, s);
+        size = s;
       }
     }
   }
@@ -0,0 +1,259 @@
+package org.basex.index.name;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.query.*;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class provides access to the posting lists of element or attribute names,
+ * or of path summary nodes, which are stored on disk. The data structure is
+ * described in the {@link NameIndexBuilder} class.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class NameIndex {
+  /** File prefix of the posting lists of the path summary nodes. */
+  static final String PATHS = DATANAM + 'p';
+
+  /** Posting lists. */
+  private final DataAccess idxl;
+  /** References to the posting lists. */
+  private final DataAccess idxr;
+  /** Data reference. */
+  private final Data data;
+
+  /** Cached ids to be added, indexed by name ids. */
+  private IntList[] adds = {};
+  /** Cached ids to be deleted, indexed by name ids. */
+  private IntList[] dels = {};
+
+  /**
+   * Constructor, initializing the index structure.
+   * @param d data reference
+   * @param elem element or attribute names
+   * @throws IOException I/O Exception
+   */
+  public NameIndex(final Data d, final boolean elem) throws IOException {
+    this(d, file(elem));
+  }
+
+  /**
+   * Constructor, initializing the posting lists of the path summary nodes.
+   * @param d data reference
+   * @throws IOException I/O Exception
+   */
+  public NameIndex(final Data d) throws IOException {
+    this(d, PATHS);
+  }
+
+  /**
+   * Constructor, initializing the index structure.
+   * @param d data reference
+   * @param pref file prefix
+   * @throws IOException I/O Exception
+   */
+  private NameIndex(final Data d, final String pref) throws IOException {
+    data = d;
+    idxl = new DataAccess(d.meta.dbfile(pref + 'l'));
+    idxr = new DataAccess(d.meta.dbfile(pref + 'r'));
+  }
+
+  /**
+   * Returns the file prefix of the index.
+   * @param elem element or attribute names
+   * @return file prefix
+   */
+  static String file(final boolean elem) {
+    return DATANAM + (elem ? 'e' : 'a');
+  }
+
+  /**
+   * Returns the number of nodes with the specified name (or path id).
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param name name id
+   * @return number of nodes
+   */
+  public int count(final int name) {
+    synchronized(idxl) {
+      return idxl.readNum(pointer(name));
+    }
+  }
+
+  /**
+   * Returns the sorted pre values of the nodes with the specified name (or path id).
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param name name id
+   * @return iterator
+   */
+  public IndexIterator iter(final int name) {
+    final IntList pres;
+    synchronized(idxl) {
+      final int s = idxl.readNum(pointer(name));
+      pres = new IntList(s);
+      for(int i = 0, v = 0; i < s; i++) {
+        v += idxl.readNum();
+        pres.add(v);
+      }
+    }
+    // ids need to be mapped to pre values
+    if(data.meta.updindex) {
+      final int s = pres.size();
+      for(int i = 0; i < s; i++) pres.set(i, data.pre(pres.get(i)));
+      pres.sort();
+    }
+    Usage.hits(pres.size());
+
+    return new IndexIterator() {
+      final int s = pres.size();
+      int p = -1;
+
+      @Override
+      public boolean more() {
+        return ++p < s;
+      }
+
+      @Override
+      public int next() {
+        return pres.get(p);
+      }
+
+      @Override
+      public int size() {
+        return s;
+      }
+    };
+  }
+
+  /**
+   * Caches the id of a node that has been assigned the specified name.
+   * @param name name id
+   * @param id node id
+   */
+  public void add(final int name, final int id) {
+    adds = cache(adds, name, id);
+  }
+
+  /**
+   * Caches the id of a node whose name will be removed.
+   * @param name name id
+   * @param id node id
+   */
+  public void delete(final int name, final int id) {
+    dels = cache(dels, name, id);
+  }
+
+  /**
+   * Writes all cached changes to the posting lists.
+   */
+  public void update() {
+    final int s = Math.max(adds.length, dels.length);
+    synchronized(idxl) {
+      for(int n = 0; n < s; n++) {
+        final IntList a = n < adds.length ? adds[n] : null;
+        final IntList d = n < dels.length ? dels[n] : null;
+        if(a != null || d != null) update(n, a, d);
+      }
+    }
+    adds = new IntList[0];
+    dels = new IntList[0];
+  }
+
+  /**
+   * Flushes the buffered data.
+   */
+  public void flush() {
+    idxl.flush();
+    idxr.flush();
+  }
+
+  /**
+   * Closes the index.
+   */
+  public void close() {
+    synchronized(idxl) {
+      idxl.close();
+      idxr.close();
+    }
+  }
+
+  /**
+   * Updates a single posting list.
+   * @param name name id
+   * @param add ids to be added (may be {@code null})
+   * @param del ids to be deleted (may be {@code null})
+   */
+  private void update(final int name, final IntList add, final IntList del) {
+    final long pos = pointer(name);
+    final int os = idxl.readNum(pos);
+    final IntList ids = new IntList(os + (add != null ? add.size() : 0));
+    final int ds = del != null ? del.size() : 0;
+    if(del != null) del.sort();
+    for(int i = 0, v = 0, d = 0; i < os; i++) {
+      v += idxl.readNum();
+      // skip deleted ids (ids that are not found in the list are ignored)
+      while(d < ds && del.get(d) < v) d++;
+      if(d < ds && del.get(d) == v) d++;
+      else ids.add(v);
+    }
+    final long old = idxl.cursor() - pos;
+    if(add != null) {
+      final int as = add.size();
+      for(int a = 0; a < as; a++) ids.add(add.get(a));
+      ids.sort();
+    }
+
+    // compute distances and the length of the compressed list
+    final int is = ids.size();
+    final int[] nums = new int[is];
+    long len = Num.length(is);
+    for(int i = 0, v = 0; i < is; i++) {
+      final int id = ids.get(i);
+      nums[i] = id - v;
+      len += Num.length(nums[i]);
+      v = id;
+    }
+    // overwrite the existing list if the new list fits into its space
+    // (lists may grow after deletions, as merged distances may take more bytes)
+    if(pos != 0 && len <= old) {
+      idxl.writeNums(pos, nums);
+    } else {
+      // extend reference file if new names have been added
+      final long l = idxr.length() / 5;
+      for(long i = l; i < name; i++) idxr.write5(i * 5L, 0);
+      idxr.write5(name * 5L, idxl.appendNums(nums));
+    }
+  }
+
+  /**
+   * Returns the pointer to the posting list of the specified name.
+   * @param name name id
+   * @return pointer
+   */
+  private long pointer(final int name) {
+    // no entry: return empty list, which is stored at the beginning of the file
+    return name * 5L < idxr.length() ? idxr.read5(name * 5L) : 0;
+  }
+
+  /**
+   * Adds an id to the specified cache.
+   * @param cache cache
+   * @param name name id
+   * @param id id
+   * @return cache
+   */
+  private static IntList[] cache(final IntList[] cache, final int name, final int id) {
+    IntList[] c = cache;
+    if(name >= c.length) c = Arrays.copyOf(c, Math.max(name + 1, c.length << 1));
+    if(c[name] == null) c[name] = new IntList();
+    c[name].add(id);
+    return c;
+  }
+}
@@ -0,0 +1,251 @@
+package org.basex.index.name;
+
+import static org.basex.core.Text.*;
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.path.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class builds the posting lists for all element and attribute names
+ * and path summary nodes, and stores the result to disk.</p>
+ *
+ * <p>The data is stored on disk in the following format:</p>
+ * <ul>
+ * <li> {@code DATANAM + 'e'/'a' + 'l'}: contains the posting lists, which are
+ *   sorted id lists to all elements/attributes with the same name, stored in the
+ *   {@link Num} format: [size, id1, id2 - id1, ...]. The first entry of the file
+ *   is an empty list.</li>
+ * <li> {@code DATANAM + 'e'/'a' + 'r'}: contains 5-byte references to the
+ *   posting lists, which are indexed by the name ids. A reference to an empty
+ *   list is 0.</li>
+ * </ul>
+ *
+ * <p>The posting lists of the path summary nodes are stored in the same format
+ * in the files {@code DATANAM + 'p' + 'l'/'r'}. They are indexed by the path ids,
+ * which are the preorder offsets of the nodes in the {@link PathSummary}, and they
+ * are only valid as long as the summary is up-to-date.</p>
+ *
+ * <p>If {@link Prop#UPDINDEX} is activated, node ids are stored instead of pre
+ * values.</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class NameIndexBuilder extends IndexBuilder {
+  /** Empty list. */
+  private static final IntList EMPTY = new IntList(0);
+  /** File prefixes of element names, attribute names and paths. */
+  private static final String[] FILES = {
+    NameIndex.file(true), NameIndex.file(false), NameIndex.PATHS
+  };
+  /** Temporary posting lists of element names, attribute names and paths. */
+  private final IntList[][] lists = new IntList[FILES.length][];
+  /** Path ids of the path summary nodes (empty if the summary is out-of-date). */
+  private final IdentityHashMap<PathNode, Integer> paths =
+      new IdentityHashMap<PathNode, Integer>();
+
+  /**
+   * Constructor.
+   * @param d data reference
+   */
+  public NameIndexBuilder(final Data d) {
+    super(d, d.meta.prop.num(Prop.INDEXSPLITSIZE));
+  }
+
+  @Override
+  public Names build() throws IOException {
+    // delete old index
+    abort();
+
+    final Performance perf = Prop.debug ? new Performance() : null;
+    Util.debug(det());
+
+    // assign path ids
+    if(data.meta.uptodate) {
+      final ArrayList<PathNode> nodes = data.paths.nodes();
+      final int ns = nodes.size();
+      for(int n = 0; n < ns; n++) paths.put(nodes.get(n), n);
+    }
+
+    // stacks with the path nodes and end positions of the ancestors
+    final ArrayList<PathNode> pnodes = new ArrayList<PathNode>();
+    final IntList ends = new IntList();
+
+    init();
+    for(pre = 0; pre < size; ++pre) {
+      if((pre & 0x0FFF) == 0) {
+        check();
+        // check if main memory is exhausted
+        if(split()) {
+          writePartial();
+          init();
+          finishSplit();
+        }
+      }
+      final int k = data.kind(pre);
+      if(k != Data.DOC && k != Data.ELEM && k != Data.ATTR) continue;
+
+      final int n = k == Data.DOC ? 0 : data.name(pre);
+      final int id = data.meta.updindex ? data.id(pre) : pre;
+      if(n != 0) {
+        add(lists[k == Data.ELEM ? 0 : 1], n, id);
+        count++;
+      }
+      if(paths.isEmpty()) continue;
+
+      // find path node
+      while(!ends.isEmpty() && ends.peek() <= pre) {
+        ends.pop();
+        pnodes.remove(pnodes.size() - 1);
+      }
+      final PathNode pn;
+      if(k == Data.DOC) {
+        pn = data.paths.root().get(0);
+      } else {
+        pn = child(pnodes.get(pnodes.size() - 1), n, k);
+        add(lists[2], paths.get(pn), id);
+      }
+      if(k != Data.ATTR) {
+        pnodes.add(pn);
+        ends.push(pre + data.size(pre, k));
+      }
+    }
+
+    for(int l = 0; l < FILES.length; l++) write(l);
+    // delete partial files
+    data.meta.drop(DATANAM + "[eap]\\d+");
+    data.meta.nameindex = true;
+
+    data.tagindex.postings(new NameIndex(data, true));
+    data.atnindex.postings(new NameIndex(data, false));
+    data.paths.postings(new NameIndex(data));
+    finishIndex(perf);
+    return data.tagindex;
+  }
+
+  /**
+   * Initializes the temporary posting lists.
+   */
+  private void init() {
+    lists[0] = new IntList[data.tagindex.size() + 1];
+    lists[1] = new IntList[data.atnindex.size() + 1];
+    lists[2] = new IntList[paths.size()];
+  }
+
+  /**
+   * Adds an id to the specified posting list.
+   * @param l posting lists
+   * @param n name or path id
+   * @param id id
+   */
+  private static void add(final IntList[] l, final int n, final int id) {
+    if(l[n] == null) l[n] = new IntList();
+    l[n].add(id);
+  }
+
+  /**
+   * Returns the child of a path node with the specified name and kind.
+   * @param pn path node
+   * @param n name id
+   * @param k node kind
+   * @return child node
+   */
+  private static PathNode child(final PathNode pn, final int n, final int k) {
+    for(final PathNode c : pn.ch) if(c.kind == k && c.name == n) return c;
+    throw Util.notexpected("Path summary is out-of-date");
+  }
+
+  /**
+   * Writes the temporary posting lists to disk.
+   * @throws IOException I/O exception
+   */
+  private void writePartial() throws IOException {
+    for(int f = 0; f < FILES.length; f++) {
+      final IntList[] l = lists[f];
+      final DataOutput out = new DataOutput(data.meta.dbfile(FILES[f] + splits));
+      try {
+        // path ids start with 0
+        for(int n = f == 2 ? 0 : 1; n < l.length; n++) {
+          out.writeDiffs(l[n] != null ? l[n] : EMPTY);
+        }
+      } finally {
+        out.close();
+      }
+    }
+    splits++;
+  }
+
+  /**
+   * Writes the final posting lists to disk.
+   * Partial lists will be merged with the lists in main memory.
+   * @param i offset of the posting lists
+   * @throws IOException I/O exception
+   */
+  private void write(final int i) throws IOException {
+    final String f = FILES[i];
+    final IntList[] l = lists[i];
+    final DataInput[] in = new DataInput[splits];
+    for(int s = 0; s < splits; s++) in[s] = new DataInput(data.meta.dbfile(f + s));
+
+    final DataOutput outL = new DataOutput(data.meta.dbfile(f + 'l'));
+    final DataOutput outR = new DataOutput(data.meta.dbfile(f + 'r'));
+    try {
+      // empty list
+      outL.writeNum(0);
+      if(i != 2) outR.write5(0);
+      for(int n = i == 2 ? 0 : 1; n < l.length; n++) {
+        checkStop();
+        // partial lists are merged in the order in which they were written
+        IntList il = l[n];
+        if(splits > 0) {
+          il = new IntList();
+          for(final DataInput di : in) add(il, di.readDiffs());
+          if(l[n] != null) add(il, l[n]);
+        }
+        if(il == null || il.isEmpty()) {
+          outR.write5(0);
+        } else {
+          // ids are not necessarily sorted
+          outR.write5(outL.size());
+          outL.writeDiffs(data.meta.updindex ? il.sort() : il);
+        }
+        l[n] = null;
+      }
+    } finally {
+      outL.close();
+      outR.close();
+      for(final DataInput di : in) di.close();
+    }
+  }
+
+  /**
+   * Adds the entries of the second list to the first list.
+   * @param list list
+   * @param add list to be added
+   */
+  private static void add(final IntList list, final IntList add) {
+    final int as = add.size();
+    for(int a = 0; a < as; a++) list.add(add.get(a));
+  }
+
+  @Override
+  public void abort() {
+    data.meta.drop(DATANAM + "..");
+    data.meta.nameindex = false;
+  }
+
+  @Override
+  protected String det() {
+    return INDEX_NAMES_D;
+  }
+}
@@ -26,6 +26,8 @@ public final class Names extends TokenSet implements Index {
   Stats[] stats;
   /** Meta data. */
   private final MetaData meta;
+  /** Posting lists (can be {@code null}). */
+  private NameIndex postings;
 
   /**
    * Default constructor.
@@ -145,18 +147,40 @@ public final class Names extends TokenSet implements Index {
     stats = Arrays.copyOf(stats, size << 1);
   }
 
-  @Override
-  public void close() { }
+  /**
+   * Assigns the posting lists of the names.
+   * @param pl posting lists
+   */
+  public void postings(final NameIndex pl) {
+    postings = pl;
+  }
 
-  // Unsupported methods ======================================================
+  /**
+   * Returns the posting lists of the names.
+   * @return posting lists, or {@code null} if no name index exists
+   */
+  public NameIndex postings() {
+    return postings;
+  }
 
   @Override
   public IndexIterator iter(final IndexToken token) {
-    throw Util.notexpected();
+    if(postings == null) throw Util.notexpected();
+    final int id = id(token.get());
+    return id == 0 ? IndexIterator.EMPTY : postings.iter(id);
   }
 
   @Override
   public int count(final IndexToken token) {
-    throw Util.notexpected();
+    if(postings == null) throw Util.notexpected();
+    final int id = id(token.get());
+    return id == 0 ? 0 : postings.count(id);
+  }
+
+  @Override
+  public void close() {
+    if(postings == null) return;
+    postings.close();
+    postings = null;
   }
 }
@@ -7,6 +7,7 @@ import java.util.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
@@ -27,6 +28,8 @@ public final class PathSummary implements Index {
   private Data data;
   /** Root node. */
   private PathNode root;
+  /** Posting lists of the path nodes (can be {@code null}). */
+  private NameIndex postings;
 
   /**
    * Constructor.
@@ -82,7 +85,29 @@ public final class PathSummary implements Index {
   }
 
   @Override
-  public void close() { }
+  public void close() {
+    if(postings == null) return;
+    postings.close();
+    postings = null;
+  }
+
+  /**
+   * Attaches the posting lists of the path nodes, which are created along with
+   * the name index.
+   * @param pl posting lists
+   */
+  public void postings(final NameIndex pl) {
+    postings = pl;
+  }
+
+  /**
+   * Returns the posting lists of the path nodes.
+   * The lists are only valid if the summary is up-to-date.
+   * @return posting lists, or {@code null}
+   */
+  public NameIndex postings() {
+    return postings;
+  }
 
   // Build Index ==============================================================
 
@@ -128,6 +153,29 @@ public final class PathSummary implements Index {
     return out;
   }
 
+  /**
+   * Returns all nodes in preorder. The offsets of the nodes are used as path ids.
+   * @return nodes
+   */
+  public ArrayList<PathNode> nodes() {
+    final ArrayList<PathNode> out = new ArrayList<PathNode>();
+    root.addDesc(out);
+    return out;
+  }
+
+  /**
+   * Returns the path ids of the specified nodes.
+   * @param in input nodes
+   * @return path ids
+   */
+  public int[] ids(final ArrayList<PathNode> in) {
+    final ArrayList<PathNode> all = nodes();
+    final int ns = in.size();
+    final int[] ids = new int[ns];
+    for(int n = 0; n < ns; n++) ids[n] = all.indexOf(in.get(n));
+    return ids;
+  }
+
   /**
    * Returns all parents of the specified nodes.
    * Used by the query optimizers.
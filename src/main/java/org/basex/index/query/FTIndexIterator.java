@@ -22,6 +22,8 @@ public abstract class FTIndexIterator extends IndexIterator {
     public FTMatches matches() { return null; }
     @Override
     public int size() { return 0; }
+    @Override
+    public int texts() { return 0; }
   };
 
   /**
@@ -30,6 +32,23 @@ public abstract class FTIndexIterator extends IndexIterator {
    */
   public abstract FTMatches matches();
 
+  /**
+   * Returns the number of texts that contain the results.
+   * If not overwritten, the number of results is returned.
+   * @return number of texts
+   */
+  public int texts() {
+    return size();
+  }
+
+  /**
+   * Returns information on the index access.
+   * @return info string, or {@code null}
+   */
+  public String info() {
+    return null;
+  }
+
   /**
    * Sets the unique token number. Used for visualization.
    * @param tn number of tokens
@@ -83,6 +102,11 @@ public abstract class FTIndexIterator extends IndexIterator {
         return i1.size() + i2.size();
       }
 
+      @Override
+      public int texts() {
+        return i1.texts() + i2.texts();
+      }
+
       @Override
       public String toString() {
         return "(" + i1 + " | " + i2 + ')';
@@ -137,6 +161,11 @@ public abstract class FTIndexIterator extends IndexIterator {
         return Math.min(i1.size(), i2.size());
       }
 
+      @Override
+      public int texts() {
+        return Math.min(i1.texts(), i2.texts());
+      }
+
       @Override
       public String toString() {
         return "(" + i1 + " & " + i2 + ')';
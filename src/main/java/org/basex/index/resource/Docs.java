@@ -1,12 +1,15 @@
 package org.basex.index.resource;
 
+import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.data.atomic.*;
+import org.basex.io.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
@@ -17,10 +20,19 @@ import org.basex.util.list.*;
  * <p>This data structure contains references to all document nodes in a
  * database. The document nodes are incrementally updated.</p>
  *
- * <p>If updates are performed, the path order is discarded, as its continuous
- * update would be more expensive in some cases (e.g. when bulk insertions of
- * new documents are performed). A tree structure could be introduced to
- * offer better general performance.</p>
+ * <p>The document paths are kept in document order and, in addition, in
+ * lexicographical order. This way, exact paths can be found via binary search,
+ * and all paths starting with a common prefix can be found in a contiguous
+ * range. Both orders are incrementally updated, and they are stored in file
+ * <b>doc</b>:<br/>
+ * Structure: {@code s, n, [c, t, d] ...}<br/>
+ * {@code s} is the time stamp of the database when the paths were written
+ * [Longs]<br/>
+ * {@code n} is the number of paths [Num]<br/>
+ * {@code c} is the length of the prefix shared with the previous path
+ * [Num]<br/>
+ * {@code t} is the remaining part of the path [Token]<br/>
+ * {@code d} is the index of the document in document order [Num]</p>
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
@@ -32,12 +44,19 @@ final class Docs {
   /** Pre values of document nodes (can be {@code null}).
    * This variable should always be requested via {@link #docs()}. */
   private IntList docList;
-  /** Sorted document paths (can be {@code null}).
+  /** Document paths, in document order (can be {@code null}).
    * This variable should always be requested via {@link #paths()}. */
   private TokenList pathList;
-  /** Ordered path indexes (can be {@code null}).
-   * This variable should always be requested via {@link #order()}. */
-  private int[] pathOrder;
+  /** Indexes of the document paths, in lexicographical order of the paths
+   * (assigned together with {@link #pathList}). */
+  private IntList pathOrder;
+  /** Sorted indexes of deleted documents, which have not been removed yet from
+   * {@link #pathList} and {@link #pathOrder}. */
+  private final IntList deleted = new IntList();
+  /** Time stamp of the database, for which the paths on disk are valid. */
+  private long stamp;
+  /** Indicates if the document paths need to be written to disk. */
+  private boolean dirty;
 
   /**
    * Constructor.
@@ -54,6 +73,7 @@ final class Docs {
    */
   synchronized void read(final DataInput in) throws IOException {
     docList = in.readDiffs();
+    stamp = data.meta.time;
   }
 
   /**
@@ -63,6 +83,8 @@ final class Docs {
    */
   void write(final DataOutput out) throws IOException {
     out.writeDiffs(docs());
+    if(dirty) write();
+    else stamp();
   }
 
   /**
@@ -72,6 +94,10 @@ final class Docs {
   synchronized void init() {
     docList = null;
     pathList = null;
+    pathOrder = null;
+    deleted.reset();
+    dirty = false;
+    if(!data.inMemory()) file().delete();
     docs();
   }
 
@@ -96,30 +122,50 @@ final class Docs {
 
   /**
    * Returns the document paths, and initializes them if necessary.
+   * Pending deletions are applied in a single pass.
    * @return document paths
    */
   private synchronized TokenList paths() {
-    if(pathList == null) {
-      final IntList docs = docs();
-      final int ds = docs.size();
-      final TokenList paths = new TokenList(ds);
-      for(int d = 0; d < ds; d++) {
-        paths.add(normalize(data.text(docs.get(d), true)));
+    load();
+    final int ds = deleted.size();
+    if(ds != 0) {
+      final TokenList paths = pathList;
+      final int ps = paths.size();
+      final TokenList pl = new TokenList(ps - ds);
+      for(int p = 0, d = 0; p < ps; p++) {
+        if(d < ds && deleted.get(d) == p) d++;
+        else pl.add(paths.get(p));
+      }
+      final IntList order = pathOrder;
+      final int os = order.size();
+      final IntList po = new IntList(os - ds);
+      for(int o = 0; o < os; o++) {
+        final int p = order.get(o), d = deleted.sortedIndexOf(p);
+        if(d < 0) po.add(p + d + 1);
       }
-      pathList = paths;
+      pathList = pl;
+      pathOrder = po;
+      deleted.reset();
     }
     return pathList;
   }
 
   /**
-   * Returns the document path order, and initialize the array if necessary.
-   * @return path order
+   * Initializes the document paths if necessary.
+   * The paths are read from disk or, if not available, from the document nodes.
+   * In the latter case, they will only be written to disk with the next update.
    */
-  private synchronized int[] order() {
-    if(pathOrder == null) {
-      pathOrder = Array.createOrder(paths().toArray(), false, true);
+  private void load() {
+    if(pathList != null || read()) return;
+    final IntList docs = docs();
+    final int ds = docs.size();
+    final byte[][] paths = new byte[ds][];
+    for(int d = 0; d < ds; d++) {
+      paths[d] = normalize(data.text(docs.get(d), true));
     }
-    return pathOrder;
+    pathList = new TokenList(paths);
+    pathOrder = new IntList(order(paths));
+    dirty = true;
   }
 
   /**
@@ -146,13 +192,39 @@ final class Docs {
     docs.insert(i, presA);
     docs.move(clip.size(), i + pres.size());
 
-    final byte[][] t = new byte[presA.length][];
-    for(int j = 0; j < t.length; j++) {
+    final int ts = presA.length;
+    if(ts == 0) return;
+    final byte[][] t = new byte[ts][];
+    for(int j = 0; j < ts; j++) {
       // subtract pre to retrieve paths from given data instance
       t[j] = normalize(clip.data.text(presA[j] - pre, true));
     }
     paths.insert(i, t);
-    pathOrder = null;
+
+    // shift indexes of subsequent documents (not required if paths are appended)
+    final IntList po = pathOrder;
+    final int os = po.size();
+    if(i < os) {
+      for(int o = 0; o < os; o++) {
+        final int d = po.get(o);
+        if(d >= i) po.set(o, d + ts);
+      }
+    }
+    // find insertion positions of the new paths via binary search
+    if(ts == 1) {
+      po.insert(find(t[0], i), new int[] { i });
+    } else {
+      // insert sorted paths in a single pass, and copy existing entries block-wise
+      final int[] to = order(t), old = po.toArray(), order = new int[os + ts];
+      for(int n = 0, o = 0; n <= ts; n++) {
+        final int e = n < ts ? find(t[to[n]], i + to[n]) : os;
+        System.arraycopy(old, o, order, o + n, e - o);
+        if(n < ts) order[e + n] = i + to[n];
+        o = e;
+      }
+      pathOrder = new IntList(order);
+    }
+    dirty = true;
   }
 
   /**
@@ -162,17 +234,25 @@ final class Docs {
    */
   void delete(final int pre, final int size) {
     final IntList docs = docs();
-    final TokenList paths = paths();
-
     int i = docs.sortedIndexOf(pre);
     final boolean found = i >= 0;
-    if(i < 0) i = -i - 1;
-    else docs.deleteAt(i);
+    if(found) {
+      // paths must be initialized before the document nodes are changed
+      load();
+      docs.deleteAt(i);
+    } else {
+      i = -i - 1;
+    }
     docs.move(-size, i);
 
     if(!found) return;
-    paths.delete(i);
-    pathOrder = null;
+    // paths are removed when they are requested next time:
+    // compute index of the document before all pending deletions
+    final IntList del = deleted;
+    final int ds = del.size();
+    for(int d = 0; d < ds && del.get(d) <= i; d++) i++;
+    del.insert(-del.sortedIndexOf(i) - 1, new int[] { i });
+    dirty = true;
   }
 
   /**
@@ -183,8 +263,13 @@ final class Docs {
   void rename(final int pre, final byte[] value) {
     final IntList docs = docs();
     final TokenList paths = paths();
-    paths.set(docs.sortedIndexOf(pre), normalize(value));
-    pathOrder = null;
+    final int i = docs.sortedIndexOf(pre);
+    final IntList order = pathOrder;
+    order.deleteAt(find(paths.get(i), i));
+    final byte[] path = normalize(value);
+    paths.set(i, path);
+    order.insert(find(path, i), new int[] { i });
+    dirty = true;
   }
 
   /**
@@ -224,26 +309,31 @@ final class Docs {
 
     // relevant paths: exact hits and prefixes
     final IntList il = new IntList();
-    /* could be optimized for future access by sorting the paths first
-     * and then accessing only the relevant paths. Sorting might slow down
-     * bulk operations like insert/delete/replace though. */
     final TokenList paths = paths();
-    for(int p = 0; p < paths.size(); p++) {
-      final byte[] b = paths.get(p);
-      if(eq(b, exct) || !exact && startsWith(b, pref)) il.add(docs.get(p));
+    final IntList order = pathOrder;
+    final int os = order.size();
+    for(int o = find(exct, -1); o < os; o++) {
+      final int d = order.get(o);
+      if(!eq(paths.get(d), exct)) break;
+      il.add(docs.get(d));
+    }
+    if(!exact) {
+      for(int o = find(pref, -1); o < os; o++) {
+        final int d = order.get(o);
+        if(!startsWith(paths.get(d), pref)) break;
+        il.add(docs.get(d));
+      }
     }
     return il.sort();
   }
 
   /**
    * Returns the pre value of the document node matching the specified path.
-   * Exact match! Document paths can be sorted for faster future access or
-   * sorting can be disabled as it slows down bulk inserts/deletes/replaces.
+   * Exact match!
    * @param path input path
-   * @param sort sort paths before access
    * @return root nodes
    */
-  synchronized int doc(final String path, final boolean sort) {
+  synchronized int doc(final String path) {
     // invalid or empty path, or no documents: return -1
     final String pth = MetaData.normPath(path);
     if(pth == null || pth.isEmpty()) return -1;
@@ -252,19 +342,12 @@ final class Docs {
     final byte[] exct = normalize(token(pth));
 
     // relevant paths: exact match
-    final IntList docs = docs();
     final TokenList paths = paths();
-    final int ts = paths.size();
-
-    if(sort) {
-      final int[] order = order();
-      final int p = find(exct);
-      return p > -1 && p < ts && eq(paths.get(order[p]), exct) ? docs.get(order[p]) : -1;
-    }
-    for(int t = 0; t < ts; t++) {
-      if(eq(paths.get(t), exct)) return docs.get(t);
-    }
-    return -1;
+    final IntList order = pathOrder;
+    final int o = find(exct, -1);
+    if(o == order.size()) return -1;
+    final int d = order.get(o);
+    return eq(paths.get(d), exct) ? docs().get(d) : -1;
   }
 
   /**
@@ -274,8 +357,9 @@ final class Docs {
    */
   synchronized boolean isDir(final byte[] path) {
     final byte[] pa = concat(path, SLASH);
-    for(final byte[] b : paths()) if(startsWith(b, pa)) return true;
-    return false;
+    final TokenList paths = paths();
+    final int o = find(pa, -1);
+    return o < pathOrder.size() && startsWith(paths.get(pathOrder.get(o)), pa);
   }
 
   /**
@@ -295,42 +379,166 @@ final class Docs {
     byte[] tp = concat(SLASH, token(pth));
     // if the given path is the root, don't add a trailing slash
     if(!pth.isEmpty()) tp = concat(tp, SLASH);
-    for(final byte[] to : paths()) {
-      if(startsWith(to, tp)) {
-        final byte[] toAdd = substring(to, tp.length, to.length);
-        final int i = indexOf(toAdd, SLASH);
-        // no more slashes means this must be a leaf
-        if(!dir && i == -1) tbm.add(toAdd, false);
-        else if(dir && i >= 0) tbm.add(substring(toAdd, 0, i), false);
-      }
+    final TokenList paths = paths();
+    final IntList order = pathOrder;
+    final int os = order.size();
+    for(int o = find(tp, -1); o < os; o++) {
+      final byte[] to = paths.get(order.get(o));
+      if(!startsWith(to, tp)) break;
+      final byte[] toAdd = substring(to, tp.length, to.length);
+      final int i = indexOf(toAdd, SLASH);
+      // no more slashes means this must be a leaf
+      if(!dir && i == -1) tbm.add(toAdd, false);
+      else if(dir && i >= 0) tbm.add(substring(toAdd, 0, i), false);
     }
   }
 
   /**
-   * Returns the first position matching the specified path
-   * (might equal the array size).
-   * @param v value to be found
+   * Returns the first position in the path order whose entry is equal to or
+   * greater than the specified path and document index (might equal the size
+   * of the path order).
+   * @param path path
+   * @param doc document index ({@code -1} to find the first occurrence of a path)
    * @return position
    */
-  private int find(final byte[] v) {
-    // binary search
-    final TokenList paths = paths();
-    final int[] po = pathOrder;
-    int l = 0, h = po.length - 1;
+  private int find(final byte[] path, final int doc) {
+    final TokenList paths = pathList;
+    final IntList order = pathOrder;
+    int l = 0, h = order.size() - 1;
     while(l <= h) {
-      int m = l + h >>> 1;
-      final int c = diff(paths.get(po[m]), v);
-      if(c == 0) {
-        // find first entry
-        while(m > 0 && eq(paths.get(po[m - 1]), v)) --m;
-        return m;
-      }
+      final int m = l + h >>> 1;
+      final int d = order.get(m);
+      int c = diff(paths.get(d), path);
+      if(c == 0) c = d - doc;
       if(c < 0) l = m + 1;
       else h = m - 1;
     }
     return l;
   }
 
+  /**
+   * Reads the document paths from disk.
+   * @return {@code true} if the paths were successfully read
+   */
+  private boolean read() {
+    if(data.inMemory()) return false;
+    final IOFile file = file();
+    if(!file.exists()) return false;
+    try {
+      final DataInput in = new DataInput(file);
+      try {
+        // skip outdated paths
+        if(in.readLongs(in.readNum())[0] != stamp) return false;
+        final int ds = in.readNum();
+        if(ds != docs().size()) return false;
+
+        final byte[][] paths = new byte[ds][];
+        final int[] order = new int[ds];
+        byte[] prev = EMPTY;
+        for(int o = 0; o < ds; o++) {
+          final int c = in.readNum();
+          final byte[] t = in.readToken();
+          final byte[] path = new byte[c + t.length];
+          System.arraycopy(prev, 0, path, 0, c);
+          System.arraycopy(t, 0, path, c, t.length);
+          final int d = in.readNum();
+          paths[d] = path;
+          order[o] = d;
+          prev = path;
+        }
+        pathList = new TokenList(paths);
+        pathOrder = new IntList(order);
+        return true;
+      } finally {
+        in.close();
+      }
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      return false;
+    }
+  }
+
+  /**
+   * Writes the document paths to disk.
+   * @throws IOException I/O exception
+   */
+  private synchronized void write() throws IOException {
+    final TokenList paths = paths();
+    final DataOutput out = new DataOutput(file());
+    try {
+      final IntList order = pathOrder;
+      final int os = order.size();
+      out.writeLongs(new long[] { data.meta.time });
+      out.writeNum(os);
+      byte[] prev = EMPTY;
+      for(int o = 0; o < os; o++) {
+        final int d = order.get(o);
+        final byte[] path = paths.get(d);
+        final int l = path.length, ml = Math.min(prev.length, l);
+        int c = 0;
+        while(c < ml && prev[c] == path[c]) c++;
+        out.writeNum(c);
+        out.writeToken(Arrays.copyOfRange(path, c, l));
+        out.writeNum(d);
+        prev = path;
+      }
+    } finally {
+      out.close();
+    }
+    stamp = data.meta.time;
+    dirty = false;
+  }
+
+  /**
+   * Assigns the current time stamp of the database to the paths on disk if they are
+   * still valid. This is the case if no documents have been added, deleted or renamed.
+   * @throws IOException I/O exception
+   */
+  private synchronized void stamp() throws IOException {
+    final long time = data.meta.time;
+    if(time == stamp) return;
+    final IOFile file = file();
+    if(file.exists()) {
+      final RandomAccessFile raf = new RandomAccessFile(file.file(), "rw");
+      try {
+        // skip the length of the array that contains the time stamp
+        raf.seek(1);
+        if(raf.readLong() == stamp) {
+          raf.seek(1);
+          raf.writeLong(time);
+        }
+      } finally {
+        raf.close();
+      }
+    }
+    stamp = time;
+  }
+
+  /**
+   * Returns the file containing the document paths.
+   * @return file
+   */
+  private IOFile file() {
+    return data.meta.dbfile(DATADOC);
+  }
+
+  /**
+   * Returns the lexicographical order of the specified paths.
+   * Identical paths are ordered by their position.
+   * @param paths paths
+   * @return order
+   */
+  private static int[] order(final byte[][] paths) {
+    final int ps = paths.length;
+    final int[] order = Array.createOrder(paths.clone(), false, true);
+    for(int s = 0, e; s < ps; s = e) {
+      final byte[] path = paths[order[s]];
+      for(e = s + 1; e < ps && eq(paths[order[e]], path); e++);
+      if(e - s > 1) Arrays.sort(order, s, e);
+    }
+    return order;
+  }
+
   /**
    * Returns the normalized index path representation for the specified path.
    * @param path input path (without leading slash)
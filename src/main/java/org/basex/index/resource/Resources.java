@@ -126,7 +126,7 @@ public final class Resources implements Index {
    * @return pre value
    */
   public int doc(final String path) {
-    return docs.doc(path, true);
+    return docs.doc(path);
   }
 
   /**
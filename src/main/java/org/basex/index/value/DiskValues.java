@@ -385,6 +385,7 @@ public class DiskValues implements Index {
    * @return iterator
    */
   protected static IndexIterator iter(final IntList ids) {
+    Usage.hits(ids.size());
     return new IndexIterator() {
       final int s = ids.size();
       int p = -1;
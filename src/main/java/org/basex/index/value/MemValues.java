@@ -46,6 +46,7 @@ public class MemValues extends TokenSet implements Index {
     if(i > 0) {
       final int[] pres = ids[i];
       final int s = len[i];
+      Usage.hits(s);
       if(s > 0) {
         return new IndexIterator() {
           int p;
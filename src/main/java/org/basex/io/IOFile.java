@@ -1,6 +1,7 @@
 package org.basex.io;
 
 import java.io.*;
+import java.nio.channels.*;
 import java.util.*;
 import java.util.regex.*;
 
@@ -268,20 +269,30 @@ public final class IOFile extends IO {
    * @throws IOException I/O exception
    */
   public void copyTo(final IOFile trg) throws IOException {
-    // optimize buffer size
-    final int bsize = (int) Math.max(1, Math.min(length(), 1 << 22));
-    final byte[] buf = new byte[bsize];
-
     // create parent directory of target file
     trg.dir().md();
+    final FileOutputStream fos = new FileOutputStream(trg.file);
+    try {
+      copyTo(fos.getChannel());
+    } finally {
+      fos.close();
+    }
+  }
+
+  /**
+   * Copies the file contents to the specified channel.
+   * The bytes are transferred by the file system and bypass the heap.
+   * @param out output channel
+   * @throws IOException I/O exception
+   */
+  public void copyTo(final WritableByteChannel out) throws IOException {
     final FileInputStream fis = new FileInputStream(file);
     try {
-      final FileOutputStream fos = new FileOutputStream(trg.file);
-      try {
-        // copy file buffer by buffer
-        for(int i; (i = fis.read(buf)) != -1;) fos.write(buf, 0, i);
-      } finally {
-        fos.close();
+      final FileChannel in = fis.getChannel();
+      final long l = in.size();
+      for(long p = 0, t; p < l; p += t) {
+        t = in.transferTo(p, l - p, out);
+        if(t == 0) break;
       }
     } finally {
       fis.close();
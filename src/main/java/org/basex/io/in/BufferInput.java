@@ -13,6 +13,8 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public class BufferInput extends InputStream {
+  /** Size of blocks that will be passed on by {@link #copy}. */
+  private static final int COPYSIZE = 1 << 16;
   /** Byte buffer. */
   protected final byte[] buffer;
   /** Current buffer position. */
@@ -140,6 +142,32 @@ public class BufferInput extends InputStream {
     return bl.toArray();
   }
 
+  /**
+   * Writes all remaining bytes to the specified output stream and closes the input.
+   * In contrast to {@link #read()}, the bytes are passed on block-wise.
+   * @param os output stream
+   * @throws IOException I/O exception
+   */
+  public final void copy(final OutputStream os) throws IOException {
+    try {
+      // write buffered bytes
+      if(bpos < bsize) os.write(buffer, bpos, bsize - bpos);
+      bpos = 0;
+      bsize = 0;
+      bmark = -1;
+      // write remaining bytes of input stream
+      if(in != null) {
+        final byte[] buf = new byte[Math.max(buffer.length, COPYSIZE)];
+        for(int r; (r = in.read(buf)) != -1;) {
+          os.write(buf, 0, r);
+          read += r;
+        }
+      }
+    } finally {
+      close();
+    }
+  }
+
   @Override
   public final void close() throws IOException {
     if(in != null && !(in instanceof ZipInputStream)) in.close();
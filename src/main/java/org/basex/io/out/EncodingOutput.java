@@ -31,6 +31,22 @@ public final class EncodingOutput extends OutputStream {
     os.write(b);
   }
 
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    // pass on byte ranges that need no encoding
+    final int l = off + len;
+    int s = off;
+    for(int i = off; i < l; i++) {
+      final byte v = b[i];
+      if(v == 0x00 || v == (byte) 0xFF) {
+        os.write(b, s, i - s);
+        os.write(0xFF);
+        s = i;
+      }
+    }
+    os.write(b, s, l - s);
+  }
+
   @Override
   public void flush() throws IOException {
     os.flush();
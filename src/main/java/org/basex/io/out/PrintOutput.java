@@ -61,6 +61,14 @@ public class PrintOutput extends OutputStream {
     if(size++ < max) os.write(b);
   }
 
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    final long s = size;
+    final int l = (int) Math.max(0, Math.min(len, max - s));
+    if(l != 0) os.write(b, off, l);
+    size = s + len;
+  }
+
   /**
    * Writes a character as UTF8.
    * @param ch character to be printed
@@ -227,8 +227,11 @@ public final class DataAccess {
       if(bf.dirty) writeBlock(bf);
       bf.pos = b;
       file.seek(bf.pos);
-      if(bf.pos < file.length())
-        file.readFully(bf.data, 0, (int) Math.min(len - bf.pos, IO.BLOCKSIZE));
+      if(bf.pos < file.length()) {
+        final int n = (int) Math.min(len - bf.pos, IO.BLOCKSIZE);
+        file.readFully(bf.data, 0, n);
+        Usage.block(n);
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
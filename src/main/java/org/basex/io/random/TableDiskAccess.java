@@ -531,6 +531,7 @@ public final class TableDiskAccess extends TableAccess {
       } else {
         file.seek(bf.pos * IO.BLOCKSIZE);
         file.readFully(bf.data);
+        Usage.page();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -28,12 +28,16 @@ public final class RawSerializer extends TextSerializer {
   @Override
   protected void atomic(final Item it) throws IOException {
     try {
-      final InputStream is = it.input(null);
-      try {
-        final PrintOutput po = out;
-        for(int i; (i = is.read()) != -1;) po.write(i);
-      } finally {
-        is.close();
+      if(it instanceof Bin) {
+        ((Bin) it).write(out, null);
+      } else {
+        final InputStream is = it.input(null);
+        try {
+          final PrintOutput po = out;
+          for(int i; (i = is.read()) != -1;) po.write(i);
+        } finally {
+          is.close();
+        }
       }
     } catch(final QueryException ex) {
       throw new SerializerException(ex);
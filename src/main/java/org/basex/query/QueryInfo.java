@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.basex.io.out.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
@@ -27,6 +28,8 @@ public final class QueryInfo {
   public long srlz;
   /** Number of runs. */
   public int runs = 1;
+  /** Consumed resources. */
+  public final Usage usage = new Usage();
 
   /**
    * Returns detailed query information.
@@ -52,6 +55,7 @@ public final class QueryInfo {
       tb.add(HITS_X_CC + hits).add(' ').add(hits == 1 ? ITEM : ITEMS).add(NL);
       tb.add(UPDATED_CC + up).add(' ').add(up == 1 ? ITEM : ITEMS).add(NL);
       tb.add(PRINTED_CC).add(Performance.format(out.size())).add(NL);
+      tb.add(RESOURCES_CC).add(usage.toString()).add(NL);
       tb.add(LOCKING_CC);
       if(locked == null) tb.add("global");
       else if(locked.isEmpty()) tb.add("none");
@@ -61,4 +65,23 @@ public final class QueryInfo {
     tb.addExt(NL + QUERY_EXECUTED_X, Performance.getTime(total, runs));
     return tb.toString();
   }
+
+  /**
+   * Writes the query to the slow query log if its total time exceeds the threshold
+   * specified by {@link MainProp#SLOWQUERY}.
+   * @param ctx database context
+   * @param query query string
+   * @param rest time (nanoseconds) of a failed step that has not been assigned yet
+   * @param error error message, or {@code null} if the query was successful
+   */
+  public void slow(final Context ctx, final String query, final long rest,
+      final String error) {
+    final int ms = ctx.mprop.num(MainProp.SLOWQUERY);
+    final long total = (pars + cmpl + evlt + srlz + rest) / runs;
+    if(ms <= 0 || total < ms * 1000000L) return;
+    final String user = ctx.user != null ? ctx.user.name : "";
+    final String time = Performance.getTime(total, 1);
+    if(error == null) ctx.log.writeSlow(user, time, usage, query);
+    else ctx.log.writeSlow(user, time, usage, query, false, error);
+  }
 }
@@ -678,6 +678,8 @@ public interface QueryText {
   /** Query Plan. */
   byte[] SIZE = token("size");
   /** Query Plan. */
+  byte[] PATH = token("path");
+  /** Query Plan. */
   byte[] AXIS = token("axis");
   /** Query Plan. */
   byte[] TEST = token("test");
@@ -750,6 +752,10 @@ public interface QueryText {
   /** Optimization info. */
   String OPTWHERE2 = "rewriting where clause(s)";
   /** Optimization info. */
+  String OPTHASHJOIN = "joining % via hash table";
+  /** Optimization info. */
+  String OPTTOPK = "selecting first % ordered tuples";
+  /** Optimization info. */
   String OPTPRED = "rewriting % to predicate(s)";
   /** Optimization info. */
   String OPTCAST = "removing redundant % cast.";
@@ -770,9 +776,18 @@ public interface QueryText {
   /** Optimization info. */
   String OPTSRNGINDEX = "applying string range index";
   /** Optimization info. */
+  String OPTNAMINDEX = "applying name index";
+  /** Optimization info. */
+  String OPTPATHINDEX = "applying path index to %";
+  /** Optimization info. */
   String OPTNOINDEX = "removing path with no index results";
   /** Optimization info. */
+  String OPTCOSTS = "estimated costs: % index results, % traversed nodes";
+  /** Optimization info. */
   String OPTBIND = "binding static variable %";
   /** Optimization info. */
   String OPTCHILD = "converting % to child steps";
+
+  /** Evaluation info. */
+  String EVALFUZZY = "fuzzy search for '%': % of % index terms compared";
 }
@@ -128,6 +128,14 @@ public final class CmpG extends Cmp {
     type = SeqType.BLN;
   }
 
+  /**
+   * Returns the comparator.
+   * @return comparator
+   */
+  public OpG op() {
+    return op;
+  }
+
   @Override
   public Expr compile(final QueryContext ctx, final VarScope scp) throws QueryException {
     super.compile(ctx, scp);
@@ -328,7 +336,8 @@ public final class CmpG extends Cmp {
       if(!t.type.isStringOrUntyped() || arg.uses(Use.CTX) || arg.uses(Use.NDT))
         return false;
 
-      ic.addCosts(ic.data.meta.size / 10);
+      // estimate hits via the number of distinct values
+      ic.addCosts(ic.equality(ic.stats(expr[0], text), arg.size()));
       va = Array.add(va, new ValueAccess(info, arg, ind, ic.data, ic.iterable));
       return true;
     }
@@ -3,13 +3,11 @@ package org.basex.query.expr;
 import static org.basex.query.QueryText.*;
 
 import org.basex.index.*;
-import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.iter.*;
 import org.basex.query.path.*;
-import org.basex.query.path.Test.Mode;
 import org.basex.query.util.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
@@ -138,7 +136,7 @@ public final class CmpR extends Single {
     rt = new NumericRange(text ? IndexType.TEXT : IndexType.ATTRIBUTE,
         Math.max(min, key.min), Math.min(max, key.max));
     ic.costs(rt.min > rt.max || rt.max < key.min || rt.min > key.max ? 0 :
-      Math.max(1, ic.data.meta.size / 5));
+      IndexContext.range(key, rt.min, rt.max));
 
     // use index if costs are zero, or if min/max is not infinite
     return ic.costs() == 0 || min != Double.NEGATIVE_INFINITY &&
@@ -159,23 +157,10 @@ public final class CmpR extends Single {
    * @return key
    */
   private Stats key(final IndexContext ic, final boolean text) {
-    // statistics are not up-to-date
-    if(!ic.data.meta.uptodate || ic.data.nspaces.size() != 0) return null;
-
     final AxisPath path = (AxisPath) expr;
-    final int st = path.steps.length;
-
-    final Step step;
-    if(text) {
-      step = st == 1 ? ic.step : path.step(st - 2);
-      if(!(step.test.mode == Mode.NAME)) return null;
-    } else {
-      step = path.step(st - 1);
-      if(!step.simple(Axis.ATTR, true)) return null;
-    }
+    if(!text && !path.step(path.steps.length - 1).simple(Axis.ATTR, true)) return null;
 
-    final Names names = text ? ic.data.tagindex : ic.data.atnindex;
-    final Stats key = names.stat(names.id(((NameTest) step.test).ln));
+    final Stats key = ic.stats(expr, text);
     return key == null || key.type == StatsType.INTEGER ||
         key.type == StatsType.DOUBLE ? key : null;
   }
@@ -5,6 +5,7 @@ import static org.basex.query.util.Err.*;
 
 import org.basex.index.*;
 import org.basex.index.query.*;
+import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.iter.*;
 import org.basex.query.path.*;
@@ -145,7 +146,9 @@ public final class CmpSR extends Single {
 
     // create range access
     rt = new StringRange(text ? IndexType.TEXT : IndexType.ATTRIBUTE, min, mni, max, mxi);
-    ic.costs(Math.max(1, ic.data.meta.size / 10));
+    final Stats st = ic.stats(expr, text);
+    ic.costs(st != null ? IndexContext.range(st, min, mni, max, mxi) :
+      Math.max(1, ic.data.meta.size / 10));
     return true;
   }
 
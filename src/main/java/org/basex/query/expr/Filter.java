@@ -1,6 +1,7 @@
 package org.basex.query.expr;
 
 import org.basex.query.*;
+import org.basex.query.gflwor.*;
 import org.basex.query.path.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
@@ -81,6 +82,10 @@ public abstract class Filter extends Preds {
    * @return compiled expression
    */
   private Expr opt(final QueryContext ctx) {
+    // only return first results of an ordered flwor expression
+    if(preds[0] instanceof Pos && root instanceof GFLWOR)
+      ((GFLWOR) root).limit(((Pos) preds[0]).max, ctx);
+
     // evaluate return type
     final SeqType t = root.type();
 
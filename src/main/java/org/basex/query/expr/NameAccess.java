@@ -0,0 +1,121 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryText.*;
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.name.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This index class retrieves elements and attributes with a specific local name
+ * from the name index.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class NameAccess extends IndexAccess {
+  /** Local name. */
+  private final byte[] name;
+  /** Index type (element or attribute names). */
+  private final IndexType itype;
+  /** Cached costs ({@code -1}: not computed yet). */
+  private int costs = -1;
+
+  /**
+   * Constructor.
+   * @param ii input info
+   * @param nm local name
+   * @param t index type (element or attribute names)
+   * @param d data reference
+   * @param it flag for iterative evaluation
+   */
+  public NameAccess(final InputInfo ii, final byte[] nm, final IndexType t,
+      final Data d, final boolean it) {
+    super(d, it, ii);
+    name = nm;
+    itype = t;
+  }
+
+  /**
+   * Returns the estimated costs, which is the number of index hits.
+   * @return costs
+   */
+  public int costs() {
+    if(costs == -1) {
+      int c = 0;
+      for(final byte[] nm : names()) c += data.count(new StringToken(itype, nm));
+      costs = c;
+    }
+    return costs;
+  }
+
+  @Override
+  public NodeIter iter(final QueryContext ctx) throws QueryException {
+    final TokenList names = names();
+    final int ns = names.size();
+    final NodeIter[] iter = new NodeIter[ns];
+    for(int n = 0; n < ns; n++) iter[n] = index(names.get(n));
+    return ns == 0 ? AxisMoreIter.EMPTY : ns == 1 ? iter[0] :
+      new Union(info, this).eval(iter);
+  }
+
+  /**
+   * Returns an index iterator.
+   * @param nm name to be found
+   * @return iterator
+   */
+  private AxisIter index(final byte[] nm) {
+    final IndexIterator ii = data.iter(new StringToken(itype, nm));
+    return new AxisIter() {
+      final byte kind = itype == IndexType.TAG ? Data.ELEM : Data.ATTR;
+
+      @Override
+      public ANode next() {
+        return ii.more() ? new DBNode(data, ii.next(), kind) : null;
+      }
+    };
+  }
+
+  /**
+   * Returns all names with the specified local name.
+   * @return names
+   */
+  private TokenList names() {
+    final Names names = itype == IndexType.TAG ? data.tagindex : data.atnindex;
+    final TokenList tl = new TokenList();
+    final int ns = names.size();
+    for(int n = 1; n <= ns; n++) {
+      final byte[] nm = names.key(n);
+      if(eq(local(nm), name)) tl.add(nm);
+    }
+    return tl;
+  }
+
+  @Override
+  public Expr copy(final QueryContext ctx, final VarScope scp, final IntMap<Var> vs) {
+    return new NameAccess(info, name, itype, data, iterable);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(DATA, data.meta.name, TYP, itype, NAM, name));
+  }
+
+  @Override
+  public String toString() {
+    return new TokenBuilder(DB).add(':').
+      add(itype.toString().toLowerCase(Locale.ENGLISH)).add("-name(").
+      addExt(name).add(')').toString();
+  }
+}
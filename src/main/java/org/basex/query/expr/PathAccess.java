@@ -0,0 +1,138 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.path.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * This index class retrieves all elements or attributes that belong to the
+ * specified nodes of the path summary.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class PathAccess extends IndexAccess {
+  /** Path ids. */
+  private final int[] ids;
+  /** Node kinds. */
+  private final byte[] kinds;
+  /** Number of results. */
+  private final int costs;
+  /** String representation of the indexed path. */
+  private final String path;
+
+  /**
+   * Constructor.
+   * @param ii input info
+   * @param nodes path nodes (elements or attributes)
+   * @param p string representation of the indexed path
+   * @param d data reference
+   * @param it flag for iterative evaluation
+   */
+  public PathAccess(final InputInfo ii, final ArrayList<PathNode> nodes,
+      final String p, final Data d, final boolean it) {
+    this(ii, d.paths.ids(nodes), kinds(nodes), costs(nodes), p, d, it);
+  }
+
+  /**
+   * Constructor.
+   * @param ii input info
+   * @param i path ids
+   * @param k node kinds
+   * @param c number of results
+   * @param p string representation of the indexed path
+   * @param d data reference
+   * @param it flag for iterative evaluation
+   */
+  private PathAccess(final InputInfo ii, final int[] i, final byte[] k, final int c,
+      final String p, final Data d, final boolean it) {
+    super(d, it, ii);
+    ids = i;
+    kinds = k;
+    costs = c;
+    path = p;
+  }
+
+  /**
+   * Returns the estimated costs, which is the number of index hits.
+   * @return costs
+   */
+  public int costs() {
+    return costs;
+  }
+
+  @Override
+  public NodeIter iter(final QueryContext ctx) throws QueryException {
+    final int is = ids.length;
+    final NodeIter[] iter = new NodeIter[is];
+    for(int i = 0; i < is; i++) iter[i] = index(i);
+    return is == 0 ? AxisMoreIter.EMPTY : is == 1 ? iter[0] :
+      new Union(info, this).eval(iter);
+  }
+
+  /**
+   * Returns an index iterator.
+   * @param i offset of the path id
+   * @return iterator
+   */
+  private AxisIter index(final int i) {
+    final IndexIterator ii = data.paths.postings().iter(ids[i]);
+    final byte kind = kinds[i];
+    return new AxisIter() {
+      @Override
+      public ANode next() {
+        return ii.more() ? new DBNode(data, ii.next(), kind) : null;
+      }
+    };
+  }
+
+  /**
+   * Returns the node kinds of the specified path nodes.
+   * @param nodes path nodes
+   * @return kinds
+   */
+  private static byte[] kinds(final ArrayList<PathNode> nodes) {
+    final int ns = nodes.size();
+    final byte[] k = new byte[ns];
+    for(int n = 0; n < ns; n++) k[n] = nodes.get(n).kind;
+    return k;
+  }
+
+  /**
+   * Returns the number of nodes that belong to the specified path nodes.
+   * @param nodes path nodes
+   * @return number of nodes
+   */
+  private static int costs(final ArrayList<PathNode> nodes) {
+    int c = 0;
+    for(final PathNode pn : nodes) c += pn.stats.count;
+    return c;
+  }
+
+  @Override
+  public Expr copy(final QueryContext ctx, final VarScope scp, final IntMap<Var> vs) {
+    return new PathAccess(info, ids.clone(), kinds.clone(), costs, path, data,
+        iterable);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(DATA, data.meta.name, PATH, path, SIZE, costs));
+  }
+
+  @Override
+  public String toString() {
+    return new TokenBuilder(DB).add(':').add("path(").add(path).
+        add(')').toString();
+  }
+}
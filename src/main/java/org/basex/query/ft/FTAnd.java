@@ -49,15 +49,39 @@ public final class FTAnd extends FTExpr {
 
   @Override
   public FTNode item(final QueryContext ctx, final InputInfo ii) throws QueryException {
-    final FTNode item = expr[0].item(ctx, info);
-    for(int e = 1; e < expr.length; ++e) {
-      and(item, expr[e].item(ctx, info));
-    }
-    return item;
+    return item(ctx, -1);
+  }
+
+  /**
+   * Evaluates the expression for the current context node.
+   * @param ctx query context
+   * @param gap maximum number of words between two successive matches,
+   * or {@code -1} if the distance of the matches is not restricted
+   * @return resulting item
+   * @throws QueryException query exception
+   */
+  FTNode item(final QueryContext ctx, final long gap) throws QueryException {
+    final FTNode[] it = new FTNode[expr.length];
+    for(int e = 0; e < expr.length; ++e) it[e] = expr[e].item(ctx, info);
+    final long span = span(it, null, gap);
+    for(int e = 1; e < expr.length; ++e) and(it[0], it[e], span);
+    return it[0];
   }
 
   @Override
   public FTIter iter(final QueryContext ctx) throws QueryException {
+    return iter(ctx, -1);
+  }
+
+  /**
+   * Returns an index-based iterator.
+   * @param ctx query context
+   * @param gap maximum number of words between two successive matches,
+   * or {@code -1} if the distance of the matches is not restricted
+   * @return iterator
+   * @throws QueryException query exception
+   */
+  FTIter iter(final QueryContext ctx, final long gap) throws QueryException {
     // initialize iterators
     final FTIter[] ir = new FTIter[expr.length];
     final FTNode[] it = new FTNode[expr.length];
@@ -94,10 +118,11 @@ public final class FTAnd extends FTExpr {
 
         // merge all matches
         final FTNode item = it[0];
+        final long span = span(it, neg, gap);
         for(int i = 1; i < it.length; ++i) {
           // [CG] XQFT: item.all = FTMatches.not(it[i].all, 0);
           if(neg[i]) continue;
-          and(item, it[i]);
+          and(item, it[i], span);
           it[i] = ir[i].next();
         }
         it[0] = ir[0].next();
@@ -107,23 +132,108 @@ public final class FTAnd extends FTExpr {
   }
 
   /**
-   * Merges two matches.
+   * Merges two matches. If a span is specified, the positions of the matches are
+   * merged, and only those combinations are created in which the distance between
+   * the first and the last included position does not exceed the span.
    * @param i1 first item
    * @param i2 second item
+   * @param span maximum span, or {@code -1}
    */
-  static void and(final FTNode i1, final FTNode i2) {
+  static void and(final FTNode i1, final FTNode i2, final long span) {
     final FTMatches all = new FTMatches(
         (byte) Math.max(i1.all.sTokenNum, i2.all.sTokenNum));
 
-    for(final FTMatch s1 : i1.all) {
-      for(final FTMatch s2 : i2.all) {
-        all.add(new FTMatch().add(s1).add(s2));
+    if(span < 0) {
+      for(final FTMatch s1 : i1.all) {
+        for(final FTMatch s2 : i2.all) {
+          all.add(new FTMatch().add(s1).add(s2));
+        }
+      }
+    } else {
+      // sort second matches by their start positions
+      final FTMatches m2 = i2.all;
+      final int n = m2.size;
+      final int[] st = new int[n], en = new int[n];
+      for(int m = 0; m < n; m++) {
+        st[m] = start(m2.match[m]);
+        en[m] = end(m2.match[m]);
+      }
+      final int[] ord = Array.createOrder(st, true);
+
+      for(final FTMatch s1 : i1.all) {
+        final int s = start(s1), e = end(s1);
+        // skip all matches that start too early
+        int l = 0, h = n;
+        while(l < h) {
+          final int m = l + h >>> 1;
+          if(st[m] < e - span) l = m + 1;
+          else h = m;
+        }
+        for(int m = l; m < n && st[m] <= s + span; m++) {
+          if(Math.max(e, en[ord[m]]) - Math.min(s, st[m]) <= span)
+            all.add(new FTMatch().add(s1).add(m2.match[ord[m]]));
+        }
       }
     }
     i1.score(Scoring.and(i1.score(), i2.score()));
     i1.all = all;
   }
 
+  /**
+   * Returns the maximum distance between the first and the last included position
+   * of a combination of the specified matches, assuming that the distance between
+   * two successive positions does not exceed the specified gap.
+   * @param it items
+   * @param ng flags for negative operators (can be {@code null})
+   * @param gap maximum number of words between two successive matches, or {@code -1}
+   * @return span, or {@code -1} if no span can be computed
+   */
+  private static long span(final FTNode[] it, final boolean[] ng, final long gap) {
+    if(gap < 0 || gap > Integer.MAX_VALUE) return -1;
+    // sum up maximum lengths and numbers of included string matches
+    long len = 0, num = 0;
+    for(int i = 0; i < it.length; i++) {
+      if(ng != null && ng[i]) continue;
+      int ml = 0, mn = 0;
+      for(final FTMatch m : it[i].all) {
+        int l = 0, c = 0;
+        for(final FTStringMatch sm : m) {
+          if(sm.ex) continue;
+          l += sm.e - sm.s + 1;
+          c++;
+        }
+        if(c == 0) return -1;
+        ml = Math.max(ml, l);
+        mn = Math.max(mn, c);
+      }
+      len += ml;
+      num += mn;
+    }
+    return len + (num - 1) * gap - 1;
+  }
+
+  /**
+   * Returns the first included position of a match.
+   * @param m match
+   * @return position
+   */
+  private static int start(final FTMatch m) {
+    int s = Integer.MAX_VALUE;
+    for(final FTStringMatch sm : m) if(!sm.ex) s = Math.min(s, sm.s);
+    return s;
+  }
+
+  /**
+   * Returns the last included position of a match.
+   * @param m match
+   * @return position
+   */
+  private static int end(final FTMatch m) {
+    int e = Integer.MIN_VALUE;
+    for(final FTStringMatch sm : m) if(!sm.ex) e = Math.max(e, sm.e);
+    return e;
+  }
+
   @Override
   public boolean indexAccessible(final IndexContext ic) throws QueryException {
     neg = new boolean[expr.length];
@@ -80,6 +80,11 @@ public final class FTDistance extends FTFilter {
     return true;
   }
 
+  @Override
+  long gap(final QueryContext ctx) throws QueryException {
+    return unit == FTUnit.WORD ? checkItr(dist[1], ctx) : -1;
+  }
+
   @Override
   public boolean uses(final Use u) {
     for(final Expr d : dist) if(d.uses(u)) return true;
@@ -30,14 +30,16 @@ public abstract class FTFilter extends FTExpr {
   @Override
   public final FTNode item(final QueryContext ctx, final InputInfo ii)
       throws QueryException {
-    final FTNode it = expr[0].item(ctx, info);
+    final FTNode it = expr[0] instanceof FTAnd ?
+        ((FTAnd) expr[0]).item(ctx, gap(ctx)) : expr[0].item(ctx, info);
     filter(ctx, it, ctx.fttoken);
     return it;
   }
 
   @Override
   public final FTIter iter(final QueryContext ctx) throws QueryException {
-    final FTIter ir = expr[0].iter(ctx);
+    final FTIter ir = expr[0] instanceof FTAnd ?
+        ((FTAnd) expr[0]).iter(ctx, gap(ctx)) : expr[0].iter(ctx);
 
     return new FTIter() {
       @Override
@@ -81,6 +83,19 @@ public abstract class FTFilter extends FTExpr {
   protected abstract boolean filter(final QueryContext ctx, final FTMatch m,
       final FTLexer ft) throws QueryException;
 
+  /**
+   * Returns the maximum number of words between two successive matches that are
+   * accepted by this filter. If a value is returned, the matches of full-text
+   * conjunctions are merged by their positions, and combinations of distant
+   * matches will not be created.
+   * @param ctx query context
+   * @return maximum distance, or {@code -1} if the distance is not restricted
+   * @throws QueryException query exception
+   */
+  long gap(final QueryContext ctx) throws QueryException {
+    return -1;
+  }
+
   /**
    * Checks if the filter requires the whole text node to be parsed.
    * Is overwritten by some filters to perform other checks.
@@ -81,6 +81,11 @@ public final class FTWindow extends FTFilter {
     return false;
   }
 
+  @Override
+  long gap(final QueryContext ctx) throws QueryException {
+    return unit == FTUnit.WORD ? checkItr(win, ctx) - 1 : -1;
+  }
+
   @Override
   public boolean uses(final Use u) {
     return win.uses(u) || super.uses(u);
@@ -124,6 +124,8 @@ public final class FTWords extends FTExpr {
       FTIndexIterator iat;
       /** Text length. */
       int len;
+      /** Flag for BM25 scoring. */
+      final boolean bm25 = ctx.context.prop.is(Prop.BM25) && data.meta.fttexts > 0;
 
       @Override
       public FTNode next() throws QueryException {
@@ -149,6 +151,8 @@ public final class FTWords extends FTExpr {
               } else {
                 final FTIndexIterator ir = lex.get().length > data.meta.maxlen ?
                     scan(lex) : (FTIndexIterator) data.iter(lex);
+                final String inf = ir.info();
+                if(inf != null) ctx.evalInfo(inf);
                 if(ia == null) {
                   ia = ir;
                 } else {
@@ -175,7 +179,7 @@ public final class FTWords extends FTExpr {
         }
         // [CG] XQuery, Full-Text: check scoring in index-based model
         return iat == null || !iat.more() ? null : new FTNode(iat.matches(),
-            data, iat.next(), len, iat.size(), -1);
+            data, iat.next(), len, bm25 ? iat.texts() : iat.size(), -1, bm25);
       }
     };
   }
@@ -22,12 +22,21 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class Thesaurus {
-  /** Thesaurus root references. */
-  private final TokenObjMap<ThesNode> nodes = new TokenObjMap<ThesNode>();
   /** Relationships. */
   private static final TokenMap RSHIPS = new TokenMap();
-  /** Database properties. */
-  private final Context ctx;
+  /** Maximum number of cached thesauri. */
+  private static final int MAXCACHE = 16;
+  /** Compiled thesauri, indexed by the paths of their files, in access order. */
+  private static final LinkedHashMap<String, Table> TABLES =
+      new LinkedHashMap<String, Table>(16, 0.75f, true);
+  /** Element name: entry. */
+  private static final byte[] ENTRY = token("entry");
+  /** Element name: synonym. */
+  private static final byte[] SYNONYM = token("synonym");
+  /** Element name: term. */
+  private static final byte[] TERM = token("term");
+  /** Element name: relationship. */
+  private static final byte[] RELATIONSHIP = token("relationship");
 
   static {
     RSHIPS.add(token("NT"), token("BT"));
@@ -76,6 +85,10 @@ public final class Thesaurus {
   private final long min;
   /** Maximum level. */
   private final long max;
+  /** Database properties. */
+  private final Context ctx;
+  /** Compiled thesaurus (assigned on first access). */
+  private Table table;
 
   /**
    * Constructor.
@@ -104,79 +117,48 @@ public final class Thesaurus {
   }
 
   /**
-   * Initializes the thesaurus.
+   * Returns the compiled thesaurus. A thesaurus file is compiled only once and
+   * shared by all queries, unless it has been modified in the meantime. Other
+   * inputs have no reliable time stamp and are compiled for each query.
    * @param ii input info
+   * @return compiled thesaurus
    * @throws QueryException query exception
    */
-  private void init(final InputInfo ii) throws QueryException {
-    try {
-      final Data data = MemBuilder.build(Parser.xmlParser(file, ctx.prop));
-      final Nodes result = nodes("//*:entry", new Nodes(0, data));
-      for(int n = 0; n < result.size(); ++n) {
-        build(new Nodes(result.pres[n], data));
-      }
-    } catch(final IOException ex) {
-      NOTHES.thrw(ii, file);
-    }
-  }
+  private Table table(final InputInfo ii) throws QueryException {
+    if(!(file instanceof IOFile)) return compile(0, ii);
 
-  /**
-   * Builds the thesaurus.
-   * @param in input nodes
-   * @throws QueryException query exception
-   */
-  private void build(final Nodes in) throws QueryException {
-    final Nodes sub = nodes("*:synonym", in);
-    if(sub.size() == 0) return;
-
-    final ThesNode node = node(text("*:term", in));
-    for(int n = 0; n < sub.size(); ++n) {
-      final Nodes tmp = new Nodes(sub.pres[n], sub.data);
-      final ThesNode snode = node(text("*:term", tmp));
-      final byte[] rs = text("*:relationship", tmp);
-      node.add(snode, rs);
-
-      final byte[] srs = RSHIPS.get(rs);
-      if(srs != null) snode.add(node, srs);
-      build(sub);
+    final String path = file.path();
+    final long stamp = file.timeStamp();
+    synchronized(TABLES) {
+      final Table t = TABLES.get(path);
+      if(t != null && t.stamp == stamp) return t;
     }
-  }
-
-  /**
-   * Returns a node for the specified term.
-   * @param term term
-   * @return node
-   */
-  private ThesNode node(final byte[] term) {
-    ThesNode node = nodes.get(term);
-    if(node == null) {
-      node = new ThesNode();
-      node.term = term;
-      nodes.add(term, node);
+    // compile thesaurus outside the lock
+    final Table t = compile(stamp, ii);
+    synchronized(TABLES) {
+      TABLES.put(path, t);
+      if(TABLES.size() > MAXCACHE) {
+        final Iterator<Table> iter = TABLES.values().iterator();
+        iter.next();
+        iter.remove();
+      }
     }
-    return node;
+    return t;
   }
 
   /**
-   * Performs a query and returns the result as nodes.
-   * @param query query string
-   * @param in input nodes
-   * @return resulting nodes
-   * @throws QueryException query exception
-   */
-  private Nodes nodes(final String query, final Nodes in) throws QueryException {
-    return new QueryProcessor(query, ctx).context(in).queryNodes();
-  }
-
-  /**
-   * Performs a query and returns the first result as text.
-   * @param query query string
-   * @param in input nodes
-   * @return resulting text
+   * Compiles the thesaurus.
+   * @param stamp time stamp of the input
+   * @param ii input info
+   * @return compiled thesaurus
    * @throws QueryException query exception
    */
-  private byte[] text(final String query, final Nodes in) throws QueryException {
-    return new QueryProcessor(query, ctx).context(in).iter().next().string(null);
+  private Table compile(final long stamp, final InputInfo ii) throws QueryException {
+    try {
+      return new Table(MemBuilder.build(Parser.xmlParser(file, ctx.prop)), stamp);
+    } catch(final IOException ex) {
+      throw NOTHES.thrw(ii, file);
+    }
   }
 
   /**
@@ -188,27 +170,9 @@ public final class Thesaurus {
    */
   void find(final InputInfo ii, final TokenList list, final byte[] ft)
       throws QueryException {
-    if(nodes.size() == 0) init(ii);
-    find(list, nodes.get(ft), 1);
-  }
-
-  /**
-   * Recursively collects relevant thesaurus terms.
-   * @param list result list
-   * @param node input node
-   * @param lev current level
-   */
-  private void find(final TokenList list, final ThesNode node, final long lev) {
-    if(lev > max || node == null) return;
-
-    for(int n = 0; n < node.size; ++n) {
-      if(rel.length == 0 || eq(node.rs[n], rel)) {
-        final byte[] term = node.nodes[n].term;
-        if(!list.contains(term)) {
-          list.add(term);
-          find(list, node.nodes[n], lev + 1);
-        }
-      }
+    if(table == null) table = table(ii);
+    for(final byte[] term : table.find(ft, rel, max)) {
+      if(!list.contains(term)) list.add(term);
     }
   }
 
@@ -221,4 +185,149 @@ public final class Thesaurus {
     return file.eq(th.file) && min == th.min && max == th.max &&
       eq(rel, th.rel);
   }
+
+  /**
+   * Compiled thesaurus. The relationships of all terms are kept in a hash
+   * table, and the resulting expansions are cached for each combination of
+   * relationship and level.
+   */
+  private static final class Table {
+    /** Thesaurus nodes, indexed by their terms. */
+    private final TokenObjMap<ThesNode> nodes = new TokenObjMap<ThesNode>();
+    /** Cached expansions, indexed by relationship and maximum level. */
+    private final HashMap<String, TokenObjMap<byte[][]>> expansions =
+        new HashMap<String, TokenObjMap<byte[][]>>();
+    /** Time stamp of the thesaurus file. */
+    final long stamp;
+
+    /**
+     * Constructor, compiling the specified thesaurus document.
+     * @param data thesaurus document
+     * @param st time stamp of the thesaurus file
+     */
+    Table(final Data data, final long st) {
+      stamp = st;
+      final int ps = data.meta.size;
+      for(int pre = 0; pre < ps; pre++) {
+        if(elem(data, pre, ENTRY)) build(data, pre);
+      }
+    }
+
+    /**
+     * Adds the synonyms of the specified entry or synonym element.
+     * @param data data reference
+     * @param pre pre value of the element
+     */
+    private void build(final Data data, final int pre) {
+      final ThesNode node = node(child(data, pre, TERM));
+      final int end = pre + data.size(pre, Data.ELEM);
+      for(int p = pre + data.attSize(pre, Data.ELEM); p < end;
+          p += data.size(p, data.kind(p))) {
+        if(!elem(data, p, SYNONYM)) continue;
+        final ThesNode snode = node(child(data, p, TERM));
+        final byte[] rs = child(data, p, RELATIONSHIP);
+        node.add(snode, rs);
+
+        final byte[] srs = RSHIPS.get(rs);
+        if(srs != null) snode.add(node, srs);
+        build(data, p);
+      }
+    }
+
+    /**
+     * Returns a node for the specified term.
+     * @param term term
+     * @return node
+     */
+    private ThesNode node(final byte[] term) {
+      ThesNode node = nodes.get(term);
+      if(node == null) {
+        node = new ThesNode();
+        node.term = term;
+        nodes.add(term, node);
+      }
+      return node;
+    }
+
+    /**
+     * Returns the terms related to the specified term.
+     * @param term term
+     * @param rel relationship (empty for all relationships)
+     * @param max maximum level
+     * @return related terms
+     */
+    synchronized byte[][] find(final byte[] term, final byte[] rel, final long max) {
+      final ThesNode node = nodes.get(term);
+      if(node == null) return new byte[0][];
+
+      final String key = string(rel) + '/' + max;
+      TokenObjMap<byte[][]> exp = expansions.get(key);
+      if(exp == null) {
+        exp = new TokenObjMap<byte[][]>();
+        expansions.put(key, exp);
+      }
+      byte[][] terms = exp.get(term);
+      if(terms == null) {
+        final TokenSet set = new TokenSet();
+        find(set, node, rel, 1, max);
+        terms = set.keys();
+        exp.add(term, terms);
+      }
+      return terms;
+    }
+
+    /**
+     * Recursively collects relevant thesaurus terms.
+     * @param set resulting terms
+     * @param node input node
+     * @param rel relationship (empty for all relationships)
+     * @param lev current level
+     * @param max maximum level
+     */
+    private static void find(final TokenSet set, final ThesNode node,
+        final byte[] rel, final long lev, final long max) {
+      if(lev > max || node == null) return;
+
+      for(int n = 0; n < node.size; ++n) {
+        if(rel.length == 0 || eq(node.rs[n], rel)) {
+          if(set.add(node.nodes[n].term) > 0) find(set, node.nodes[n], rel, lev + 1, max);
+        }
+      }
+    }
+
+    /**
+     * Checks if the specified node is an element with the specified local name.
+     * @param data data reference
+     * @param pre pre value
+     * @param name local name
+     * @return result of check
+     */
+    private static boolean elem(final Data data, final int pre, final byte[] name) {
+      return data.kind(pre) == Data.ELEM &&
+          eq(local(data.name(pre, Data.ELEM)), name);
+    }
+
+    /**
+     * Returns the string value of the first child element with the specified
+     * local name.
+     * @param data data reference
+     * @param pre pre value of the parent element
+     * @param name local name
+     * @return string value, or an empty token if no element was found
+     */
+    private static byte[] child(final Data data, final int pre, final byte[] name) {
+      final int end = pre + data.size(pre, Data.ELEM);
+      for(int p = pre + data.attSize(pre, Data.ELEM); p < end;
+          p += data.size(p, data.kind(p))) {
+        if(!elem(data, p, name)) continue;
+        final TokenBuilder tb = new TokenBuilder();
+        final int e = p + data.size(p, Data.ELEM);
+        for(int t = p + 1; t < e; t++) {
+          if(data.kind(t) == Data.TEXT) tb.add(data.text(t, true));
+        }
+        return tb.finish();
+      }
+      return EMPTY;
+    }
+  }
 }
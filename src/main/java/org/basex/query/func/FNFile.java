@@ -446,16 +446,11 @@ public final class FNFile extends StandardFunc {
 
     check(path);
     final Iter ir = expr[1].iter(ctx);
-    final BufferOutput out = new BufferOutput(new FileOutputStream(path, append));
+    final FileOutputStream out = new FileOutputStream(path, append);
     try {
       for(Item it; (it = ir.next()) != null;) {
         if(!(it instanceof Bin)) BINARYTYPE.thrw(info, it.type);
-        final InputStream is = it.input(info);
-        try {
-          for(int i; (i = is.read()) != -1;)  out.write(i);
-        } finally {
-          is.close();
-        }
+        ((Bin) it).write(out, info);
       }
     } finally {
       out.close();
@@ -5,6 +5,7 @@ import static org.basex.query.func.Function.*;
 import static org.basex.query.util.Err.*;
 import static org.basex.util.Token.*;
 
+import java.util.*;
 import java.util.regex.*;
 
 import org.basex.query.*;
@@ -16,7 +17,6 @@ import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
-import org.basex.util.hash.*;
 import org.basex.util.list.*;
 
 /**
@@ -26,8 +26,12 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class FNPat extends StandardFunc {
-  /** Pattern cache. */
-  private final TokenObjMap<Pattern> patterns = new TokenObjMap<Pattern>();
+  /** Maximum number of cached patterns. */
+  private static final int MAXCACHE = 1000;
+  /** Patterns shared by all queries, indexed by the pattern string, the modifiers
+   * and the XQuery version, in access order. */
+  private static final LinkedHashMap<String, RegEx> CACHE =
+      new LinkedHashMap<String, RegEx>(16, 0.75f, true);
 
   /** Slash pattern. */
   private static final Pattern SLASH = Pattern.compile("\\$");
@@ -44,6 +48,10 @@ public final class FNPat extends StandardFunc {
   private static final QNm Q_MGROUP = new QNm("fn:group", FNURI);
   /** Attribute for the analyze-string-result function. */
   private static final QNm Q_NR = new QNm("nr");
+  /** Metacharacters of regular expressions. */
+  private static final byte[] META = token("\\|.?*+(){}[]^$");
+  /** Characters that have a special meaning in character classes. */
+  private static final byte[] CLASS = token("\\[]^-");
 
   /**
    * Constructor.
@@ -89,8 +97,7 @@ public final class FNPat extends StandardFunc {
    * @throws QueryException query exception
    */
   private Item matches(final byte[] val, final QueryContext ctx) throws QueryException {
-    final Pattern p = pattern(expr[1], expr.length == 3 ? expr[2] : null, ctx);
-    return Bln.get(p.matcher(string(val)).find());
+    return Bln.get(regex(expr[1], expr.length == 3 ? expr[2] : null, ctx).matches(val));
   }
 
   /**
@@ -229,18 +236,42 @@ public final class FNPat extends StandardFunc {
    */
   private Pattern pattern(final Expr pattern, final Expr modifier,
       final QueryContext ctx) throws QueryException {
+    return regex(pattern, modifier, ctx).pattern;
+  }
+
+  /**
+   * Returns a compiled regular expression. Expressions are cached and shared
+   * by all queries; the least recently used ones are discarded.
+   * @param pattern input pattern
+   * @param modifier modifier item
+   * @param ctx query context
+   * @return regular expression
+   * @throws QueryException query exception
+   */
+  private RegEx regex(final Expr pattern, final Expr modifier,
+      final QueryContext ctx) throws QueryException {
 
     final byte[] pat = checkStr(pattern, ctx);
     final byte[] mod = modifier != null ? checkStr(modifier, ctx) : null;
-    final TokenBuilder tb = new TokenBuilder(pat);
-    if(mod != null) tb.add(0).add(mod);
-    final byte[] key = tb.finish();
-    Pattern p = patterns.get(key);
-    if(p == null) {
-      p = RegExParser.parse(pat, mod, ctx.sc.xquery3(), info);
-      patterns.add(key, p);
+    final boolean xq3 = ctx.sc.xquery3();
+    final TokenBuilder tb = new TokenBuilder(pat).add(0);
+    if(mod != null) tb.add(mod);
+    final String key = tb.add(0).add(xq3 ? '3' : '1').toString();
+
+    synchronized(CACHE) {
+      final RegEx re = CACHE.get(key);
+      if(re != null) return re;
     }
-    return p;
+    final RegEx re = new RegEx(RegExParser.parse(pat, mod, xq3, info), pat, mod);
+    synchronized(CACHE) {
+      CACHE.put(key, re);
+      if(CACHE.size() > MAXCACHE) {
+        final Iterator<RegEx> iter = CACHE.values().iterator();
+        iter.next();
+        iter.remove();
+      }
+    }
+    return re;
   }
 
   @Override
@@ -253,4 +284,115 @@ public final class FNPat extends StandardFunc {
     return u == Use.X30 && xquery3() || u == Use.CNS && sig == ANALYZE_STRING ||
         super.uses(u);
   }
+
+  /**
+   * Compiled regular expression. Simple patterns (literals, which may be
+   * anchored, and classes of ASCII characters) are matched byte-wise.
+   */
+  private static final class RegEx {
+    /** Compiled pattern. */
+    final Pattern pattern;
+    /** Literal ({@code null} if the pattern is no literal). */
+    private byte[] literal;
+    /** ASCII characters of a character class ({@code null} if not available). */
+    private boolean[] chars;
+    /** Quantifier of the character class ({@code +}, {@code *}, or {@code 0}). */
+    private int quant;
+    /** Start anchor. */
+    private boolean start;
+    /** End anchor. */
+    private boolean end;
+
+    /**
+     * Constructor.
+     * @param p compiled pattern
+     * @param pat pattern string
+     * @param mod modifiers (can be {@code null})
+     */
+    RegEx(final Pattern p, final byte[] pat, final byte[] mod) {
+      pattern = p;
+      final int f = p.flags();
+      if(f == Pattern.LITERAL) literal = pat;
+      else if(f == 0 && (mod == null || !contains(mod, 'x'))) simple(pat);
+    }
+
+    /**
+     * Checks if the specified value contains a match.
+     * @param val input value
+     * @return result of check
+     */
+    boolean matches(final byte[] val) {
+      if(literal != null) {
+        return start ? end ? eq(val, literal) : startsWith(val, literal) :
+          end ? endsWith(val, literal) : contains(val, literal);
+      }
+      if(chars == null) return pattern.matcher(string(val)).find();
+
+      // character class: non-ASCII characters are never contained
+      final int vl = val.length;
+      if(start && end) {
+        if(quant == 0 ? vl != 1 : quant == '+' && vl == 0) return false;
+        for(final byte b : val) if(b < 0 || !chars[b]) return false;
+        return true;
+      }
+      if(quant == '*') return true;
+      if(start) return vl != 0 && val[0] >= 0 && chars[val[0]];
+      if(end) return vl != 0 && val[vl - 1] >= 0 && chars[val[vl - 1]];
+      for(final byte b : val) if(b >= 0 && chars[b]) return true;
+      return false;
+    }
+
+    /**
+     * Checks if the pattern is an optionally anchored literal or character class.
+     * @param pat pattern string
+     */
+    private void simple(final byte[] pat) {
+      int s = 0, e = pat.length;
+      final boolean st = e != 0 && pat[0] == '^';
+      if(st) s++;
+      final boolean en = e > s && pat[e - 1] == '$';
+      if(en) e--;
+
+      if(s < e && pat[s] == '[') {
+        // character class with single characters and ranges
+        final boolean[] cs = new boolean[128];
+        int p = s + 1;
+        while(p < e && pat[p] != ']') {
+          final int c = pat[p];
+          if(!member(c)) return;
+          if(p + 2 < e && pat[p + 1] == '-' && pat[p + 2] != ']') {
+            final int d = pat[p + 2];
+            if(!member(d) || d < c) return;
+            for(int i = c; i <= d; i++) cs[i] = true;
+            p += 3;
+          } else {
+            cs[c] = true;
+            p++;
+          }
+        }
+        if(p == s + 1 || p == e) return;
+        int q = 0;
+        if(++p < e && (pat[p] == '+' || pat[p] == '*')) q = pat[p++];
+        if(p != e) return;
+        chars = cs;
+        quant = q;
+      } else {
+        for(int p = s; p < e; p++) {
+          if(contains(META, pat[p])) return;
+        }
+        literal = Arrays.copyOfRange(pat, s, e);
+      }
+      start = st;
+      end = en;
+    }
+
+    /**
+     * Checks if the specified character can be used in a simple character class.
+     * @param c character
+     * @return result of check
+     */
+    private static boolean member(final int c) {
+      return c >= ' ' && c < 0x80 && !contains(CLASS, c);
+    }
+  }
 }
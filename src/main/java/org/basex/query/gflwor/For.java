@@ -257,6 +257,25 @@ public final class For extends GFLWOR.Clause {
     return true;
   }
 
+  /**
+   * Checks if the given predicate will be rewritten for index access if it is
+   * attached to this clause's expression via {@link #toPred}.
+   * @param ctx query context
+   * @param scp variable scope
+   * @param p predicate
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  boolean indexAccessible(final QueryContext ctx, final VarScope scp, final Expr p)
+      throws QueryException {
+    if(empty || vars.length > 1 || !(expr instanceof AxisPath) || !p.removable(var))
+      return false;
+    // check a copy of the predicate, as it will be modified
+    final Expr c = p.copy(ctx, scp, new IntMap<Var>());
+    final Expr r = c.inline(ctx, scp, var, new Context(info));
+    return ((AxisPath) expr).indexAccessible(ctx, r == null ? c : r);
+  }
+
   @Override
   long calcSize(final long count) {
     final long sz = expr.size();
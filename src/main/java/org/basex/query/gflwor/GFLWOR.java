@@ -450,7 +450,18 @@ public final class GFLWOR extends ParseExpr {
         final int newPos = insert < 0 ? i : insert;
         for(int b4 = newPos; --b4 >= 0;) {
           final Clause before = clauses.get(b4);
-          if(before instanceof For && ((For) before).toPred(ctx, scp, wh.pred)) {
+          if(before instanceof For) {
+            // join the for clause with a directly following equality comparison,
+            // unless the comparison can be rewritten for index access
+            final For fr = (For) before;
+            HashJoin join = b4 == newPos - 1 ? HashJoin.get(clauses, b4, wh.pred) : null;
+            if(join != null && fr.indexAccessible(ctx, scp, wh.pred)) join = null;
+            if(join != null) {
+              ctx.compInfo(QueryText.OPTHASHJOIN, join.var);
+              clauses.set(b4, join.optimize(ctx, scp));
+            } else if(!fr.toPred(ctx, scp, wh.pred)) {
+              break;
+            }
             clauses.remove(newPos);
             i--;
             change = true;
@@ -492,6 +503,21 @@ public final class GFLWOR extends ParseExpr {
     }
   }
 
+  /**
+   * Limits the number of tuples that are returned by a trailing order by
+   * clause. This is possible if the return expression yields a single item
+   * for each tuple.
+   * @param max maximum number of results
+   * @param ctx query context
+   */
+  public void limit(final long max, final QueryContext ctx) {
+    if(ret.size() != 1 || !(clauses.getLast() instanceof OrderBy)) return;
+    final OrderBy ob = (OrderBy) clauses.getLast();
+    if(max >= ob.limit) return;
+    ctx.compInfo(QueryText.OPTTOPK, max);
+    ob.limit = max;
+  }
+
   @Override
   public boolean isVacuous() {
     return ret.isVacuous();
@@ -592,7 +618,8 @@ public final class GFLWOR extends ParseExpr {
     final ListIterator<Clause> iter = clauses.listIterator(idx);
     while(iter.hasPrevious()) {
       final Clause b4 = iter.previous();
-      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where) {
+      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where ||
+          b4 instanceof HashJoin) {
         iter.next();
         while(iter.hasNext()) {
           iter.next();
@@ -0,0 +1,414 @@
+package org.basex.query.gflwor;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+import java.util.List;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.CmpG.OpG;
+import org.basex.query.gflwor.GFLWOR.Eval;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * FLWOR clause, joining the tuples of the preceding clauses with the items of
+ * a sequence that satisfy an equality comparison. It replaces a {@code for}
+ * clause and a subsequent {@code where} clause of the form
+ * {@code for $v in E where K = P}, in which {@code E} and the key {@code K}
+ * do not depend on the preceding clauses, and in which the probe {@code P}
+ * does not depend on {@code $v}.
+ *
+ * The sequence is evaluated once, and its items are indexed by their keys in a
+ * hash table. For each incoming tuple, the probe is evaluated once, and the
+ * matching items are returned in their original order. If keys of different
+ * kinds are compared, the comparison is evaluated for each item instead.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class HashJoin extends GFLWOR.Clause {
+  /** Item variable. */
+  final Var var;
+  /** Sequence expression. */
+  Expr expr;
+  /** Key expression (depends on the item variable). */
+  Expr key;
+  /** Probe expression (depends on the preceding clauses). */
+  Expr probe;
+  /** Indicates if the key is the second operand of the original comparison. */
+  private final boolean swap;
+  /** Input info of the original comparison. */
+  private final InputInfo cinfo;
+  /** Comparison, used if the keys cannot be hashed. */
+  private CmpG cmp;
+
+  /**
+   * Constructor.
+   * @param v item variable
+   * @param e sequence expression
+   * @param k key expression
+   * @param p probe expression
+   * @param s indicates if the key is the second operand of the comparison
+   * @param ci input info of the comparison
+   * @param ii input info
+   */
+  private HashJoin(final Var v, final Expr e, final Expr k, final Expr p,
+      final boolean s, final InputInfo ci, final InputInfo ii) {
+    super(ii, v);
+    var = v;
+    expr = e;
+    key = k;
+    probe = p;
+    swap = s;
+    cinfo = ci;
+    cmp = comparison();
+  }
+
+  /**
+   * Creates the comparison, preserving the operand order of the original
+   * expression, so that errors are reported as without the join.
+   * @return comparison
+   */
+  private CmpG comparison() {
+    return swap ? new CmpG(probe, key, OpG.EQ, cinfo) :
+      new CmpG(key, probe, OpG.EQ, cinfo);
+  }
+
+  /**
+   * Tries to join a {@code for} clause with a subsequent {@code where} clause.
+   * @param clauses FLWOR clauses
+   * @param p position of the {@code for} clause
+   * @param pred predicate of the {@code where} clause
+   * @return join clause, or {@code null} if the clauses cannot be joined
+   */
+  static HashJoin get(final List<GFLWOR.Clause> clauses, final int p, final Expr pred) {
+    if(!(pred instanceof CmpG) || ((CmpG) pred).op() != OpG.EQ || pred.uses(Use.NDT))
+      return null;
+    final For fr = (For) clauses.get(p);
+    if(!fr.simple() || fr.expr.uses(Use.NDT)) return null;
+
+    // choose the operand that depends on the item variable as key
+    final Expr[] ops = ((CmpG) pred).expr;
+    final boolean k0 = ops[0].count(fr.var) != VarUsage.NEVER;
+    final boolean k1 = ops[1].count(fr.var) != VarUsage.NEVER;
+    if(k0 == k1) return null;
+    final Expr k = ops[k0 ? 0 : 1], pr = ops[k0 ? 1 : 0];
+
+    // the sequence and the key must not depend on the preceding clauses, and the
+    // probe must depend on a preceding clause that yields multiple tuples
+    boolean loop = false, outer = false;
+    for(int c = 0; c < p; c++) {
+      final GFLWOR.Clause cl = clauses.get(c);
+      loop |= cl instanceof For || cl instanceof Window;
+      for(final Var v : cl.vars()) {
+        if(fr.expr.count(v) != VarUsage.NEVER || k.count(v) != VarUsage.NEVER)
+          return null;
+        outer |= pr.count(v) != VarUsage.NEVER;
+      }
+    }
+    return loop && outer ? new HashJoin(fr.var, fr.expr, k, pr, !k0,
+        ((CmpG) pred).info, fr.info) : null;
+  }
+
+  @Override
+  Eval eval(final Eval sub) {
+    return new Eval() {
+      /** Hash table (built with the first incoming tuple). */
+      private Table table;
+      /** Positions of the matching items. */
+      private int[] matches;
+      /** Current match. */
+      private int m;
+
+      @Override
+      public boolean next(final QueryContext ctx) throws QueryException {
+        while(true) {
+          if(matches != null && m < matches.length) {
+            ctx.set(var, table.items.get(matches[m++]), info);
+            return true;
+          }
+          if(!sub.next(ctx)) return false;
+          if(table == null) table = new Table(ctx);
+          matches = table.probe(ctx);
+          m = 0;
+        }
+      }
+    };
+  }
+
+  /** Kinds of keys. */
+  private enum Kind {
+    /** Numbers. */        NUMBER,
+    /** Strings. */        STRING,
+    /** Untyped values. */ UNTYPED,
+    /** Other items. */    OTHER
+  }
+
+  /**
+   * Returns the kind of a key.
+   * @param it item
+   * @return kind
+   */
+  private static Kind kind(final Item it) {
+    // floats are compared with decimals as floats
+    return it instanceof ANum ? it instanceof Flt ? Kind.OTHER : Kind.NUMBER :
+      it.type.isUntyped() ? Kind.UNTYPED : it instanceof AStr ? Kind.STRING : Kind.OTHER;
+  }
+
+  /**
+   * Returns a hash key for a number. Positive and negative zero are
+   * considered equal.
+   * @param it number
+   * @return bit pattern
+   * @throws QueryException query exception
+   */
+  private static long bits(final Item it) throws QueryException {
+    final double d = it.dbl(null);
+    return Double.doubleToLongBits(d == 0 ? 0 : d);
+  }
+
+  /** Hash table with the items of the sequence, indexed by their keys. */
+  private final class Table {
+    /** Items of the sequence. */
+    final ValueBuilder items = new ValueBuilder();
+    /** String keys. */
+    private final TokenSet strings = new TokenSet();
+    /** Number keys (bit patterns of doubles). */
+    private final LongSet numbers = new LongSet();
+    /** Positions of the items with string keys (indexed by the key id). */
+    private IntList[] spos = new IntList[1];
+    /** Positions of the items with number keys (indexed by the key id). */
+    private IntList[] npos = new IntList[1];
+    /** Indicates which kinds of keys occur in the table. */
+    private final boolean[] kinds = new boolean[Kind.values().length];
+
+    /**
+     * Constructor, building the table.
+     * @param ctx query context
+     * @throws QueryException query exception
+     */
+    Table(final QueryContext ctx) throws QueryException {
+      final Iter ir = expr.iter(ctx);
+      for(Item it; (it = ir.next()) != null;) {
+        final int p = (int) items.size();
+        items.add(it);
+        ctx.set(var, it, info);
+        final Iter kr = ctx.iter(key);
+        for(Item k; (k = kr.next()) != null;) {
+          ctx.checkStop();
+          final Kind kind = kind(k);
+          kinds[kind.ordinal()] = true;
+          if(kind == Kind.NUMBER) {
+            final int id = Math.abs(numbers.add(bits(k)));
+            if(id == npos.length) npos = Arrays.copyOf(npos, Array.newSize(id));
+            add(npos, id, p);
+          } else if(kind != Kind.OTHER) {
+            final int id = Math.abs(strings.add(k.string(info)));
+            if(id == spos.length) spos = Arrays.copyOf(spos, Array.newSize(id));
+            add(spos, id, p);
+          }
+        }
+      }
+      Usage.items((int) items.size());
+    }
+
+    /**
+     * Adds a position to a list.
+     * @param pos lists
+     * @param id key id
+     * @param p position
+     */
+    private void add(final IntList[] pos, final int id, final int p) {
+      IntList il = pos[id];
+      if(il == null) {
+        il = new IntList(1);
+        pos[id] = il;
+      }
+      // an item may yield the same key more than once
+      if(il.size() == 0 || il.get(il.size() - 1) != p) il.add(p);
+    }
+
+    /**
+     * Returns the positions of all items that match the current tuple.
+     * @param ctx query context
+     * @return sorted positions
+     * @throws QueryException query exception
+     */
+    int[] probe(final QueryContext ctx) throws QueryException {
+      if(items.size() == 0) return new int[0];
+
+      final IntList pos = new IntList();
+      boolean verify = false;
+      int lists = 0;
+      final Iter pr = ctx.iter(probe);
+      for(Item it; (it = pr.next()) != null;) {
+        final Kind kind = kind(it);
+        // untyped values are compared with numbers as numbers,
+        // and strings cannot be compared with numbers
+        if(kinds[Kind.OTHER.ordinal()] || kind == Kind.OTHER ||
+            kind == Kind.NUMBER && (kinds[Kind.STRING.ordinal()] ||
+              kinds[Kind.UNTYPED.ordinal()]) ||
+            kind != Kind.NUMBER && kinds[Kind.NUMBER.ordinal()]) return nested(ctx);
+
+        final IntList il;
+        if(kind == Kind.NUMBER) {
+          il = npos[numbers.id(bits(it))];
+          // doubles may be equal, although the original numbers are not (and vice versa)
+          verify = true;
+        } else {
+          il = spos[strings.id(it.string(info))];
+        }
+        if(il == null) continue;
+        for(int i = 0; i < il.size(); i++) pos.add(il.get(i));
+        lists++;
+      }
+
+      int[] res = pos.toArray();
+      if(lists > 1) {
+        // remove duplicates
+        Arrays.sort(res);
+        int s = 0;
+        for(final int p : res) if(s == 0 || res[s - 1] != p) res[s++] = p;
+        res = Arrays.copyOf(res, s);
+      }
+      if(!verify) return res;
+
+      final IntList ver = new IntList(res.length);
+      for(final int p : res) if(matches(ctx, p)) ver.add(p);
+      return ver.toArray();
+    }
+
+    /**
+     * Evaluates the comparison for all items.
+     * @param ctx query context
+     * @return sorted positions
+     * @throws QueryException query exception
+     */
+    private int[] nested(final QueryContext ctx) throws QueryException {
+      final IntList pos = new IntList();
+      final int is = (int) items.size();
+      for(int p = 0; p < is; p++) {
+        ctx.checkStop();
+        if(matches(ctx, p)) pos.add(p);
+      }
+      return pos.toArray();
+    }
+
+    /**
+     * Evaluates the comparison for the specified item.
+     * @param ctx query context
+     * @param p position of the item
+     * @return result of check
+     * @throws QueryException query exception
+     */
+    private boolean matches(final QueryContext ctx, final int p) throws QueryException {
+      ctx.set(var, items.get(p), info);
+      return cmp.item(ctx, info).bool(info);
+    }
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    final FElem e = planElem();
+    var.plan(e);
+    expr.plan(e);
+    cmp.plan(e);
+    plan.add(e);
+  }
+
+  @Override
+  public String toString() {
+    return FOR + ' ' + var + ' ' + IN + ' ' + expr + ' ' + WHERE + ' ' + cmp;
+  }
+
+  @Override
+  public boolean uses(final Use u) {
+    return expr.uses(u) || key.uses(u) || probe.uses(u);
+  }
+
+  @Override
+  public HashJoin compile(final QueryContext ctx, final VarScope scp)
+      throws QueryException {
+    expr = expr.compile(ctx, scp);
+    key = key.compile(ctx, scp);
+    probe = probe.compile(ctx, scp);
+    return optimize(ctx, scp);
+  }
+
+  @Override
+  public HashJoin optimize(final QueryContext ctx, final VarScope scp)
+      throws QueryException {
+    cmp = comparison();
+    type = SeqType.get(expr.type().type, SeqType.Occ.ONE);
+    size = -1;
+    return this;
+  }
+
+  @Override
+  public boolean removable(final Var v) {
+    return expr.removable(v) && key.removable(v) && probe.removable(v);
+  }
+
+  @Override
+  public VarUsage count(final Var v) {
+    // the key is evaluated for each item of the sequence
+    return expr.count(v).plus(key.count(v).times(-1)).plus(probe.count(v));
+  }
+
+  @Override
+  public HashJoin inline(final QueryContext ctx, final VarScope scp,
+      final Var v, final Expr e) throws QueryException {
+    final Expr ex = expr.inline(ctx, scp, v, e);
+    final Expr k = key.inline(ctx, scp, v, e);
+    final Expr p = probe.inline(ctx, scp, v, e);
+    if(ex == null && k == null && p == null) return null;
+    if(ex != null) expr = ex;
+    if(k != null) key = k;
+    if(p != null) probe = p;
+    return optimize(ctx, scp);
+  }
+
+  @Override
+  public HashJoin copy(final QueryContext ctx, final VarScope scp,
+      final IntMap<Var> vs) {
+    final Expr ex = expr.copy(ctx, scp, vs), p = probe.copy(ctx, scp, vs);
+    final Var v = scp.newCopyOf(ctx, var);
+    vs.add(var.id, v);
+    return new HashJoin(v, ex, key.copy(ctx, scp, vs), p, swap, cinfo, info);
+  }
+
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return expr.accept(visitor) && probe.accept(visitor) && visitor.declared(var) &&
+        key.accept(visitor);
+  }
+
+  @Override
+  public void checkUp() throws QueryException {
+    checkNoneUp(expr, key, probe);
+  }
+
+  @Override
+  public boolean databases(final StringList db) {
+    return expr.databases(db) && key.databases(db) && probe.databases(db);
+  }
+
+  @Override
+  long calcSize(final long count) {
+    return expr.size() == 0 ? 0 : -1;
+  }
+
+  @Override
+  public int exprSize() {
+    return expr.exprSize() + key.exprSize() + probe.exprSize();
+  }
+}
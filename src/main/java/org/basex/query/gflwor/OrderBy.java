@@ -31,6 +31,8 @@ public final class OrderBy extends GFLWOR.Clause {
   final Key[] keys;
   /** Stable sort flag. */
   final boolean stable;
+  /** Maximum number of returned tuples. */
+  long limit = Long.MAX_VALUE;
 
   /**
    * Constructor.
@@ -74,17 +76,16 @@ public final class OrderBy extends GFLWOR.Clause {
        * @throws QueryException evaluation exception
        */
       private void init(final QueryContext ctx) throws QueryException {
+        if(limit != Long.MAX_VALUE) {
+          top(ctx);
+          return;
+        }
+
         // keys are stored at odd positions, values at even ones
         List<Value[]> tuples = new ArrayList<Value[]>();
         while(sub.next(ctx)) {
-          final Item[] key = new Item[keys.length];
-          for(int i = 0; i < keys.length; i++)
-            key[i] = keys[i].expr.item(ctx, keys[i].info);
-          tuples.add(key);
-
-          final Value[] vals = new Value[refs.length];
-          for(int i = 0; i < refs.length; i++) vals[i] = refs[i].value(ctx);
-          tuples.add(vals);
+          tuples.add(key(ctx));
+          tuples.add(values(ctx));
         }
 
         final int len = tuples.size() >>> 1;
@@ -101,6 +102,133 @@ public final class OrderBy extends GFLWOR.Clause {
         sort(ks, 0, len);
       }
 
+      /**
+       * Caches the first incoming tuples in sort order, as specified by the limit.
+       * The tuples are selected via a bounded heap, which has the greatest cached
+       * tuple at its root, and all other tuples are discarded. Tuples with equal
+       * keys are returned in their incoming order.
+       * @param ctx query context
+       * @throws QueryException evaluation exception
+       */
+      private void top(final QueryContext ctx) throws QueryException {
+        final ArrayList<Item[]> ks = new ArrayList<Item[]>();
+        final ArrayList<Value[]> vs = new ArrayList<Value[]>();
+        // heap with tuple offsets, incoming positions of the tuples
+        final IntList heap = new IntList(), inc = new IntList();
+        for(int n = 0; sub.next(ctx); n++) {
+          final Item[] key = key(ctx);
+          final int t;
+          if(heap.size() < limit) {
+            t = ks.size();
+            ks.add(key);
+            vs.add(null);
+            inc.add(n);
+            heap.add(t);
+            // move new tuple up
+            for(int c = heap.size() - 1; c > 0;) {
+              final int p = c - 1 >>> 1;
+              if(cmp(ks, inc, heap.get(c), heap.get(p)) <= 0) break;
+              swapEntries(heap, c, p);
+              c = p;
+            }
+          } else {
+            // skip tuple if it is not smaller than the greatest cached tuple
+            t = heap.get(0);
+            if(diff(key, ks.get(t)) >= 0) continue;
+            ks.set(t, key);
+            inc.set(t, n);
+            down(heap, ks, inc);
+          }
+          vs.set(t, values(ctx));
+        }
+
+        // remove greatest tuples from heap
+        final int len = heap.size();
+        perm = new int[len];
+        tpls = new Value[len][];
+        for(int i = len; --i >= 0;) {
+          perm[i] = i;
+          tpls[i] = vs.get(heap.get(0));
+          final int t = heap.pop();
+          if(i > 0) {
+            heap.set(0, t);
+            down(heap, ks, inc);
+          }
+        }
+      }
+
+      /**
+       * Moves the root of the heap down to its correct position.
+       * @param heap heap with tuple offsets
+       * @param ks keys
+       * @param inc incoming positions
+       * @throws QueryException query exception
+       */
+      private void down(final IntList heap, final ArrayList<Item[]> ks,
+          final IntList inc) throws QueryException {
+        final int s = heap.size();
+        for(int p = 0;;) {
+          int c = (p << 1) + 1;
+          if(c >= s) break;
+          if(c + 1 < s && cmp(ks, inc, heap.get(c + 1), heap.get(c)) > 0) c++;
+          if(cmp(ks, inc, heap.get(p), heap.get(c)) >= 0) break;
+          swapEntries(heap, p, c);
+          p = c;
+        }
+      }
+
+      /**
+       * Compares two cached tuples (part of the top-k selection).
+       * @param ks keys
+       * @param inc incoming positions
+       * @param x offset of first tuple
+       * @param y offset of second tuple
+       * @return result
+       * @throws QueryException query exception
+       */
+      private int cmp(final ArrayList<Item[]> ks, final IntList inc, final int x,
+          final int y) throws QueryException {
+        final int c = diff(ks.get(x), ks.get(y));
+        return c != 0 ? c : inc.get(x) - inc.get(y);
+      }
+
+      /**
+       * Swaps two heap entries.
+       * @param heap heap
+       * @param x first position
+       * @param y second position
+       */
+      private void swapEntries(final IntList heap, final int x, final int y) {
+        final int t = heap.get(x);
+        heap.set(x, heap.get(y));
+        heap.set(y, t);
+      }
+
+      /**
+       * Evaluates the sort keys of the current tuple.
+       * @param ctx query context
+       * @return keys
+       * @throws QueryException query exception
+       */
+      private Item[] key(final QueryContext ctx) throws QueryException {
+        final Item[] key = new Item[keys.length];
+        for(int i = 0; i < keys.length; i++)
+          key[i] = keys[i].expr.item(ctx, keys[i].info);
+        return key;
+      }
+
+      /**
+       * Returns the variable values of the current tuple.
+       * @param ctx query context
+       * @return values
+       * @throws QueryException query exception
+       */
+      private Value[] values(final QueryContext ctx) throws QueryException {
+        final Value[] vals = new Value[refs.length];
+        for(int i = 0; i < refs.length; i++) vals[i] = refs[i].value(ctx);
+        return vals;
+      }
+
       /**
        * Recursively sorts the specified items.
        * The algorithm is derived from {@link Arrays#sort(int[])}.
@@ -171,7 +299,20 @@ public final class OrderBy extends GFLWOR.Clause {
        * @throws QueryException query exception
        */
       private int cmp(final Item[][] ks, final int x, final int y) throws QueryException {
-        final Item[] a = ks[x], b = ks[y];
+        final int c = diff(ks[x], ks[y]);
+        if(c != 0) return c;
+        // optional stable sorting
+        return stable ? x - y : 0;
+      }
+
+      /**
+       * Compares two sort keys.
+       * @param a first keys
+       * @param b second keys
+       * @return result
+       * @throws QueryException query exception
+       */
+      private int diff(final Item[] a, final Item[] b) throws QueryException {
         for(int k = 0; k < keys.length; k++) {
           final Key or = keys[k];
           final Item m = a[k] == Dbl.NAN || a[k] == Flt.NAN ? null : a[k],
@@ -180,9 +321,7 @@ public final class OrderBy extends GFLWOR.Clause {
             n == null ? or.least ? 1 : -1 : m.diff(or.info, n);
           if(c != 0) return or.desc ? -c : c;
         }
-
-        // optional stable sorting
-        return stable ? x - y : 0;
+        return 0;
       }
 
       /**
@@ -207,6 +346,7 @@ public final class OrderBy extends GFLWOR.Clause {
   @Override
   public void plan(final FElem plan) {
     final FElem e = planElem(Token.token(STABLE), Token.token(stable));
+    if(limit != Long.MAX_VALUE) e.add(planAttr(MAX, Token.token(limit)));
     for(final Key k : keys) k.plan(e);
     plan.add(e);
   }
@@ -258,8 +398,10 @@ public final class OrderBy extends GFLWOR.Clause {
 
   @Override
   public OrderBy copy(final QueryContext ctx, final VarScope scp, final IntMap<Var> vs) {
-    return new OrderBy(Arr.copyAll(ctx, scp, vs, refs),
+    final OrderBy ob = new OrderBy(Arr.copyAll(ctx, scp, vs, refs),
         Arr.copyAll(ctx, scp, vs, keys), stable, info);
+    ob.limit = limit;
+    return ob;
   }
 
   @Override
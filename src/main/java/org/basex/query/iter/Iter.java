@@ -65,15 +65,11 @@ public abstract class Iter {
     if(i == null) return Empty.SEQ;
 
     // if possible, allocate array with final size, and add all single items
-    Item[] item = new Item[Math.max(1, (int) size())];
-    int s = 0;
-    do {
-      if(s == item.length) item = extend(item);
-      item[s++] = i;
-    } while((i = next()) != null);
+    final SeqBuilder sb = new SeqBuilder((int) size());
+    do sb.add(i); while((i = next()) != null);
 
     // create final value
-    return Seq.get(item, s);
+    return sb.value();
   }
 
   /**
@@ -85,6 +81,7 @@ public abstract class Iter {
     final int s = it.length;
     final Item[] tmp = new Item[Array.newSize(s)];
     System.arraycopy(it, 0, tmp, 0, s);
+    Usage.items(tmp.length);
     return tmp;
   }
 }
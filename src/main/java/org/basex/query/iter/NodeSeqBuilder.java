@@ -80,6 +80,7 @@ public final class NodeSeqBuilder extends AxisIter {
       final ANode[] tmp = new ANode[Array.newSize(size)];
       System.arraycopy(nodes, 0, tmp, 0, size);
       nodes = tmp;
+      Usage.items(tmp.length);
     }
     if(check && !sort && size != 0) sort = nodes[size - 1].diff(n) > 0;
     nodes[size++] = n;
@@ -118,6 +119,12 @@ public final class NodeSeqBuilder extends AxisIter {
   @Override
   public Value value() {
     if(check) sort(sort);
+    // return database nodes as pre values
+    if(size > 1 && dbnodes()) {
+      final SeqBuilder sb = new SeqBuilder(size);
+      for(int n = 0; n < size; n++) sb.add(nodes[n]);
+      return sb.value(NodeType.NOD);
+    }
     return Seq.get(nodes, size, NodeType.NOD);
   }
 
@@ -0,0 +1,237 @@
+package org.basex.query.iter;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * This class can be used to build new sequences in a compact representation.
+ * As long as all added items are of the same kind, they are stored in their
+ * primitive representation:
+ *
+ * <ul>
+ *   <li>ordered database nodes of a single database as pre values,</li>
+ *   <li>integers of the same type as longs,</li>
+ *   <li>doubles as doubles, and</li>
+ *   <li>strings as tokens.</li>
+ * </ul>
+ *
+ * All other items are stored in an item array. If an item of another kind is
+ * added, the existing values will be converted to items.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class SeqBuilder {
+  /** Kinds of stored items. */
+  private enum Kind {
+    /** Database nodes. */ DBNODE,
+    /** Integers. */       INTEGER,
+    /** Doubles. */        DOUBLE,
+    /** Strings. */        STRING,
+    /** All items. */      ITEM
+  }
+
+  /** Initial capacity. */
+  private final int capacity;
+  /** Kind of stored items ({@code null}: no items have been added yet). */
+  private Kind kind;
+  /** Number of items. */
+  private int size;
+  /** First item. */
+  private Item first;
+  /** Common type of the stored items. */
+  private Type type;
+
+  /** Data reference (database nodes). */
+  private Data data;
+  /** Pre values (database nodes). */
+  private int[] pres;
+  /** Integers. */
+  private long[] longs;
+  /** Doubles. */
+  private double[] doubles;
+  /** Tokens (strings). */
+  private byte[][] tokens;
+  /** Items (all other items). */
+  private Item[] items;
+
+  /**
+   * Constructor.
+   */
+  public SeqBuilder() {
+    this(1);
+  }
+
+  /**
+   * Constructor.
+   * @param c initial capacity
+   */
+  public SeqBuilder(final int c) {
+    capacity = Math.max(1, c);
+  }
+
+  /**
+   * Adds a single item.
+   * @param it item to be added
+   */
+  public void add(final Item it) {
+    if(kind == null) {
+      init(it);
+    } else if(kind != Kind.ITEM && !fits(it)) {
+      items();
+    }
+
+    switch(kind) {
+      case DBNODE:
+        if(size == pres.length) pres = Arrays.copyOf(pres, grow());
+        pres[size] = ((DBNode) it).pre;
+        if(type != it.type) type = NodeType.NOD;
+        break;
+      case INTEGER:
+        if(size == longs.length) longs = Arrays.copyOf(longs, grow());
+        longs[size] = ((Int) it).itr();
+        break;
+      case DOUBLE:
+        if(size == doubles.length) doubles = Arrays.copyOf(doubles, grow());
+        doubles[size] = ((Dbl) it).dbl();
+        break;
+      case STRING:
+        if(size == tokens.length) tokens = Arrays.copyOf(tokens, grow());
+        tokens[size] = ((Str) it).string();
+        break;
+      default:
+        if(size == items.length) items = Arrays.copyOf(items, grow());
+        items[size] = it;
+    }
+    size++;
+  }
+
+  /**
+   * Returns the number of items.
+   * @return number of items
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a value with all items.
+   * @return value
+   */
+  public Value value() {
+    return value(null);
+  }
+
+  /**
+   * Returns a value with all items.
+   * @param t type of all items, or {@code null} if unknown
+   * (only considered if the items are stored in an item array)
+   * @return value
+   */
+  public Value value(final Type t) {
+    if(size < 2) return size == 0 ? Empty.SEQ : first;
+    switch(kind) {
+      case DBNODE:
+        return DBNodeSeq.get(size == pres.length ? pres : Arrays.copyOf(pres, size),
+            data, type, false);
+      case INTEGER:
+        return IntSeq.get(size == longs.length ? longs : Arrays.copyOf(longs, size),
+            type);
+      case DOUBLE:
+        return DblSeq.get(size == doubles.length ? doubles :
+          Arrays.copyOf(doubles, size));
+      case STRING:
+        return StrSeq.get(size == tokens.length ? tokens : Arrays.copyOf(tokens, size));
+      default:
+        return Seq.get(items, size, t);
+    }
+  }
+
+  /**
+   * Chooses the representation for the first item.
+   * @param it first item
+   */
+  private void init(final Item it) {
+    first = it;
+    type = it.type;
+    if(it instanceof DBNode && ((DBNode) it).plain()) {
+      kind = Kind.DBNODE;
+      data = it.data();
+      pres = new int[capacity];
+    } else if(it instanceof Int) {
+      kind = Kind.INTEGER;
+      longs = new long[capacity];
+    } else if(it instanceof Dbl) {
+      kind = Kind.DOUBLE;
+      doubles = new double[capacity];
+    } else if(it instanceof Str && it.type == AtomType.STR) {
+      kind = Kind.STRING;
+      tokens = new byte[capacity][];
+    } else {
+      kind = Kind.ITEM;
+      items = new Item[capacity];
+    }
+    Usage.items(capacity);
+  }
+
+  /**
+   * Checks if the specified item can be stored in the current representation.
+   * @param it item
+   * @return result of check
+   */
+  private boolean fits(final Item it) {
+    switch(kind) {
+      case DBNODE:
+        // database nodes must be ordered and duplicate-free
+        return it instanceof DBNode && ((DBNode) it).plain() && it.data() == data &&
+          ((DBNode) it).pre > pres[size - 1];
+      case INTEGER:
+        return it instanceof Int && it.type == type;
+      case DOUBLE:
+        return it instanceof Dbl;
+      default:
+        return it instanceof Str && it.type == AtomType.STR;
+    }
+  }
+
+  /**
+   * Converts the existing values to items.
+   */
+  private void items() {
+    final Item[] it = new Item[Math.max(capacity, Array.newSize(size))];
+    for(int i = 0; i < size; i++) {
+      switch(kind) {
+        case DBNODE:  it[i] = new DBNode(data, pres[i]); break;
+        case INTEGER: it[i] = Int.get(longs[i], type); break;
+        case DOUBLE:  it[i] = Dbl.get(doubles[i]); break;
+        default:      it[i] = Str.get(tokens[i]); break;
+      }
+    }
+    it[0] = first;
+    items = it;
+    kind = Kind.ITEM;
+    data = null;
+    pres = null;
+    longs = null;
+    doubles = null;
+    tokens = null;
+    Usage.items(it.length);
+  }
+
+  /**
+   * Returns the new capacity of a full array.
+   * @return new capacity
+   */
+  private int grow() {
+    final int s = Array.newSize(size);
+    Usage.items(s);
+    return s;
+  }
+}
@@ -31,9 +31,9 @@ public abstract class ValueIter extends Iter implements Iterable<Item> {
 
   @Override
   public Value value() {
-    final ValueBuilder vb = new ValueBuilder((int) size());
-    for(Item i; (i = next()) != null;) vb.add(i);
-    return vb.value();
+    final SeqBuilder sb = new SeqBuilder((int) size());
+    for(Item i; (i = next()) != null;) sb.add(i);
+    return sb.value();
   }
 
   @Override
@@ -6,6 +6,7 @@ import static org.basex.query.util.Err.*;
 import java.util.*;
 
 import org.basex.data.*;
+import org.basex.index.*;
 import org.basex.index.path.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
@@ -27,6 +28,11 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public abstract class AxisPath extends Path {
+  /** Minimum ratio between traversed nodes and name or path index results. */
+  private static final int INDEXRATIO = 8;
+  /** Offset of the step that will be replaced with a name or path index access. */
+  private int accStep;
+
   /**
    * Constructor.
    * @param ii input info
@@ -176,14 +182,31 @@ public abstract class AxisPath extends Path {
       }
     }
 
-    // skip if no index access is possible, or if it is too expensive
-    if(ics == null || ics.costs() > data.meta.size) return this;
+    // check if the name or path index is more selective than the predicates
+    final NameAccess na = nameAccess(data, ics != null ? ics.costs() : Integer.MAX_VALUE);
+    final PathAccess pa = pathAccess(data, na != null ? na.costs() :
+      ics != null ? ics.costs() : Integer.MAX_VALUE);
+    final Expr ia = pa != null ? pa : na;
+    if(ia != null) {
+      if(pa != null) ctx.compInfo(OPTPATHINDEX, pa);
+      else ctx.compInfo(OPTNAMINDEX);
+      smin = accStep;
+      pmin = -1;
+    } else if(ics == null) {
+      // skip if no index access is possible
+      return this;
+    } else {
+      // skip if the index yields more results than nodes would be traversed
+      final long scan = scan(data, smin);
+      ctx.compInfo(OPTCOSTS, ics.costs(), scan);
+      if(ics.costs() > scan) return this;
+    }
 
     // replace expressions for index access
     final Step stp = step(smin);
-    final Expr ie = stp.preds[pmin].indexEquivalent(ics);
+    final Expr ie = ia != null ? ia : stp.preds[pmin].indexEquivalent(ics);
 
-    if(ics.seq) {
+    if(ia == null && ics.seq) {
       // sequential evaluation; do not invert path
       stp.preds[pmin] = ie;
     } else {
@@ -191,16 +214,27 @@ public abstract class AxisPath extends Path {
       Step[] invSteps = {};
 
       // collect remaining predicates
-      final Expr[] newPreds = new Expr[stp.preds.length - 1];
+      Expr[] newPreds = new Expr[stp.preds.length - (pmin == -1 ? 0 : 1)];
       int c = 0;
       for(int p = 0; p != stp.preds.length; ++p) {
         if(p != pmin) newPreds[c++] = stp.preds[p];
       }
+      // name index returns all nodes with the local name: check namespaces
+      if(pa == null && na != null && stp.test.mode == Mode.STD) {
+        newPreds = Array.add(newPreds, Path.get(info, null,
+            Step.get(info, Axis.SELF, stp.test)));
+      }
 
       // check if path before index step needs to be inverted and traversed
       final Test test = InvDocTest.get(ctx, data);
       boolean inv = true;
-      if(test == Test.DOC && data.meta.uptodate) {
+      if(pa != null) {
+        // path index: only check if results belong to the addressed documents
+        inv = false;
+        if(test != Test.DOC) {
+          invSteps = Array.add(invSteps, Step.get(info, Axis.ANC, test));
+        }
+      } else if(test == Test.DOC && data.meta.uptodate) {
         int j = 0;
         for(; j <= smin; ++j) {
           final Step s = axisStep(j);
@@ -262,6 +296,163 @@ public abstract class AxisPath extends Path {
     return this;
   }
 
+  /**
+   * Checks if the specified predicate will be rewritten for index access if it is
+   * attached to the last step of this path.
+   * @param ctx query context
+   * @param pred predicate
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  public final boolean indexAccessible(final QueryContext ctx, final Expr pred)
+      throws QueryException {
+
+    if(root == null || uses(Use.POS) || pred.uses(Use.POS)) return false;
+    final int last = steps.length - 1;
+    for(int s = 0; s <= last; ++s) {
+      final Step stp = axisStep(s);
+      if(stp == null || !stp.axis.down) return false;
+    }
+    final Value v = ctx.value;
+    try {
+      ctx.value = root(ctx);
+      final Data data = ctx.data();
+      if(data == null || ctx.value.type != NodeType.DOC) return false;
+      final IndexContext ic = new IndexContext(ctx, data, step(last),
+          pathNodes(data, last) != null);
+      return pred.indexAccessible(ic) && ic.costs() <= scan(data, last);
+    } finally {
+      ctx.value = v;
+    }
+  }
+
+  /**
+   * Returns a name index access for the most selective name step, or {@code null}
+   * if the name index is not available or if the access would be too expensive.
+   * The name index is chosen if it yields less results than the cheapest
+   * predicate index access, and if it yields only a fraction of all database nodes.
+   * The offset of the chosen step is assigned to {@link #accStep}.
+   * @param data data reference
+   * @param max maximum costs
+   * @return name index access or {@code null}
+   */
+  private NameAccess nameAccess(final Data data, final int max) {
+    if(!data.meta.nameindex) return null;
+
+    NameAccess na = null;
+    int st = 0;
+    for(int s = 0; s < steps.length; ++s) {
+      final Step stp = step(s);
+      if(!stp.axis.down) break;
+      // only consider steps that would otherwise traverse large parts of the database
+      final Mode m = stp.test.mode;
+      if(m != Mode.NAME && m != Mode.STD || !(stp.axis == Axis.DESC ||
+          stp.axis == Axis.ATTR && s > 0 && (step(s - 1).axis == Axis.DESC ||
+          step(s - 1).axis == Axis.DESCORSELF))) continue;
+
+      final NameAccess n = new NameAccess(info, ((NameTest) stp.test).ln,
+          stp.test.type == NodeType.ATT ? IndexType.ATTNAME : IndexType.TAG, data,
+          iterable(s));
+      if(na == null || n.costs() < na.costs()) {
+        na = n;
+        st = s;
+      }
+    }
+    if(na == null || (long) na.costs() * INDEXRATIO > data.meta.size ||
+        na.costs() >= max) return null;
+
+    accStep = st;
+    return na;
+  }
+
+  /**
+   * Checks if the results of an index access for the specified step can be
+   * evaluated iteratively by the remaining steps. Index results may contain nested
+   * nodes, which is why only attribute and self steps are allowed.
+   * @param s offset of the index step
+   * @return result of check
+   */
+  private boolean iterable(final int s) {
+    for(int i = s + 1; i < steps.length; i++) {
+      final Axis ax = step(i).axis;
+      if(ax != Axis.ATTR && ax != Axis.SELF) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns a path index access for the longest leading steps of the path that
+   * can be mapped to nodes of the path summary, or {@code null} if the path index
+   * is not available or if the access would be too expensive.
+   * The path index is chosen if it yields less results than the other index
+   * accesses, and if it yields only a fraction of the nodes that would be
+   * traversed by the steps, which is estimated via the summary statistics.
+   * The offset of the last replaced step is assigned to {@link #accStep}.
+   * @param data data reference
+   * @param max maximum costs
+   * @return path index access or {@code null}
+   */
+  private PathAccess pathAccess(final Data data, final int max) {
+    if(!data.meta.uptodate || data.paths.postings() == null) return null;
+
+    PathAccess pa = null;
+    ArrayList<PathNode> nodes = data.paths.root();
+    final StringBuilder path = new StringBuilder();
+    long scan = 0;
+    for(int s = 0; s < steps.length; ++s) {
+      final Step stp = step(s);
+      if(!stp.axis.down) break;
+
+      // estimate number of traversed nodes
+      final boolean desc = stp.axis == Axis.DESC || stp.axis == Axis.DESCORSELF;
+      for(final PathNode pn : PathSummary.desc(nodes, desc)) scan += pn.stats.count;
+      // predicates will be attached to the index access
+      final Step st = stp.preds.length == 0 ? stp : Step.get(info, stp.axis, stp.test);
+      nodes = st.nodes(nodes, data);
+      if(nodes == null || nodes.isEmpty()) break;
+      path.append('/').append(st);
+
+      boolean ok = true;
+      for(final PathNode pn : nodes) ok &= pn.kind == Data.ELEM || pn.kind == Data.ATTR;
+      if(ok) {
+        final PathAccess p = new PathAccess(info, nodes, path.toString(), data,
+            iterable(s));
+        if(p.costs() < max && (long) p.costs() * INDEXRATIO <= scan) {
+          pa = p;
+          accStep = s;
+        }
+      }
+      // steps after predicates cannot be mapped to the summary
+      if(stp.preds.length != 0) break;
+    }
+    return pa;
+  }
+
+  /**
+   * Estimates the number of nodes that will be traversed by a sequential
+   * evaluation of the leading steps of the path, including the specified step.
+   * The estimation is based on the path summary. If no estimation is possible,
+   * the number of database nodes is returned.
+   * @param data data reference
+   * @param last offset of the last step
+   * @return estimated number of nodes
+   */
+  private long scan(final Data data, final int last) {
+    if(!data.meta.uptodate) return data.meta.size;
+
+    ArrayList<PathNode> nodes = data.paths.root();
+    long scan = 0;
+    for(int s = 0; s <= last; ++s) {
+      final Step stp = step(s);
+      final boolean desc = stp.axis == Axis.DESC || stp.axis == Axis.DESCORSELF;
+      for(final PathNode pn : PathSummary.desc(nodes, desc)) scan += pn.stats.count;
+      // the predicates of a step are evaluated for all nodes
+      nodes = Step.get(info, stp.axis, stp.test).nodes(nodes, data);
+      if(nodes == null) return data.meta.size;
+    }
+    return scan;
+  }
+
   /**
    * Inverts a location path.
    * @param r new root node
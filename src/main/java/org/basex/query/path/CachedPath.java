@@ -2,12 +2,17 @@ package org.basex.query.path;
 
 import static org.basex.query.util.Err.*;
 
+import java.util.*;
+
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -21,8 +26,12 @@ import org.basex.util.hash.*;
 final class CachedPath extends AxisPath {
   /** Flag for result caching. */
   private boolean cache;
+  /** Flag for block-wise evaluation. */
+  private boolean blocks;
   /** Cached result. */
   private NodeSeqBuilder citer;
+  /** Cached result of block-wise evaluation. */
+  private Value cvalue;
   /** Last visited item. */
   private Value lvalue;
 
@@ -43,6 +52,11 @@ final class CachedPath extends AxisPath {
 
     // analyze if result set can be cached - no predicates/variables...
     cache = root != null && !hasFreeVars();
+    blocks = root != null;
+    for(final Expr s : steps) {
+      blocks &= s instanceof Step && (PreBlocks.supported((Step) s) ||
+          Staircase.supported((Step) s));
+    }
     return this;
   }
 
@@ -59,9 +73,17 @@ final class CachedPath extends AxisPath {
        * - the code is called for the first time
        * - the value has changed and the underlying node is not the same
        */
-      if(!cache || citer == null || lvalue != r && !(r instanceof ANode &&
-          lvalue instanceof ANode && ((ANode) lvalue).is((ANode) r))) {
+      if(!cache || citer == null && cvalue == null || lvalue != r &&
+          !(r instanceof ANode && lvalue instanceof ANode &&
+          ((ANode) lvalue).is((ANode) r))) {
         lvalue = r;
+        citer = null;
+        cvalue = null;
+        final int[] pres = blocks ? PreBlocks.context(r) : null;
+        if(pres != null) {
+          cvalue = eval(ctx, r, pres);
+          return cvalue.iter();
+        }
         citer = new NodeSeqBuilder().check();
         if(r != null) {
           final Iter ir = ctx.iter(r);
@@ -76,6 +98,8 @@ final class CachedPath extends AxisPath {
           iter(0, citer, ctx);
         }
         citer.sort();
+      } else if(cvalue != null) {
+        return cvalue.iter();
       } else {
         citer.reset();
       }
@@ -87,6 +111,56 @@ final class CachedPath extends AxisPath {
     }
   }
 
+  /**
+   * Evaluates the steps for the specified database nodes, in parallel if enabled.
+   * @param ctx query context
+   * @param r context value
+   * @param pres sorted pre values of the context nodes
+   * @return resulting nodes
+   */
+  private Value eval(final QueryContext ctx, final Value r, final int[] pres) {
+    final Data data = r.itemAt(0).data();
+    final boolean flat = PreBlocks.flat(r);
+    int[] p = ParallelPath.eval(ctx, data, steps, pres, flat);
+    if(p == null) p = eval(ctx, data, steps, pres, flat);
+    return DBNodeSeq.get(p, data, NodeType.NOD, false);
+  }
+
+  /**
+   * Evaluates the specified steps for the specified database nodes. Steps on the
+   * child, attribute and self axes are evaluated block-wise, and all other steps
+   * are evaluated as structural joins.
+   * @param ctx query context
+   * @param data data reference
+   * @param steps steps
+   * @param pres sorted pre values of the context nodes
+   * @param flat indicates if no context node is a descendant of another one
+   * @return sorted pre values of the resulting nodes
+   */
+  static int[] eval(final QueryContext ctx, final Data data, final Expr[] steps,
+      final int[] pres, final boolean flat) {
+    boolean f = flat;
+    int[] p = pres;
+    final int sl = steps.length;
+    for(int s = 0; s < sl;) {
+      final Step step = (Step) steps[s];
+      if(Staircase.supported(step)) {
+        p = new Staircase(data, step).eval(ctx, p);
+        s++;
+        f = false;
+      } else {
+        // choose all steps that can be evaluated block-wise
+        final int b = s;
+        while(s < sl && !Staircase.supported((Step) steps[s])) s++;
+        final Expr[] stps = Arrays.copyOfRange(steps, b, s);
+        final boolean sort = !PreBlocks.ordered(stps, f);
+        for(final Expr st : stps) f = PreBlocks.flat(st, f);
+        p = new PreBlocks(data, p, stps).pres(ctx, sort);
+      }
+    }
+    return p;
+  }
+
   /**
    * Recursive step iterator.
    * @param l current step
@@ -119,7 +193,9 @@ final class CachedPath extends AxisPath {
     final CachedPath ap = copyType(
         new CachedPath(info, root == null ? null : root.copy(ctx, scp, vs), stps));
     ap.cache = cache;
+    ap.blocks = blocks;
     if(citer != null) ap.citer = citer.copy();
+    ap.cvalue = cvalue;
     if(lvalue != null) ap.lvalue = lvalue;
     return ap;
   }
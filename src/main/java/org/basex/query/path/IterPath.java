@@ -2,16 +2,19 @@ package org.basex.query.path;
 
 import static org.basex.query.util.Err.*;
 
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * Iterative path expression for location paths which return sorted and
@@ -38,6 +41,29 @@ final class IterPath extends AxisPath {
 
   @Override
   public NodeIter iter(final QueryContext ctx) {
+    final int[] pres = blocks();
+    if(pres != null) {
+      // evaluate steps block-wise; results are computed lazily, so the steps
+      // are only evaluated in parallel if all results are requested
+      final Data data = ((Value) root).data();
+      final PreBlocks pb = new PreBlocks(data, pres, steps);
+      return new NodeIter() {
+        final IntList block = new IntList(PreBlocks.SIZE);
+        int p;
+
+        @Override
+        public ANode next() {
+          if(p == block.size()) {
+            ctx.checkStop();
+            block.reset();
+            p = 0;
+            if(pb.next(block) == 0) return null;
+          }
+          return new DBNode(data, block.get(p++));
+        }
+      };
+    }
+
     return new NodeIter() {
       final boolean r = root != null;
       Expr[] expr;
@@ -107,6 +133,27 @@ final class IterPath extends AxisPath {
     };
   }
 
+  @Override
+  public Value value(final QueryContext ctx) throws QueryException {
+    final int[] pres = blocks();
+    if(pres == null) return super.value(ctx);
+    final Data data = ((Value) root).data();
+    final int[] res = ParallelPath.eval(ctx, data, steps, pres,
+        PreBlocks.flat((Value) root));
+    return res != null ? DBNodeSeq.get(res, data, NodeType.NOD, false) :
+      new PreBlocks(data, pres, steps).value(ctx, false);
+  }
+
+  /**
+   * Returns the context nodes if the steps can be evaluated block-wise.
+   * @return pre values of the context nodes, or {@code null}
+   */
+  private int[] blocks() {
+    return root instanceof Value && PreBlocks.supported(steps) &&
+        PreBlocks.ordered(steps, PreBlocks.flat((Value) root)) ?
+        PreBlocks.context((Value) root) : null;
+  }
+
   @Override
   public IterPath copy(final QueryContext ctx, final VarScope scp, final IntMap<Var> vs) {
     return copyType(new IterPath(info, root == null ? null : root.copy(ctx, scp, vs),
@@ -0,0 +1,284 @@
+package org.basex.query.path;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Parallel evaluation of location steps on database nodes.
+ * The context nodes are split into partitions of pre values, which are evaluated
+ * by separate threads. If the first step is a descendant step, the descendant
+ * ranges of the context nodes will be split into pre ranges. The results of all
+ * partitions are concatenated in document order.
+ *
+ * The partitions are evaluated by the threads of a shared pool. The threads are
+ * only active while the calling thread waits for the results, so they are covered
+ * by the database lock of the evaluated query.
+ *
+ * Limitations: only steps without predicates are evaluated in parallel (see
+ * {@link PreBlocks#supported(Expr[])}). The table of a disk-based database is
+ * accessed via synchronized methods, so the threads will mostly wait for each
+ * other, and a speedup can only be expected for main-memory databases.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+final class ParallelPath {
+  /** Minimum number of pre values in a partition. */
+  static final int MIN = 1 << 14;
+  /** Number of partitions per thread. */
+  private static final int PARTS = 4;
+  /** Shared thread pool (threads are created on demand and removed when idle). */
+  private static final ExecutorService POOL = Executors.newCachedThreadPool(
+    new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable r) {
+        final Thread t = new Thread(r, Util.name(ParallelPath.class));
+        t.setDaemon(true);
+        return t;
+      }
+    });
+
+  /** Data reference. */
+  private final Data data;
+  /** Location steps. */
+  private final Expr[] steps;
+  /** Maximum number of threads. */
+  private final int threads;
+
+  /**
+   * Constructor.
+   * @param d data reference
+   * @param s location steps
+   * @param t maximum number of threads
+   */
+  private ParallelPath(final Data d, final Expr[] s, final int t) {
+    data = d;
+    steps = s;
+    threads = t;
+  }
+
+  /**
+   * Evaluates the steps in parallel if this is enabled via {@link Prop#QUERYPARALLEL}.
+   * @param ctx query context
+   * @param d data reference
+   * @param s location steps
+   * @param pres sorted pre values of the context nodes
+   * @param flat indicates if no context node is a descendant of another one
+   * @return sorted pre values of the results, or {@code null} if parallel
+   * evaluation is disabled, or if the number of nodes is too small to be split
+   * into partitions
+   */
+  static int[] eval(final QueryContext ctx, final Data d, final Expr[] s,
+      final int[] pres, final boolean flat) {
+    final int threads = ctx.context.prop.num(Prop.QUERYPARALLEL);
+    return threads > 1 ? new ParallelPath(d, s, threads).eval(ctx, pres, flat) : null;
+  }
+
+  /**
+   * Evaluates the steps in parallel.
+   * @param ctx query context
+   * @param pres sorted pre values of the context nodes
+   * @param flat indicates if no context node is a descendant of another one
+   * @return sorted pre values of the results, or {@code null} if the number of
+   * nodes is too small to be split into partitions
+   */
+  private int[] eval(final QueryContext ctx, final int[] pres, final boolean flat) {
+    final Step step = (Step) steps[0];
+    final Axis axis = step.axis;
+    final ArrayList<Callable<int[]>> tasks = axis == Axis.DESC ||
+        axis == Axis.DESCORSELF ? ranges(ctx, pres, step) : contexts(ctx, pres, flat);
+    return tasks == null ? null : run(ctx, tasks);
+  }
+
+  /**
+   * Splits the descendant ranges of the context nodes into partitions.
+   * @param ctx query context
+   * @param pres context nodes
+   * @param step first step
+   * @return tasks, or {@code null} if the ranges are too small
+   */
+  private ArrayList<Callable<int[]>> ranges(final QueryContext ctx, final int[] pres,
+      final Step step) {
+
+    // collect the ranges of all context nodes that are no descendants of others
+    final boolean self = step.axis == Axis.DESCORSELF;
+    final IntList starts = new IntList(), ends = new IntList(), atts = new IntList();
+    long total = 0;
+    int end = 0;
+    for(final int c : pres) {
+      final int k = data.kind(c);
+      if(c < end) {
+        // attributes are no descendants, but context nodes are returned
+        if(self && k == Data.ATTR) atts.add(c);
+        continue;
+      }
+      end = c + data.size(c, k);
+      final int start = self ? c : c + data.attSize(c, k);
+      if(start == end) continue;
+      starts.add(start);
+      ends.add(end);
+      total += end - start;
+    }
+    if(total < MIN << 1) return null;
+
+    final Expr[] rest = Arrays.copyOfRange(steps, 1, steps.length);
+    final int kind = PreBlocks.kind(step.test);
+    final boolean[] names = PreBlocks.names(data, step.test);
+    final long size = Math.max(MIN, total / (threads * PARTS));
+    final ArrayList<Callable<int[]>> tasks = new ArrayList<Callable<int[]>>();
+    final int rs = starts.size();
+    for(int r = 0; r < rs; r++) {
+      final int rstart = starts.get(r), rend = ends.get(r);
+      for(int s = rstart; s < rend;) {
+        final int e = (int) Math.min(rend, s + size);
+        final int first = s;
+        final boolean range = s == rstart;
+        tasks.add(new Callable<int[]>() {
+          @Override
+          public int[] call() {
+            final IntList list = new IntList();
+            int p = first;
+            // skip attributes of a node that belongs to the previous partition
+            if(!range) while(p < e && data.kind(p) == Data.ATTR) p++;
+            while(p < e) {
+              ctx.checkStop();
+              final int k = data.kind(p);
+              if((kind == -1 || k == kind) && (names == null || names[data.name(p)])) {
+                list.add(p);
+              }
+              p += data.attSize(p, k);
+            }
+            final int[] res = list.toArray();
+            return rest.length == 0 ? res : CachedPath.eval(ctx, data, rest, res, false);
+          }
+        });
+        s = e;
+      }
+    }
+    // attributes in the ranges that are context nodes (results will be sorted)
+    if(!atts.isEmpty() && (kind == -1 || kind == Data.ATTR)) {
+      final int[] as = atts.toArray();
+      tasks.add(new Callable<int[]>() {
+        @Override
+        public int[] call() {
+          final IntList list = new IntList();
+          for(final int a : as) if(names == null || names[data.name(a)]) list.add(a);
+          final int[] res = list.toArray();
+          return rest.length == 0 ? res : CachedPath.eval(ctx, data, rest, res, false);
+        }
+      });
+    }
+    return tasks;
+  }
+
+  /**
+   * Splits the context nodes into partitions.
+   * @param ctx query context
+   * @param pres context nodes
+   * @param flat indicates if no context node is a descendant of another one
+   * @return tasks, or {@code null} if the context nodes are too few
+   */
+  private ArrayList<Callable<int[]>> contexts(final QueryContext ctx, final int[] pres,
+      final boolean flat) {
+
+    // estimate the number of nodes that will be visited
+    final int ps = pres.length;
+    if(ps < 2) return null;
+    final int last = pres[ps - 1];
+    final long total = last + data.size(last, data.kind(last)) - pres[0];
+    if(total < MIN << 1) return null;
+
+    final int parts = (int) Math.min(ps, Math.min(total / MIN, threads * PARTS));
+    final ArrayList<Callable<int[]>> tasks = new ArrayList<Callable<int[]>>();
+    for(int t = 0; t < parts; t++) {
+      final int[] part = Arrays.copyOfRange(pres, (int) ((long) ps * t / parts),
+          (int) ((long) ps * (t + 1) / parts));
+      tasks.add(new Callable<int[]>() {
+        @Override
+        public int[] call() {
+          return CachedPath.eval(ctx, data, steps, part, flat);
+        }
+      });
+    }
+    return tasks;
+  }
+
+  /**
+   * Runs the specified tasks and concatenates their results.
+   * @param ctx query context
+   * @param tasks tasks
+   * @return sorted pre values
+   */
+  private int[] run(final QueryContext ctx, final ArrayList<Callable<int[]>> tasks) {
+    final int ts = tasks.size();
+    final int[][] res = new int[ts][];
+    // each worker evaluates the next pending task until all tasks have been evaluated
+    final AtomicInteger next = new AtomicInteger();
+    final int ws = Math.min(ts, threads);
+    final ArrayList<Future<Usage>> workers = new ArrayList<Future<Usage>>(ws);
+    try {
+      for(int w = 0; w < ws; w++) {
+        workers.add(POOL.submit(new Callable<Usage>() {
+          @Override
+          public Usage call() throws Exception {
+            final Usage usage = new Usage().attach();
+            try {
+              for(int t; (t = next.getAndIncrement()) < ts;) res[t] = tasks.get(t).call();
+            } finally {
+              usage.detach();
+            }
+            return usage;
+          }
+        }));
+      }
+      // resources consumed by the workers are added to the current query
+      for(final Future<Usage> w : workers) Usage.add(finish(ctx, w));
+    } finally {
+      // skip remaining tasks and interrupt workers after errors
+      next.set(ts);
+      for(final Future<Usage> w : workers) w.cancel(true);
+    }
+
+    // concatenate results in the order of the partitions
+    int size = 0;
+    for(final int[] r : res) size += r.length;
+    final int[] pres = new int[size];
+    boolean sorted = true;
+    int s = 0;
+    for(final int[] r : res) {
+      if(r.length == 0) continue;
+      if(s != 0 && pres[s - 1] >= r[0]) sorted = false;
+      System.arraycopy(r, 0, pres, s, r.length);
+      s += r.length;
+    }
+    return sorted ? pres : PreBlocks.sort(pres);
+  }
+
+  /**
+   * Waits for the result of a task.
+   * @param ctx query context
+   * @param result result
+   * @param <T> result type
+   * @return result
+   */
+  private static <T> T finish(final QueryContext ctx, final Future<T> result) {
+    try {
+      return result.get();
+    } catch(final InterruptedException ex) {
+      ctx.stop();
+      throw new ProgressException();
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw Util.notexpected(th);
+    }
+  }
+}
@@ -0,0 +1,383 @@
+package org.basex.query.path;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.name.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.path.Test.Mode;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.list.*;
+
+/**
+ * Block-wise evaluation of location steps on database nodes.
+ * Steps without predicates and with simple node tests exchange blocks of pre
+ * values, and the node tests are performed on the raw table entries.
+ * No intermediate node instances are created.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+final class PreBlocks {
+  /** Maximum number of pre values in a block. */
+  static final int SIZE = 1 << 10;
+
+  /** Data reference. */
+  private final Data data;
+  /** Evaluation stages (one per step). */
+  private final Stage[] stages;
+  /** Context nodes (sorted pre values). */
+  private final int[] context;
+
+  /**
+   * Constructor.
+   * @param d data reference
+   * @param c context nodes (sorted pre values)
+   * @param steps location steps
+   */
+  PreBlocks(final Data d, final int[] c, final Expr[] steps) {
+    data = d;
+    context = c;
+    final int sl = steps.length;
+    stages = new Stage[sl];
+    for(int s = 0; s < sl; s++) stages[s] = new Stage((Step) steps[s], s);
+  }
+
+  /**
+   * Checks if the specified steps can be evaluated block-wise.
+   * @param steps steps
+   * @return result of check
+   */
+  static boolean supported(final Expr[] steps) {
+    for(final Expr s : steps) {
+      if(!(s instanceof Step) || !supported((Step) s)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the specified step can be evaluated block-wise.
+   * @param step step
+   * @return result of check
+   */
+  static boolean supported(final Step step) {
+    final Axis a = step.axis;
+    return simple(step) && (a == Axis.CHILD || a == Axis.DESC || a == Axis.DESCORSELF ||
+        a == Axis.ATTR || a == Axis.SELF);
+  }
+
+  /**
+   * Checks if the specified step has no predicates, and if its node test can be
+   * performed on the raw table entries.
+   * @param step step
+   * @return result of check
+   */
+  static boolean simple(final Step step) {
+    final Test t = step.test;
+    return step.preds.length == 0 && (t instanceof NameTest ?
+      t.mode == Mode.ALL || t.mode == Mode.NAME :
+      (t == Test.NOD || t.getClass() == KindTest.class) && t.type != NodeType.NSP);
+  }
+
+  /**
+   * Returns the node kind of a simple node test.
+   * @param test node test
+   * @return node kind ({@code -1}: all kinds)
+   */
+  static int kind(final Test test) {
+    return test == Test.NOD ? -1 : ANode.kind(test.type);
+  }
+
+  /**
+   * Returns the name ids that are accepted by a simple node test.
+   * @param data data reference
+   * @param test node test
+   * @return flags, indexed by name ids, or {@code null} if all names are accepted
+   */
+  static boolean[] names(final Data data, final Test test) {
+    if(test.mode != Mode.NAME) return null;
+    final Names nm = test.type == NodeType.ATT ? data.atnindex : data.tagindex;
+    final byte[] ln = ((NameTest) test).ln;
+    final int ns = nm.size();
+    final boolean[] names = new boolean[ns + 1];
+    for(int n = 1; n <= ns; n++) names[n] = eq(local(nm.key(n)), ln);
+    return names;
+  }
+
+  /**
+   * Checks if the steps will return sorted and duplicate-free results if they
+   * are applied to the specified context nodes.
+   * @param steps steps
+   * @param flat indicates if no context node is a descendant of another one
+   * @return result of check
+   */
+  static boolean ordered(final Expr[] steps, final boolean flat) {
+    boolean f = flat;
+    for(final Expr s : steps) {
+      // children of nested nodes are not sorted
+      if(((Step) s).axis == Axis.CHILD && !f) return false;
+      f = flat(s, f);
+    }
+    return true;
+  }
+
+  /**
+   * Checks if no result of the specified step will be a descendant of another one.
+   * @param step step
+   * @param flat indicates if no context node is a descendant of another one
+   * @return result of check
+   */
+  static boolean flat(final Expr step, final boolean flat) {
+    switch(((Step) step).axis) {
+      case ATTR: return true;
+      case CHILD: case SELF: return flat;
+      default: return false;
+    }
+  }
+
+  /**
+   * Returns the database context nodes of the specified value.
+   * @param v value
+   * @return pre values, or {@code null} if the value is empty, or if it does not
+   * contain database nodes of a single database in document order
+   */
+  static int[] context(final Value v) {
+    if(v instanceof DBNode) return new int[] { ((DBNode) v).pre };
+    final int[] pres;
+    if(v instanceof DBNodeSeq) {
+      pres = ((DBNodeSeq) v).pres;
+    } else {
+      final long s = v.size();
+      if(s < 2 || s > Integer.MAX_VALUE || !(v.type instanceof NodeType)) return null;
+      final Data data = v.itemAt(0) instanceof DBNode ? v.itemAt(0).data() : null;
+      if(data == null) return null;
+      pres = new int[(int) s];
+      for(int i = 0; i < s; i++) {
+        final Item it = v.itemAt(i);
+        if(!(it instanceof DBNode) || it.data() != data) return null;
+        pres[i] = ((DBNode) it).pre;
+      }
+    }
+    // check if nodes are sorted and duplicate-free
+    final int ps = pres.length;
+    for(int p = 1; p < ps; p++) if(pres[p - 1] >= pres[p]) return null;
+    return pres;
+  }
+
+  /**
+   * Checks if no node of the specified value is a descendant of another one.
+   * @param v value
+   * @return result of check
+   */
+  static boolean flat(final Value v) {
+    return v.size() == 1 || v.type == NodeType.DOC;
+  }
+
+  /**
+   * Adds the next block of results to the specified list.
+   * @param list list
+   * @return number of added pre values ({@code 0} if all results have been returned)
+   */
+  int next(final IntList list) {
+    final Stage st = stages[stages.length - 1];
+    if(!st.fill()) return 0;
+    for(int i = 0; i < st.size; i++) list.add(st.out[i]);
+    return st.size;
+  }
+
+  /**
+   * Returns all results.
+   * @param ctx query context
+   * @param sort sort results and remove duplicates
+   * @return pre values
+   */
+  int[] pres(final QueryContext ctx, final boolean sort) {
+    final IntList list = new IntList();
+    while(next(list) != 0) ctx.checkStop();
+    final int[] pres = list.toArray();
+    return sort ? sort(pres) : pres;
+  }
+
+  /**
+   * Sorts the specified pre values and removes duplicates.
+   * @param pres pre values (will be modified)
+   * @return sorted pre values
+   */
+  static int[] sort(final int[] pres) {
+    final int ps = pres.length;
+    if(ps < 2) return pres;
+    Arrays.sort(pres);
+    int s = 1;
+    for(int p = 1; p < ps; p++) {
+      if(pres[p] != pres[s - 1]) pres[s++] = pres[p];
+    }
+    return s == ps ? pres : Arrays.copyOf(pres, s);
+  }
+
+  /**
+   * Returns all results as sequence.
+   * @param ctx query context
+   * @param sort sort results and remove duplicates
+   * @return value
+   */
+  Value value(final QueryContext ctx, final boolean sort) {
+    return DBNodeSeq.get(pres(ctx, sort), data, NodeType.NOD, false);
+  }
+
+  /** Single evaluation stage. */
+  private final class Stage {
+    /** Output block. */
+    final int[] out = new int[SIZE];
+    /** Number of pre values in the output block. */
+    int size;
+
+    /** Axis. */
+    private final Axis axis;
+    /** Node kind ({@code -1}: all kinds). */
+    private final int kind;
+    /** Accepted name ids ({@code null}: all names). */
+    private final boolean[] names;
+    /** Offset of the stage. */
+    private final int offset;
+
+    /** Input block. */
+    private int[] in;
+    /** Number of pre values in the input block. */
+    private int ins;
+    /** Current offset in the input block. */
+    private int inp;
+    /** Next pre value to be checked. */
+    private int pre;
+    /** End of the range of the current context node. */
+    private int end;
+    /** Start of the last descendant range. */
+    private int dstart = -1;
+    /** End of the last descendant range. */
+    private int dend;
+    /** End of the attributes of the last visited node. */
+    private int aend;
+
+    /**
+     * Constructor.
+     * @param step step
+     * @param o offset of the stage
+     */
+    Stage(final Step step, final int o) {
+      axis = step.axis;
+      offset = o;
+      kind = kind(step.test);
+      names = names(data, step.test);
+    }
+
+    /**
+     * Fills the output block.
+     * @return {@code false} if all results have been returned
+     */
+    boolean fill() {
+      final Data d = data;
+      size = 0;
+      while(size < SIZE) {
+        if(pre >= end) {
+          // current context node is exhausted: choose next one
+          if(inp == ins && !input()) break;
+          start(in[inp++]);
+          continue;
+        }
+        final int p = pre, k = d.kind(p);
+        switch(axis) {
+          case CHILD: pre += d.size(p, k); break;
+          case DESC: pre += d.attSize(p, k); break;
+          case DESCORSELF:
+            // attributes are no descendants, but context nodes are returned
+            if(k != Data.ATTR) aend = p + d.attSize(p, k);
+            pre = attribute(p + 1);
+            break;
+          default: pre++; break;
+        }
+        if((kind == -1 || k == kind) && (names == null || names[d.name(p)])) {
+          out[size++] = p;
+        }
+      }
+      return size != 0;
+    }
+
+    /**
+     * Requests the next input block.
+     * @return {@code false} if no more context nodes exist
+     */
+    private boolean input() {
+      if(offset == 0) {
+        if(in != null) return false;
+        in = context;
+        ins = context.length;
+      } else {
+        final Stage prev = stages[offset - 1];
+        if(!prev.fill()) return false;
+        in = prev.out;
+        ins = prev.size;
+      }
+      inp = 0;
+      return ins != 0;
+    }
+
+    /**
+     * Returns the next attribute of the last visited node that is a context node,
+     * or the end of its attributes. All skipped context nodes are descendants of
+     * the current context node, or attributes of its descendants.
+     * @param p minimum pre value of the attribute
+     * @return pre value of the next node to be checked
+     */
+    private int attribute(final int p) {
+      for(; inp < ins || input(); inp++) {
+        final int c = in[inp];
+        if(c >= aend) break;
+        if(c >= p) {
+          inp++;
+          return c;
+        }
+      }
+      return aend;
+    }
+
+    /**
+     * Initializes the range of the specified context node.
+     * @param c pre value of the context node
+     */
+    private void start(final int c) {
+      final Data d = data;
+      final int k = d.kind(c);
+      switch(axis) {
+        case SELF:
+          pre = c;
+          end = c + 1;
+          break;
+        case ATTR:
+          pre = c + 1;
+          end = c + d.attSize(c, k);
+          break;
+        case CHILD:
+          pre = c + d.attSize(c, k);
+          end = c + d.size(c, k);
+          break;
+        default:
+          // skip nodes whose descendants have already been returned
+          if(c >= dstart && c < dend) {
+            pre = end = 0;
+          } else {
+            pre = axis == Axis.DESC ? c + d.attSize(c, k) : c;
+            end = c + d.size(c, k);
+            aend = c + 1;
+            dstart = c;
+            dend = end;
+          }
+      }
+    }
+  }
+}
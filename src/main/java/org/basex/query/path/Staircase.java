@@ -0,0 +1,178 @@
+package org.basex.query.path;
+
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.util.list.*;
+
+/**
+ * Structural join, which evaluates a single location step for a sorted sequence
+ * of database context nodes in one pass (staircase join). Context nodes whose
+ * results are covered by previous context nodes are pruned, and the results are
+ * returned in document order and without duplicates.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+final class Staircase {
+  /** Data reference. */
+  private final Data data;
+  /** Axis. */
+  private final Axis axis;
+  /** Node kind ({@code -1}: all kinds). */
+  private final int kind;
+  /** Accepted name ids ({@code null}: all names). */
+  private final boolean[] names;
+  /** Results. */
+  private final IntList out = new IntList();
+
+  /**
+   * Constructor.
+   * @param d data reference
+   * @param step step
+   */
+  Staircase(final Data d, final Step step) {
+    data = d;
+    axis = step.axis;
+    kind = PreBlocks.kind(step.test);
+    names = PreBlocks.names(d, step.test);
+  }
+
+  /**
+   * Checks if the specified step can be evaluated as structural join.
+   * @param step step
+   * @return result of check
+   */
+  static boolean supported(final Step step) {
+    final Axis a = step.axis;
+    return PreBlocks.simple(step) && (a == Axis.ANC || a == Axis.ANCORSELF ||
+        a == Axis.DESC || a == Axis.DESCORSELF || a == Axis.FOLL);
+  }
+
+  /**
+   * Evaluates the step.
+   * @param ctx query context
+   * @param in sorted and duplicate-free pre values of the context nodes
+   * @return sorted and duplicate-free pre values of the results
+   */
+  int[] eval(final QueryContext ctx, final int[] in) {
+    switch(axis) {
+      case ANC:        ancestors(ctx, in, false); break;
+      case ANCORSELF:  ancestors(ctx, in, true); break;
+      case DESC:       descendants(ctx, in, false); break;
+      case DESCORSELF: descendants(ctx, in, true); break;
+      default:         following(ctx, in); break;
+    }
+    return out.toArray();
+  }
+
+  /**
+   * Adds the ancestors of all context nodes.
+   * All nodes on the path from a context node to the root that have been
+   * visited before are skipped. As the context nodes are sorted, the remaining
+   * ancestors will always follow the previous results.
+   * @param ctx query context
+   * @param in context nodes
+   * @param self include context nodes
+   */
+  private void ancestors(final QueryContext ctx, final int[] in, final boolean self) {
+    // visited nodes on the path to the current context node, and their end positions
+    final IntList pres = new IntList(), ends = new IntList();
+    final IntList path = new IntList();
+    for(final int c : in) {
+      ctx.checkStop();
+      while(!ends.isEmpty() && ends.peek() <= c) {
+        ends.pop();
+        pres.pop();
+      }
+      final int top = pres.isEmpty() ? -1 : pres.peek();
+
+      // collect unvisited ancestors
+      path.reset();
+      if(self) path.add(c);
+      for(int p = data.parent(c, data.kind(c)); p != -1 && p != top;
+          p = data.parent(p, data.kind(p))) path.add(p);
+
+      // add nodes in document order
+      for(int p = path.size() - 1; p >= 0; p--) {
+        final int pre = path.get(p), k = data.kind(pre);
+        pres.push(pre);
+        ends.push(pre + data.size(pre, k));
+        add(pre, k);
+      }
+    }
+  }
+
+  /**
+   * Adds the descendants of all context nodes.
+   * Context nodes that are descendants of previous context nodes are skipped.
+   * Attributes are no descendants, so attributes that are context nodes are
+   * added when the attributes of their parents are passed.
+   * @param ctx query context
+   * @param in context nodes
+   * @param self include context nodes
+   */
+  private void descendants(final QueryContext ctx, final int[] in, final boolean self) {
+    final int is = in.length;
+    for(int i = 0; i < is;) {
+      ctx.checkStop();
+      final int c = in[i++], ck = data.kind(c);
+      final int end = c + data.size(c, ck);
+      for(int p = self ? c : c + data.attSize(c, ck); p < end;) {
+        final int k = data.kind(p), n = p + data.attSize(p, k);
+        add(p, k);
+        // skip context nodes up to the current node, add attributes of the current node
+        for(; i < is && in[i] < n; i++) if(self && in[i] > p) add(in[i], Data.ATTR);
+        p = n;
+      }
+      // skip nodes whose descendants have already been returned
+      while(i < is && in[i] < end) i++;
+    }
+  }
+
+  /**
+   * Adds the following nodes of all context nodes. For each document, only the
+   * context node with the smallest end position needs to be evaluated.
+   * @param ctx query context
+   * @param in context nodes
+   */
+  private void following(final QueryContext ctx, final int[] in) {
+    final int is = in.length;
+    for(int i = 0; i < is;) {
+      ctx.checkStop();
+      final int c = in[i++];
+      // find end of the current document
+      int root = c;
+      for(int p; (p = data.parent(root, data.kind(root))) != -1;) root = p;
+      final int end = root + data.size(root, data.kind(root));
+
+      // descendants of the first context node may have a smaller end position
+      int start = c + data.size(c, data.kind(c));
+      for(; i < is && in[i] < start; i++) {
+        start = Math.min(start, in[i] + data.size(in[i], data.kind(in[i])));
+      }
+      // skip remaining context nodes of the same document
+      while(i < is && in[i] < end) i++;
+
+      for(int p = start; p < end;) {
+        final int k = data.kind(p);
+        if(k == Data.ATTR) {
+          p++;
+        } else {
+          add(p, k);
+          p += data.attSize(p, k);
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds a node if it matches the node test.
+   * @param pre pre value
+   * @param k node kind
+   */
+  private void add(final int pre, final int k) {
+    if((kind == -1 || k == kind) && (names == null || names[data.name(pre)])) {
+      out.add(pre);
+    }
+  }
+}
@@ -1,9 +1,14 @@
 package org.basex.query.util;
 
+import static org.basex.util.Token.*;
+
 import org.basex.data.*;
+import org.basex.index.name.*;
+import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.path.*;
+import org.basex.query.path.Test.Mode;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -95,6 +100,102 @@ public final class IndexContext {
     costs = c;
   }
 
+  /**
+   * Returns the statistics of the element or attribute whose values will be
+   * accessed by the specified operand of a comparison.
+   * @param ex operand (context item or location path)
+   * @param text text or attribute index
+   * @return statistics, or {@code null} if they are not available
+   */
+  public Stats stats(final Expr ex, final boolean text) {
+    // statistics are not up-to-date
+    if(!data.meta.uptodate || data.nspaces.size() != 0) return null;
+
+    final Step s;
+    if(ex instanceof AxisPath) {
+      final AxisPath path = (AxisPath) ex;
+      final int st = path.steps.length;
+      s = text ? st == 1 ? step : path.step(st - 2) : path.step(st - 1);
+    } else {
+      // the element of a context text node is unknown
+      if(text) return null;
+      s = step;
+    }
+    if(s.test.mode != Mode.NAME) return null;
+
+    final Names names = text ? data.tagindex : data.atnindex;
+    return names.stat(names.id(((NameTest) s.test).ln));
+  }
+
+  /**
+   * Estimates the number of index hits for the specified number of values,
+   * which are not known at compile time.
+   * @param st statistics (may be {@code null})
+   * @param values number of values ({@code -1} if unknown)
+   * @return estimated costs
+   */
+  public int equality(final Stats st, final long values) {
+    final long vs = Math.max(1, values);
+    // no statistics available: assume that a value occurs in every tenth node
+    final long size = data.meta.size;
+    if(st == null) return (int) Math.max(1, Math.min(size, size / 10 * vs));
+
+    // number of distinct values
+    final long dist;
+    if(st.cats != null && st.cats.size() != 0) {
+      dist = st.cats.size();
+    } else if(st.type == StatsType.INTEGER) {
+      dist = (long) (st.max - st.min) + 1;
+    } else {
+      // more values than categories
+      dist = data.meta.maxcats + 1;
+    }
+    final long hits = (st.count + dist - 1) / Math.max(1, dist);
+    return (int) Math.max(1, Math.min(st.count, hits * vs));
+  }
+
+  /**
+   * Estimates the number of index hits for a numeric range, assuming that the
+   * values are evenly distributed.
+   * @param st statistics
+   * @param min minimum value
+   * @param max maximum value
+   * @return estimated costs ({@code 0} if no values are in range)
+   */
+  public static int range(final Stats st, final double min, final double max) {
+    final double mn = Math.max(min, st.min), mx = Math.min(max, st.max);
+    if(mn > mx) return 0;
+    final double i = st.type == StatsType.INTEGER ? 1 : 0, span = st.max - st.min + i;
+    return span <= 0 ? Math.max(1, st.count) :
+      (int) Math.max(1, Math.min(st.count, Math.ceil(st.count * (mx - mn + i) / span)));
+  }
+
+  /**
+   * Estimates the number of index hits for a string range. If the values of
+   * the statistics are known, the hits are counted. Otherwise, it is assumed
+   * that a third of all values are in range.
+   * @param st statistics
+   * @param min minimum value
+   * @param mni include minimum value
+   * @param max maximum value
+   * @param mxi include maximum value
+   * @return estimated costs ({@code 0} if no values are in range)
+   */
+  public static int range(final Stats st, final byte[] min, final boolean mni,
+      final byte[] max, final boolean mxi) {
+    final TokenIntMap cats = st.cats;
+    if(cats == null || cats.size() == 0 || st.type != StatsType.CATEGORY)
+      return Math.max(1, st.count / 3);
+
+    int c = 0;
+    for(final byte[] k : cats) {
+      final int d1 = diff(k, min), d2 = diff(k, max);
+      if((mni ? d1 >= 0 : d1 > 0) && (mxi ? d2 <= 0 : d2 < 0)) c += cats.value(k);
+    }
+    // whitespace-only values are not counted by the statistics
+    return Math.max(1, c);
+  }
+
   /**
    * Creates a copy.
    * @param cx query context
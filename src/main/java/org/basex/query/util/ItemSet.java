@@ -5,27 +5,48 @@ import java.util.*;
 import org.basex.query.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Set for quickly indexing items.
  *
+ * As long as all items are integers, doubles or strings, their primitive values
+ * are indexed in specialized hash sets, and no polymorphic item comparisons are
+ * performed. As soon as an item of another kind is added, the set switches to
+ * general item comparisons. The offsets of the added keys remain the same.
+ *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
  */
 public class ItemSet implements Iterable<Item> {
   /** Initial hash capacity. */
   protected static final int CAP = 1 << 3;
-  /** Hash values. */
-  private int[] hash = new int[CAP];
-  /** Pointers to the next token. */
-  private int[] next = new int[CAP];
-  /** Hash table buckets. */
-  private int[] bucket = new int[CAP];
   /** Hashed items. */
   Item[] keys = new Item[CAP];
   /** Hash entries. Actual hash size is {@code size - 1}. */
   int size = 1;
 
+  /** Kind of the indexed items ({@code null}: no items have been added yet). */
+  private Kind kind;
+  /** Integers, or bit patterns of doubles (if the items are integers or doubles). */
+  private LongSet longs;
+  /** Strings (if the items are strings). */
+  private TokenSet tokens;
+  /** Hash values (if general item comparisons are performed). */
+  private int[] hash;
+  /** Pointers to the next token (if general item comparisons are performed). */
+  private int[] next;
+  /** Hash table buckets (if general item comparisons are performed). */
+  private int[] bucket;
+
+  /** Kinds of indexed items. */
+  private enum Kind {
+    /** Integers. */   INTEGER,
+    /** Doubles. */    DOUBLE,
+    /** Strings. */    STRING,
+    /** All items. */  ITEM
+  }
+
   /**
    * Indexes the specified key and returns the offset of the added key.
    * If the key already exists, a negative offset is returned.
@@ -35,17 +56,27 @@ public class ItemSet implements Iterable<Item> {
    * @throws QueryException query exception
    */
   public int add(final Item key, final InputInfo ii) throws QueryException {
-    if(size == next.length) rehash();
+    if(size == keys.length) rehash();
+    kind(key, ii);
 
-    final int h = key.hash(ii);
-    final int p = h & bucket.length - 1;
-    for(int id = bucket[p]; id != 0; id = next[id]) {
-      if(keys[id].equiv(ii, key)) return -id;
+    final int id;
+    switch(kind) {
+      case INTEGER: id = longs.add(key.itr(ii)); break;
+      case DOUBLE:  id = longs.add(bits(key.dbl(ii))); break;
+      case STRING:  id = tokens.add(key.string(ii)); break;
+      default:
+        final int h = key.hash(ii);
+        final int p = h & bucket.length - 1;
+        for(int i = bucket[p]; i != 0; i = next[i]) {
+          if(keys[i].equiv(ii, key)) return -i;
+        }
+        next[size] = bucket[p];
+        hash[size] = h;
+        bucket[p] = size;
+        id = size;
     }
-    next[size] = bucket[p];
-    hash[size] = h;
+    if(id < 0) return id;
     keys[size] = key;
-    bucket[p] = size;
     return size++;
   }
 
@@ -57,12 +88,84 @@ public class ItemSet implements Iterable<Item> {
    * @throws QueryException query exception
    */
   public final int id(final Item key, final InputInfo ii) throws QueryException {
-    final int h = key.hash(ii);
-    final int p = h & bucket.length - 1;
-    for(int id = bucket[p]; id != 0; id = next[id]) {
-      if(keys[id].equiv(ii, key)) return id;
+    if(kind == null) return 0;
+    if(kind != Kind.ITEM && kind(key) != kind) items(ii);
+
+    switch(kind) {
+      case INTEGER: return longs.id(key.itr(ii));
+      case DOUBLE:  return longs.id(bits(key.dbl(ii)));
+      case STRING:  return tokens.id(key.string(ii));
+      default:
+        final int h = key.hash(ii);
+        final int p = h & bucket.length - 1;
+        for(int id = bucket[p]; id != 0; id = next[id]) {
+          if(keys[id].equiv(ii, key)) return id;
+        }
+        return 0;
+    }
+  }
+
+  /**
+   * Chooses the kind of the indexed items, or switches to general item
+   * comparisons if the specified key is of a different kind.
+   * @param key key to be added
+   * @param ii input info
+   * @throws QueryException query exception
+   */
+  private void kind(final Item key, final InputInfo ii) throws QueryException {
+    if(kind == Kind.ITEM) return;
+    final Kind k = kind(key);
+    if(kind == null) {
+      kind = k;
+      if(k == Kind.STRING) tokens = new TokenSet();
+      else if(k != Kind.ITEM) longs = new LongSet();
+      else items(ii);
+    } else if(k != kind) {
+      items(ii);
     }
-    return 0;
+  }
+
+  /**
+   * Switches to general item comparisons and indexes all existing items.
+   * As the existing items are distinct, they need not be compared again.
+   * @param ii input info
+   * @throws QueryException query exception
+   */
+  private void items(final InputInfo ii) throws QueryException {
+    final int c = keys.length;
+    hash = new int[c];
+    next = new int[c];
+    bucket = new int[c];
+    for(int id = 1; id < size; id++) {
+      final int h = keys[id].hash(ii);
+      final int p = h & c - 1;
+      next[id] = bucket[p];
+      hash[id] = h;
+      bucket[p] = id;
+    }
+    kind = Kind.ITEM;
+    longs = null;
+    tokens = null;
+  }
+
+  /**
+   * Returns the kind of an item.
+   * @param key item
+   * @return kind
+   */
+  private static Kind kind(final Item key) {
+    return key instanceof Int ? Kind.INTEGER : key instanceof Dbl ? Kind.DOUBLE :
+      key.type.isStringOrUntyped() ? Kind.STRING : Kind.ITEM;
+  }
+
+  /**
+   * Returns the bit pattern of a double. Positive and negative zero are
+   * considered equal, as are all NaN values.
+   * @param d double
+   * @return bit pattern
+   */
+  private static long bits(final double d) {
+    return Double.doubleToLongBits(d == 0 ? 0 : d);
   }
 
   /**
@@ -70,20 +173,22 @@ public class ItemSet implements Iterable<Item> {
    */
   protected void rehash() {
     final int s = size << 1;
-    final int[] tmp = new int[s];
-    for(final int b : bucket) {
-      int id = b;
-      while(id != 0) {
-        final int p = hash[id] & s - 1;
-        final int nx = next[id];
-        next[id] = tmp[p];
-        tmp[p] = id;
-        id = nx;
+    if(kind == Kind.ITEM) {
+      final int[] tmp = new int[s];
+      for(final int b : bucket) {
+        int id = b;
+        while(id != 0) {
+          final int p = hash[id] & s - 1;
+          final int nx = next[id];
+          next[id] = tmp[p];
+          tmp[p] = id;
+          id = nx;
+        }
       }
+      bucket = tmp;
+      next = Arrays.copyOf(next, s);
+      hash = Arrays.copyOf(hash, s);
     }
-    bucket = tmp;
-    next = Arrays.copyOf(next, s);
-    hash = Arrays.copyOf(hash, s);
     final Item[] i = new Item[s];
     System.arraycopy(keys, 0, i, 0, size);
     keys = i;
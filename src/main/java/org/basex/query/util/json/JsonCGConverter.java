@@ -132,6 +132,34 @@ public final class JsonCGConverter extends JsonXMLConverter {
     return tb;
   }
 
+  /**
+   * Creates a valid XML NCName from the given token.
+   * @param tok token
+   * @return valid NCName
+   */
+  public static byte[] name(final byte[] tok) {
+    if(tok.length == 0) return UNDERSCORE;
+    for(int i = 0, cp; i < tok.length; i += cl(tok, i)) {
+      cp = cp(tok, i);
+      if(cp == '_' || !(i == 0 ? XMLToken.isNCStartChar(cp) : XMLToken.isNCChar(cp))) {
+        final TokenBuilder tb = new TokenBuilder(tok.length << 1).add(tok, 0, i);
+        for(int j = i; j < tok.length; j += cl(tok, j)) {
+          cp = cp(tok, j);
+          if(cp == '_') tb.addByte(UNDERSCORE[0]).addByte(UNDERSCORE[0]);
+          else if(j == 0 ? XMLToken.isNCStartChar(cp) :
+            XMLToken.isNCChar(cp)) tb.add(cp);
+          else if(cp < 0x10000) addEsc(tb, cp);
+          else {
+            final int r = cp - 0x10000;
+            addEsc(addEsc(tb, (r >>> 10) + 0xD800), (r & 0x3FF) + 0xDC00);
+          }
+        }
+        return tb.finish();
+      }
+    }
+    return tok;
+  }
+
   /** JSON handler containing the state of the conversion. */
   private static class JsonCGHandler implements JsonHandler {
     /** Map from element name to a pair of all its nodes and the collective node type. */
@@ -178,34 +206,6 @@ public final class JsonCGConverter extends JsonXMLConverter {
       return e;
     }
 
-    /**
-     * Creates a valid XML NCName from the given token.
-     * @param tok token
-     * @return valid NCName
-     */
-    private static byte[] name(final byte[] tok) {
-      if(tok.length == 0) return UNDERSCORE;
-      for(int i = 0, cp; i < tok.length; i += cl(tok, i)) {
-        cp = cp(tok, i);
-        if(cp == '_' || !(i == 0 ? XMLToken.isNCStartChar(cp) : XMLToken.isNCChar(cp))) {
-          final TokenBuilder tb = new TokenBuilder(tok.length << 1).add(tok, 0, i);
-          for(int j = i; j < tok.length; j += cl(tok, j)) {
-            cp = cp(tok, j);
-            if(cp == '_') tb.addByte(UNDERSCORE[0]).addByte(UNDERSCORE[0]);
-            else if(j == 0 ? XMLToken.isNCStartChar(cp) :
-              XMLToken.isNCChar(cp)) tb.add(cp);
-            else if(cp < 0x10000) addEsc(tb, cp);
-            else {
-              final int r = cp - 0x10000;
-              addEsc(addEsc(tb, (r >>> 10) + 0xD800), (r & 0x3FF) + 0xDC00);
-            }
-          }
-          return tb.finish();
-        }
-      }
-      return tok;
-    }
-
     @Override
     public void openObject() throws QueryException {
       elem = addElem(T_OBJECT);
@@ -1,5 +1,7 @@
 package org.basex.query.util.json;
 
+import java.io.*;
+
 import org.basex.query.QueryException;
 
 /**
@@ -12,88 +14,104 @@ public interface JsonHandler {
   /**
    * Called when a JSON object is opened.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void openObject() throws QueryException;
+  void openObject() throws QueryException, IOException;
   /**
    * Called when an entry of a JSON object is opened.
    * @param key the key of the entry
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void openEntry(byte[] key) throws QueryException;
+  void openEntry(byte[] key) throws QueryException, IOException;
   /**
    * Called when an entry of a JSON object is closed.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void closeEntry() throws QueryException;
+  void closeEntry() throws QueryException, IOException;
   /**
    * Called when a JSON object is closed.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void closeObject() throws QueryException;
+  void closeObject() throws QueryException, IOException;
 
   /**
    * Called when a JSON array is opened.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void openArray() throws QueryException;
+  void openArray() throws QueryException, IOException;
   /**
    * Called when an entry of a JSON array is opened.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void openArrayEntry() throws QueryException;
+  void openArrayEntry() throws QueryException, IOException;
   /**
    * Called when an entry of a JSON array is closed.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void closeArrayEntry() throws QueryException;
+  void closeArrayEntry() throws QueryException, IOException;
   /**
    * Called when a JSON array is closed.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void closeArray() throws QueryException;
+  void closeArray() throws QueryException, IOException;
 
   /**
    * Called when a constructor function is opened.
    * @param name name of the constructor
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void openConstr(byte[] name) throws QueryException;
+  void openConstr(byte[] name) throws QueryException, IOException;
   /**
    * Called when an argument of a constructor function is opened.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void openArg() throws QueryException;
+  void openArg() throws QueryException, IOException;
   /**
    * Called when an argument of a constructor function is closed.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void closeArg() throws QueryException;
+  void closeArg() throws QueryException, IOException;
   /** Called when a constructor function is closed.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void closeConstr() throws QueryException;
+  void closeConstr() throws QueryException, IOException;
 
   /**
    * Called when a number literal is encountered.
    * @param value string representation of the number literal
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void numberLit(byte[] value) throws QueryException;
+  void numberLit(byte[] value) throws QueryException, IOException;
   /**
    * Called when a string literal is encountered.
    * @param bs the string
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void stringLit(byte[] bs) throws QueryException;
+  void stringLit(byte[] bs) throws QueryException, IOException;
   /**
    * Called when a {@code null} literal is encountered.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void nullLit() throws QueryException;
+  void nullLit() throws QueryException, IOException;
   /**
    * Called when a boolean literal is encountered.
    * @param b the boolean
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  void booleanLit(boolean b) throws QueryException;
+  void booleanLit(boolean b) throws QueryException, IOException;
 }
@@ -1,18 +1,26 @@
 package org.basex.query.util.json;
 
+import java.io.*;
+
+import org.basex.io.*;
+import org.basex.io.in.*;
 import org.basex.query.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
+import static org.basex.core.Text.*;
 import static org.basex.query.util.Err.*;
 import static org.basex.util.Token.*;
 
 /**
  * A JSON parser generating parse events similar to a SAX XML parser.
+ * The input is read character by character from a {@link TextInput} instance,
+ * so documents of arbitrary size can be parsed with constant memory.
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Leo Woerteler
  */
-public final class JsonParser extends InputParser {
+public final class JsonParser {
   /** JSON specs. */
   public static enum Spec {
     /** Parse the input according to RFC 4627.           */ RFC4627("RFC4627"),
@@ -42,6 +50,8 @@ public final class JsonParser extends InputParser {
 
   /** Input info for errors. */
   private final InputInfo info;
+  /** Input. */
+  private final TextInput input;
 
   /** JSON spec. */
   private final Spec spec;
@@ -50,18 +60,34 @@ public final class JsonParser extends InputParser {
   /** Token builder for string literals. */
   private final TokenBuilder tb = new TokenBuilder();
 
+  /** Current character ({@code -1}: end of input). */
+  private int curr;
+  /** Characters following the current character, which have already been read. */
+  private final IntList next = new IntList();
+  /** Position of the next cached character. */
+  private int np;
+  /** Last consumed character ({@code -1}: none). */
+  private int last = -1;
+  /** Line of the last consumed character. */
+  private int line = 1;
+  /** Column of the last consumed character. */
+  private int col = 1;
+
   /**
-   * Constructor taking the input string and the spec according to which it is parsed.
-   * @param in input string
+   * Constructor taking the input and the spec according to which it is parsed.
+   * @param in input
    * @param s JSON spec
    * @param u unescape flag
    * @param ii input info
+   * @throws IOException I/O exception
    */
-  private JsonParser(final String in, final Spec s, final boolean u, final InputInfo ii) {
-    super(in);
+  private JsonParser(final TextInput in, final Spec s, final boolean u,
+      final InputInfo ii) throws IOException {
+    input = in;
     spec = s != null ? s : Spec.RFC4627;
     unescape = u;
     info = ii;
+    curr = in.read();
   }
 
   /**
@@ -75,30 +101,52 @@ public final class JsonParser extends InputParser {
    */
   public static void parse(final String json, final Spec sp, final boolean unesc,
       final JsonHandler h, final InputInfo ii) throws QueryException {
-    new JsonParser(json, sp, unesc, ii).parse(h);
+    try {
+      parse(new TextInput(new IOContent(token(json))), sp, unesc, h, ii);
+    } catch(final IOException ex) {
+      // input is completely kept in main memory
+      throw Util.notexpected(ex);
+    }
+  }
+
+  /**
+   * Parses the specified JSON input and directs the parse events to the given handler.
+   * @param in input
+   * @param sp JSON spec to use
+   * @param unesc unescape flag
+   * @param h JSON handler
+   * @param ii input info
+   * @throws QueryException parse exception
+   * @throws IOException I/O exception
+   */
+  public static void parse(final TextInput in, final Spec sp, final boolean unesc,
+      final JsonHandler h, final InputInfo ii) throws QueryException, IOException {
+    new JsonParser(in, sp, unesc, ii).parse(h);
   }
 
   /**
    * Parses a JSON expression.
    * @param h handler
    * @throws QueryException parse exception
+   * @throws IOException I/O exception
    */
-  private void parse(final JsonHandler h) throws QueryException {
+  private void parse(final JsonHandler h) throws QueryException, IOException {
     skipWs();
-    if(spec == Spec.RFC4627 && !(curr() == '{' || curr() == '['))
+    if(spec == Spec.RFC4627 && !(curr == '{' || curr == '['))
       throw error("Expected '{' or '[', found %", rest());
     value(h);
-    if(more()) throw error("Unexpected trailing content: %", rest());
+    if(curr != -1) throw error("Unexpected trailing content: %", rest());
   }
 
   /**
    * Parses a JSON value.
    * @param h handler
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private void value(final JsonHandler h) throws QueryException {
-    if(ip >= il) throw eof(", expected JSON value.");
-    switch(curr()) {
+  private void value(final JsonHandler h) throws QueryException, IOException {
+    if(curr == -1) throw eof(", expected JSON value.");
+    switch(curr) {
       case '[':
         array(h);
         break;
@@ -129,7 +177,7 @@ public final class JsonParser extends InputParser {
         else if(consume("false")) h.booleanLit(false);
         else if(consume("null")) h.nullLit();
         else if(spec == Spec.LIBERAL && consume("new") &&
-            Character.isWhitespace(curr())) constr(h);
+            Character.isWhitespace(curr)) constr(h);
         else throw error("Unexpected JSON value: '%'.", rest());
         skipWs();
     }
@@ -139,17 +187,18 @@ public final class JsonParser extends InputParser {
    * Parses a JSON object.
    * @param h handler
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private void object(final JsonHandler h) throws QueryException {
+  private void object(final JsonHandler h) throws QueryException, IOException {
     consumeWs('{', true);
     h.openObject();
     if(!consumeWs('}', false)) {
       do {
-        h.openEntry(spec != Spec.LIBERAL || curr() == '"' ? string() : unquoted());
+        h.openEntry(spec != Spec.LIBERAL || curr == '"' ? string() : unquoted());
         consumeWs(':', true);
         value(h);
         h.closeEntry();
-      } while(consumeWs(',', false) && !(spec == Spec.LIBERAL && curr() == '}'));
+      } while(consumeWs(',', false) && !(spec == Spec.LIBERAL && curr == '}'));
       consumeWs('}', true);
     }
     h.closeObject();
@@ -159,8 +208,9 @@ public final class JsonParser extends InputParser {
    * Parses a JSON array.
    * @param h handler
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private void array(final JsonHandler h) throws QueryException {
+  private void array(final JsonHandler h) throws QueryException, IOException {
     consumeWs('[', true);
     h.openArray();
     if(!consumeWs(']', false)) {
@@ -168,7 +218,7 @@ public final class JsonParser extends InputParser {
         h.openArrayEntry();
         value(h);
         h.closeArrayEntry();
-      } while(consumeWs(',', false) && !(spec == Spec.LIBERAL && curr() == ']'));
+      } while(consumeWs(',', false) && !(spec == Spec.LIBERAL && curr == ']'));
       consumeWs(']', true);
     }
     h.closeArray();
@@ -178,15 +228,19 @@ public final class JsonParser extends InputParser {
    * Parses a JSON constructor function.
    * @param h handler
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private void constr(final JsonHandler h) throws QueryException {
+  private void constr(final JsonHandler h) throws QueryException, IOException {
     skipWs();
-    if(!input.substring(ip).matches("^[a-zA-Z0-9_-]+\\(.*"))
-      throw error("Wrong constructor syntax: '%'", rest());
+    int n = 0;
+    for(int c = curr; c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' ||
+        c >= '0' && c <= '9' || c == '_' || c == '-'; c = peek(++n));
+    if(n == 0 || peek(n) != '(') throw error("Wrong constructor syntax: '%'", rest());
 
-    final int p = input.indexOf('(', ip);
-    h.openConstr(token(input.substring(ip, p)));
-    ip = p + 1;
+    tb.reset();
+    while(n-- > 0) tb.add(consume());
+    h.openConstr(tb.finish());
+    consume();
     skipWs();
     if(!consumeWs(')', false)) {
       do {
@@ -203,16 +257,14 @@ public final class JsonParser extends InputParser {
    * Reads an unquoted string literal.
    * @return the string
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private byte[] unquoted() throws QueryException {
-    int cp = more() ? input.codePointAt(ip) : -1;
-    if(cp < 0 || !Character.isJavaIdentifierStart(cp))
+  private byte[] unquoted() throws QueryException, IOException {
+    if(curr < 0 || !Character.isJavaIdentifierStart(curr))
       throw error("Expected unquoted string, found %.", rest());
     tb.reset();
-    do {
-      tb.add(cp);
-      cp = input.codePointAt(ip += cp < 0x10000 ? 1 : 2);
-    } while(Character.isJavaIdentifierPart(cp));
+    do tb.add(consume());
+    while(Character.isJavaIdentifierPart(curr));
     skipWs();
     return tb.finish();
   }
@@ -221,8 +273,9 @@ public final class JsonParser extends InputParser {
    * Parses a number literal.
    * @return string representation
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private byte[] number() throws QueryException {
+  private byte[] number() throws QueryException, IOException {
     tb.reset();
 
     // integral part
@@ -235,7 +288,7 @@ public final class JsonParser extends InputParser {
     }
 
     final boolean zero = c == '0';
-    c = curr();
+    c = curr;
     if(zero && c >= '0' && c <= '9') throw error("No digit allowed after '0'.");
     loop: while(true) {
       switch(c) {
@@ -250,8 +303,8 @@ public final class JsonParser extends InputParser {
         case '8':
         case '9':
           tb.addByte((byte) c);
-          ip++;
-          c = curr();
+          consume();
+          c = curr;
           break;
         case '.':
         case 'e':
@@ -263,14 +316,14 @@ public final class JsonParser extends InputParser {
       }
     }
 
-    if(consume('.')) {
-      tb.addByte((byte) '.');
-      c = curr();
+    if(curr == '.') {
+      tb.addByte((byte) consume());
+      c = curr;
       if(c < '0' || c > '9') throw error("Number expected after '.'.");
       do {
         tb.addByte((byte) c);
-        ip++;
-        c = curr();
+        consume();
+        c = curr;
       } while(c >= '0' && c <= '9');
       if(c != 'e' && c != 'E') {
         skipWs();
@@ -280,15 +333,15 @@ public final class JsonParser extends InputParser {
 
     // 'e' or 'E'
     tb.addByte((byte) consume());
-    c = curr();
+    c = curr;
     if(c == '-' || c == '+') {
       tb.addByte((byte) consume());
-      c = curr();
+      c = curr;
     }
 
     if(c < '0' || c > '9') throw error("Exponent expected.");
     do tb.addByte((byte) consume());
-    while((c = curr()) >= '0' && c <= '9');
+    while((c = curr) >= '0' && c <= '9');
     skipWs();
     return tb.finish();
   }
@@ -297,12 +350,14 @@ public final class JsonParser extends InputParser {
    * Parses a string literal.
    * @return the string
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private byte[] string() throws QueryException {
-    if(!consume('"')) throw error("Expected string, found '%'", curr());
+  private byte[] string() throws QueryException, IOException {
+    if(curr != '"') throw error("Expected string, found '%'", chr(curr));
+    consume();
     tb.reset();
     char hi = 0; // cached high surrogate
-    while(ip < il) {
+    while(curr != -1) {
       int cp = consume();
       if(cp == '"') {
         if(hi != 0) tb.add(hi);
@@ -342,29 +397,29 @@ public final class JsonParser extends InputParser {
             cp = unescape ? '\n' : 'n';
             break;
           case 'u':
-            if(ip + 4 >= il) throw eof(", expected four-digit hex value");
+            if(peek(4) == -1) throw eof(", expected four-digit hex value");
             if(unescape) {
               cp = 0;
               for(int i = 0; i < 4; i++) {
-                final char x = consume();
+                final int x = consume();
                 if(x >= '0' && x <= '9')      cp = 16 * cp + x      - '0';
                 else if(x >= 'a' && x <= 'f') cp = 16 * cp + x + 10 - 'a';
                 else if(x >= 'A' && x <= 'F') cp = 16 * cp + x + 10 - 'A';
-                else throw error("Illegal hexadecimal digit: '%'", x);
+                else throw error("Illegal hexadecimal digit: '%'", (char) x);
               }
             } else {
               tb.addByte((byte) 'u');
               for(int i = 0; i < 4; i++) {
-                final char x = consume();
+                final int x = consume();
                 if(x >= '0' && x <= '9' || x >= 'a' && x <= 'f' || x >= 'A' && x <= 'F') {
                   if(i < 3) tb.addByte((byte) x);
                   else cp = x;
-                } else throw error("Illegal hexadecimal digit: '%'", x);
+                } else throw error("Illegal hexadecimal digit: '%'", (char) x);
               }
             }
             break;
           default:
-            throw error("Unknown character escape: '\\%'", n);
+            throw error("Unknown character escape: '\\%'", (char) n);
         }
       } else if(spec != Spec.LIBERAL && cp <= 0x1F) {
         throw error("Non-escaped control character: '\\%'", CTRL[cp]);
@@ -383,16 +438,19 @@ public final class JsonParser extends InputParser {
     throw eof(" in string literal");
   }
 
-  /** Consumes all whitespace characters from the remaining query. */
-  private void skipWs() {
-    while(ip < il) {
-      switch(input.charAt(ip)) {
+  /**
+   * Consumes all whitespace characters from the remaining input.
+   * @throws IOException I/O exception
+   */
+  private void skipWs() throws IOException {
+    while(true) {
+      switch(curr) {
         case ' ':
         case '\t':
         case '\r':
         case '\n':
         case '\u00A0': // non-breaking space
-          ip++;
+          consume();
           break;
         default:
           return;
@@ -400,6 +458,82 @@ public final class JsonParser extends InputParser {
     }
   }
 
+  /**
+   * Returns the current character and reads the next one.
+   * @return current character, or {@code -1}
+   * @throws IOException I/O exception
+   */
+  private int consume() throws IOException {
+    final int c = curr;
+    if(c == -1) return c;
+    // the position of the previous character is reported in errors
+    if(last == '\n') {
+      line++;
+      col = 1;
+    } else if(last != -1 && last != '\r') {
+      col++;
+    }
+    last = c;
+    if(np < next.size()) {
+      curr = next.get(np++);
+      if(np == next.size()) {
+        next.reset();
+        np = 0;
+      }
+    } else {
+      curr = input.read();
+    }
+    return c;
+  }
+
+  /**
+   * Consumes the specified string if it follows in the input.
+   * @param str string to consume
+   * @return if the string was consumed
+   * @throws IOException I/O exception
+   */
+  private boolean consume(final String str) throws IOException {
+    final int sl = str.length();
+    for(int s = 0; s < sl; s++) {
+      if(peek(s) != str.charAt(s)) return false;
+    }
+    for(int s = 0; s < sl; s++) consume();
+    return true;
+  }
+
+  /**
+   * Returns the character at the specified offset from the current character.
+   * The input is read and cached as far as necessary.
+   * @param o offset
+   * @return character, or {@code -1}
+   * @throws IOException I/O exception
+   */
+  private int peek(final int o) throws IOException {
+    if(o == 0) return curr;
+    while(next.size() - np < o) next.add(input.read());
+    return next.get(np + o - 1);
+  }
+
+  /**
+   * Returns a string representation of the specified character.
+   * @param c character, or {@code -1}
+   * @return string
+   */
+  private static String chr(final int c) {
+    return c == -1 ? "" : new TokenBuilder().add(c).toString();
+  }
+
+  /**
+   * Returns the next characters of the input.
+   * @return string
+   * @throws IOException I/O exception
+   */
+  private String rest() throws IOException {
+    final TokenBuilder t = new TokenBuilder();
+    for(int o = 0, c; o < 15 && (c = peek(o)) != -1; o++) t.add(c);
+    return t + (peek(15) == -1 ? "" : DOTS);
+  }
+
   /**
    * Tries to consume the given character. If successful, following whitespace is skipped.
    * Otherwise if the error flag is set a parse error is thrown.
@@ -407,13 +541,15 @@ public final class JsonParser extends InputParser {
    * @param err error flag
    * @return if the character was consumed
    * @throws QueryException parse error
+   * @throws IOException I/O exception
    */
-  private boolean consumeWs(final char c, final boolean err) throws QueryException {
-    if(consume() != c) {
-      ip--;
-      if(err) throw error("Expected '%', found '%'", c, curr());
+  private boolean consumeWs(final char c, final boolean err)
+      throws QueryException, IOException {
+    if(curr != c) {
+      if(err) throw error("Expected '%', found '%'", c, chr(curr));
       return false;
     }
+    consume();
     skipWs();
     return true;
   }
@@ -437,7 +573,6 @@ public final class JsonParser extends InputParser {
    */
   private QueryException error(final String msg, final Object... ext)
       throws QueryException {
-    final int[] lc = new InputInfo(this).lineCol();
-    throw BXJS_PARSE.thrw(info, lc[0], lc[1], Util.inf(msg, ext));
+    throw BXJS_PARSE.thrw(info, line, col, Util.inf(msg, ext));
   }
 }
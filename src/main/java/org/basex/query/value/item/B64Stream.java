@@ -49,6 +49,17 @@ public final class B64Stream extends B64 {
     }
   }
 
+  @Override
+  public void write(final OutputStream os, final InputInfo ii)
+      throws QueryException, IOException {
+    // local files are directly transferred to file targets
+    if(input instanceof IOFile && os instanceof FileOutputStream) {
+      ((IOFile) input).copyTo(((FileOutputStream) os).getChannel());
+    } else {
+      input(ii).copy(os);
+    }
+  }
+
   @Override
   public Item materialize(final InputInfo ii) throws QueryException {
     return new B64(binary(ii));
@@ -246,6 +246,15 @@ public class DBNode extends ANode {
     return node;
   }
 
+  /**
+   * Checks if this node is fully described by its data reference and pre value,
+   * i.e., if it has no assigned parent and no score.
+   * @return result of check
+   */
+  public final boolean plain() {
+    return par == null && score == null && getClass() == DBNode.class;
+  }
+
   @Override
   public DBNode parent(final ANode p) {
     par = p;
@@ -15,6 +15,8 @@ public final class FTNode extends DBNode {
   private final int tl;
   /** Total number of indexed results. */
   private final int is;
+  /** Flag for BM25 scoring. */
+  private final boolean bm25;
   /** Full-text matches. */
   public FTMatches all;
 
@@ -24,7 +26,7 @@ public final class FTNode extends DBNode {
    * @param s scoring
    */
   public FTNode(final FTMatches a, final double s) {
-    this(a, null, 0, 0, 0, s);
+    this(a, null, 0, 0, 0, s, false);
   }
 
   /**
@@ -33,16 +35,19 @@ public final class FTNode extends DBNode {
    * @param d data reference
    * @param p pre value
    * @param tol token length
-   * @param tis total size indexed results
+   * @param tis total size of indexed results
+   *   (number of texts containing the results if BM25 scoring is used)
    * @param s score value out of the index
+   * @param bm flag for BM25 scoring (requires full-text index statistics)
    */
   public FTNode(final FTMatches a, final Data d, final int p, final int tol,
-      final int tis, final double s) {
+      final int tis, final double s, final boolean bm) {
 
     super(d, p, null, NodeType.TXT);
     all = a;
     tl = tol;
     is = tis;
+    bm25 = bm;
     if(s != -1) score = s;
   }
 
@@ -50,7 +55,10 @@ public final class FTNode extends DBNode {
   public double score() {
     if(score == null) {
       if(all == null) return 0;
-      score = Scoring.textNode(all.size, is, tl, data.textLen(pre, true));
+      final int l = data.textLen(pre, true);
+      final MetaData md = data.meta;
+      score = bm25 ? Scoring.bm25(all.size, is, md.fttexts, l,
+          (double) md.ftlength / md.fttexts) : Scoring.textNode(all.size, is, tl, l);
     }
     return score;
   }
@@ -32,6 +32,8 @@ public final class Log {
   public static final String ERROR = "ERROR";
   /** REQUEST string. */
   public static final String REQUEST = "REQUEST";
+  /** Suffix of slow query log files. */
+  public static final String SLOWSUFFIX = ".slow";
 
   /** Main properties. */
   private final MainProp mprop;
@@ -39,6 +41,12 @@ public final class Log {
   private String start;
   /** Output stream. */
   private FileOutputStream fos;
+  /** Asynchronous writer (can be {@code null}). */
+  private volatile LogWriter writer;
+  /** Closed flag. */
+  private volatile boolean closed;
+  /** Number of entries that have been dropped by stopped writers. */
+  private long dropped;
 
   /**
    * Constructor.
@@ -52,7 +60,7 @@ public final class Log {
    * Writes an error to the log file.
    * @param th throwable
    */
-  public synchronized void writeError(final Throwable th) {
+  public void writeError(final Throwable th) {
     Util.errln(th);
     writeServer(ERROR, Util.bug(th));
   }
@@ -61,7 +69,7 @@ public final class Log {
    * Writes a server entry to the log file.
    * @param str strings to be written
    */
-  public synchronized void writeServer(final Object... str) {
+  public void writeServer(final Object... str) {
     final Object[] tmp = new Object[str.length + 2];
     tmp[0] = SERVER;
     tmp[1] = Text.ADMIN;
@@ -70,62 +78,170 @@ public final class Log {
   }
 
   /**
-   * Writes an entry to the log file.
+   * Writes an entry to the log file. If {@link MainProp#LOGBUFFER} is enabled,
+   * the entry will be written asynchronously.
    * @param str strings to be written
    */
-  public synchronized void write(final Object... str) {
+  public void write(final Object... str) {
     if(!mprop.is(MainProp.LOG)) {
-      close();
+      stop();
       return;
     }
 
-    // initializes the output stream and returns the current date
-    final Date date = new Date();
-    try {
-      // check if day has changed
-      final String nstart = DateTime.format(date, DateTime.DATE);
-      if(fos != null && !start.equals(nstart)) close();
+    final byte[][] entry = entry(str);
+    final LogWriter lw = writer();
+    if(lw == null || !lw.add(entry[0], entry[1])) {
+      try {
+        write(string(entry[0]), entry[1]);
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    }
+  }
 
-      // create new log file
-      if(fos == null) {
+  /**
+   * Writes an entry to the slow query log, which is stored next to the daily log files.
+   * @param str strings to be written
+   */
+  public void writeSlow(final Object... str) {
+    if(!mprop.is(MainProp.LOG)) return;
+
+    final byte[][] entry = entry(str);
+    synchronized(this) {
+      try {
         final IOFile dir = dir();
         dir.md();
-        fos = new FileOutputStream(new IOFile(dir, nstart + IO.LOGSUFFIX).file(), true);
-        start = nstart;
+        final IOFile file = new IOFile(dir, string(entry[0]) + SLOWSUFFIX);
+        final FileOutputStream out = new FileOutputStream(file.file(), true);
+        try {
+          out.write(entry[1]);
+        } finally {
+          out.close();
+        }
+      } catch(final IOException ex) {
+        Util.stack(ex);
       }
+    }
+  }
 
-      // construct log text
-      final int ml = mprop.num(MainProp.LOGMSGMAXLEN);
-      final TokenBuilder tb = new TokenBuilder(DateTime.format(date, DateTime.TIME));
-      for(final Object s : str) {
-        tb.add('\t');
-        String st;
-        if(s == null) st = REQUEST;
-        else if(s instanceof Boolean) st = (Boolean) s ? OK : ERROR;
-        else if(s instanceof Throwable) st = Util.message((Throwable) s);
-        else st = s.toString();
-        tb.add(chop(token(st.replaceAll("\\s+", " ").trim()), ml));
+  /**
+   * Returns the number of entries that have been dropped by the asynchronous writer.
+   * @return number of dropped entries
+   */
+  public synchronized long dropped() {
+    final LogWriter lw = writer;
+    return dropped + (lw != null ? lw.dropped() : 0);
+  }
+
+  /**
+   * Closes the log file. Pending entries are written, and all subsequent
+   * entries will be written synchronously.
+   */
+  public void close() {
+    closed = true;
+    stop();
+  }
+
+  /**
+   * Stops the asynchronous writer and closes the log file.
+   */
+  private void stop() {
+    quit();
+    synchronized(this) {
+      if(fos == null) return;
+      try {
+        fos.close();
+        fos = null;
+      } catch(final IOException ex) {
+        Util.stack(ex);
       }
-      tb.add(Prop.NL);
+    }
+  }
 
-      // write and flush text
-      fos.write(tb.finish());
-      fos.flush();
-    } catch(final IOException ex) {
-      Util.stack(ex);
+  /**
+   * Creates a log entry.
+   * @param str strings to be written
+   * @return date of the log file and entry text
+   */
+  byte[][] entry(final Object... str) {
+    final Date date = new Date();
+    final int ml = mprop.num(MainProp.LOGMSGMAXLEN);
+    final TokenBuilder tb = new TokenBuilder(DateTime.format(date, DateTime.TIME));
+    for(final Object s : str) {
+      tb.add('\t');
+      String st;
+      if(s == null) st = REQUEST;
+      else if(s instanceof Boolean) st = (Boolean) s ? OK : ERROR;
+      else if(s instanceof Throwable) st = Util.message((Throwable) s);
+      else st = s.toString();
+      tb.add(chop(token(st.replaceAll("\\s+", " ").trim()), ml));
     }
+    tb.add(Prop.NL);
+    return new byte[][] { token(DateTime.format(date, DateTime.DATE)), tb.finish() };
   }
 
   /**
-   * Closes the log file.
+   * Writes entries to the log file of the specified date.
+   * @param date date of the log file
+   * @param text entries to be written
+   * @throws IOException I/O exception
    */
-  public synchronized void close() {
-    if(fos == null) return;
-    try {
+  synchronized void write(final String date, final byte[] text) throws IOException {
+    // check if day has changed
+    if(fos != null && !start.equals(date)) {
       fos.close();
       fos = null;
-    } catch(final IOException ex) {
-      Util.stack(ex);
+    }
+
+    // create new log file
+    if(fos == null) {
+      final IOFile dir = dir();
+      dir.md();
+      fos = new FileOutputStream(new IOFile(dir, date + IO.LOGSUFFIX).file(), true);
+      start = date;
+    }
+
+    // write and flush text
+    fos.write(text);
+    fos.flush();
+  }
+
+  /**
+   * Returns the asynchronous writer, or {@code null} if log entries are to be
+   * written synchronously.
+   * @return writer
+   */
+  private LogWriter writer() {
+    final int size = mprop.num(MainProp.LOGBUFFER);
+    if(size <= 0 || closed) {
+      if(writer != null) quit();
+      return null;
+    }
+    final LogWriter lw = writer;
+    if(lw != null) return lw;
+    synchronized(this) {
+      if(writer == null && !closed) {
+        writer = new LogWriter(this, size);
+        writer.start();
+      }
+      return writer;
+    }
+  }
+
+  /**
+   * Stops the asynchronous writer after all pending entries have been written.
+   */
+  private void quit() {
+    // the writer needs this monitor to write pending entries
+    final LogWriter lw;
+    synchronized(this) {
+      lw = writer;
+      writer = null;
+    }
+    if(lw == null) return;
+    lw.quit();
+    synchronized(this) {
+      dropped += lw.dropped();
     }
   }
 
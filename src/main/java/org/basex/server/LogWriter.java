@@ -0,0 +1,194 @@
+package org.basex.server;
+
+import java.io.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This thread writes log entries asynchronously. Entries are passed on via a
+ * bounded, lock-free ring buffer, which may be filled by arbitrary threads and
+ * is drained by this thread only. All entries that are available are written in
+ * a single batch. If the buffer is full, entries will be dropped after a short
+ * while, and the number of dropped entries will be logged as soon as possible.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+final class LogWriter extends Thread {
+  /** Number of attempts to add an entry to a full buffer. */
+  private static final int RETRIES = 64;
+  /** Idle time of the writer (nanoseconds). */
+  private static final long IDLE = 10000000L;
+  /** Message for dropped entries. */
+  private static final String DROPPED_X = "% log entries have been dropped.";
+
+  /** Log reference. */
+  private final Log log;
+  /** Log entries. */
+  private final AtomicReferenceArray<byte[][]> entries;
+  /** Sequence numbers of the buffer slots. */
+  private final AtomicLongArray seqs;
+  /** Mask for computing buffer slots. */
+  private final int mask;
+  /** Position of the next entry to be added. */
+  private final AtomicLong tail = new AtomicLong();
+  /** Number of dropped entries. */
+  private final AtomicLong dropped = new AtomicLong();
+  /** Number of threads that are currently adding entries. */
+  private final AtomicInteger active = new AtomicInteger();
+  /** Position of the next entry to be written (only accessed by this thread). */
+  private long head;
+  /** Number of already reported dropped entries (only accessed by this thread). */
+  private long reported;
+  /** Running flag. */
+  private volatile boolean running = true;
+
+  /**
+   * Constructor.
+   * @param lg log reference
+   * @param size minimum number of buffered entries
+   */
+  LogWriter(final Log lg, final int size) {
+    super(Util.name(lg));
+    log = lg;
+    // two slots are needed to distinguish free from filled slots
+    int s = 2;
+    while(s < size) s <<= 1;
+    mask = s - 1;
+    entries = new AtomicReferenceArray<byte[][]>(s);
+    seqs = new AtomicLongArray(s);
+    for(int i = 0; i < s; i++) seqs.set(i, i);
+    setDaemon(true);
+  }
+
+  /**
+   * Adds an entry to the buffer. If the buffer is full, the entry is dropped
+   * and counted.
+   * @param date date of the log file
+   * @param entry log entry
+   * @return {@code false} if the writer has been stopped, and the entry must
+   * be written by the caller
+   */
+  boolean add(final byte[] date, final byte[] entry) {
+    // the writer waits for all active threads before writing the last entries
+    active.incrementAndGet();
+    try {
+      if(!running) return false;
+      final byte[][] e = { date, entry };
+      // only attempts on a full buffer are counted; lost races are retried
+      for(int r = 0; r < RETRIES;) {
+        final long t = tail.get();
+        final int i = (int) t & mask;
+        final long s = seqs.get(i);
+        if(s == t) {
+          // slot is free: claim it
+          if(tail.compareAndSet(t, t + 1)) {
+            entries.set(i, e);
+            seqs.set(i, t + 1);
+            return true;
+          }
+        } else if(s < t) {
+          // buffer is full: give the writer a chance to catch up
+          LockSupport.unpark(this);
+          Thread.yield();
+          r++;
+        }
+      }
+      dropped.incrementAndGet();
+      return true;
+    } finally {
+      active.decrementAndGet();
+    }
+  }
+
+  /**
+   * Returns the number of dropped entries.
+   * @return number of dropped entries
+   */
+  long dropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Writes all remaining entries and stops the thread.
+   */
+  void quit() {
+    running = false;
+    LockSupport.unpark(this);
+    try {
+      join();
+    } catch(final InterruptedException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  @Override
+  public void run() {
+    final ByteList batch = new ByteList();
+    byte[] date = null;
+    while(true) {
+      final boolean run = running;
+      // last run: wait until no more entries are being added
+      if(!run) while(active.get() != 0) Thread.yield();
+      // collect all available entries
+      for(byte[][] e; (e = next()) != null;) date = add(e, date, batch);
+      final long d = dropped.get();
+      if(d != reported) {
+        date = add(log.entry(Log.SERVER, Text.ADMIN, Log.ERROR,
+            Util.info(DROPPED_X, d - reported)), date, batch);
+        reported = d;
+      }
+      write(date, batch);
+      if(!run) break;
+      LockSupport.parkNanos(this, IDLE);
+    }
+  }
+
+  /**
+   * Adds an entry to the current batch. The batch will be written first
+   * if the entry belongs to another log file.
+   * @param entry entry
+   * @param date date of the current batch (may be {@code null})
+   * @param batch current batch
+   * @return date of the entry
+   */
+  private byte[] add(final byte[][] entry, final byte[] date, final ByteList batch) {
+    if(date != null && !Token.eq(date, entry[0])) write(date, batch);
+    batch.add(entry[1]);
+    return entry[0];
+  }
+
+  /**
+   * Returns the next entry, or {@code null}.
+   * @return entry
+   */
+  private byte[][] next() {
+    final long h = head;
+    final int i = (int) h & mask;
+    if(seqs.get(i) != h + 1) return null;
+    final byte[][] e = entries.get(i);
+    entries.set(i, null);
+    seqs.set(i, h + mask + 1);
+    head = h + 1;
+    return e;
+  }
+
+  /**
+   * Writes a batch of entries.
+   * @param date date of the log file
+   * @param batch entries
+   */
+  private void write(final byte[] date, final ByteList batch) {
+    if(batch.isEmpty()) return;
+    try {
+      log.write(Token.string(date), batch.toArray());
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+    batch.reset();
+  }
+}
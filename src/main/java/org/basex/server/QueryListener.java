@@ -117,6 +117,7 @@ final class QueryListener extends Progress {
   void execute(final boolean iter, final OutputStream out, final boolean enc,
       final boolean full) throws IOException {
 
+    qi.usage.attach();
     try {
       try {
         // parses the query and registers the process
@@ -158,6 +159,7 @@ final class QueryListener extends Progress {
 
         // generate query info
         info = qi.toString(qp, po, c, ctx.prop.is(Prop.QUERYINFO));
+        qi.slow(ctx, query, 0, null);
 
       } catch(final QueryException ex) {
         throw new BaseXException(ex);
@@ -167,7 +169,11 @@ final class QueryListener extends Progress {
       } catch(final ProgressException ex) {
         throw new BaseXException(TIMEOUT_EXCEEDED);
       }
+    } catch(final IOException ex) {
+      qi.slow(ctx, query, perf.time(), Util.message(ex));
+      throw ex;
     } finally {
+      qi.usage.detach();
       // close processor and unregisters the process
       if(qp != null) {
         qp.close();
@@ -25,17 +25,31 @@ public final class Levenshtein {
    * @return true if the arrays are similar
    */
   public boolean similar(final byte[] token, final byte[] sub, final int err) {
+    return prefix(token, sub, err) == -1;
+  }
+
+  /**
+   * Compares two character arrays for similarity. If they are not similar,
+   * the length of a prefix of the first token is returned: no other token
+   * starting with the same bytes will be similar to the second token.
+   * This way, tokens can be skipped when traversing a sorted dictionary.
+   * @param token token to be compared
+   * @param sub second token to be compared
+   * @param err number of allowed errors; dynamic calculation if value is 0
+   * @return {@code -1} if the arrays are similar, or the length of the prefix
+   */
+  public int prefix(final byte[] token, final byte[] sub, final int err) {
     int sl = 0, tl = 0;
     for(int s = 0; s < sub.length; s += cl(sub, s)) ++sl;
     for(int t = 0; t < token.length; t += cl(token, t)) ++tl;
-    if(tl == 0) return false;
+    if(tl == 0) return 0;
 
     // use exact search for too short and too long values
-    if(sl < 4 || tl > MAX || sl > MAX) return sl == tl && same(token, sub);
+    if(sl < 4 || tl > MAX || sl > MAX) return sl == tl ? same(token, sub) : token.length;
 
     // skip different tokens with too different lengths
     final int k = err == 0 ? Math.max(1, sl >> 2) : err;
-    return Math.abs(sl - tl) <= k && ls(token, tl, sub, sl, k);
+    return Math.abs(sl - tl) <= k ? ls(token, tl, sub, sl, k) : token.length;
   }
 
   /**
@@ -45,9 +59,10 @@ public final class Levenshtein {
    * @param sb sub token to be compared
    * @param sl string length
    * @param k maximum number of accepted errors
-   * @return true if the arrays are similar
+   * @return {@code -1} if the arrays are similar, or the length of the prefix
+   * of the first token that exceeds the number of accepted errors
    */
-  private boolean ls(final byte[] tk, final int tl, final byte[] sb, final int sl,
+  private int ls(final byte[] tk, final int tl, final byte[] sb, final int sl,
       final int k) {
 
     int[][] m = matrix;
@@ -61,21 +76,21 @@ public final class Levenshtein {
     }
 
     int e2 = -1, f2 = -1;
-    for(int t = 0; t < tl; t += cl(tk, t)) {
+    for(int t = 0, i = 0; i < tl; t += cl(tk, t), ++i) {
       final int e = norm(lc(cp(tk, t)));
       int d = Integer.MAX_VALUE;
-      for(int s = 0; s < sl; s += cl(sb, s)) {
+      for(int s = 0, j = 0; j < sl; s += cl(sb, s), ++j) {
         final int f = norm(lc(cp(sb, s)));
-        int c = m(m[t][s + 1] + 1, m[t + 1][s] + 1, m[t][s] + (e == f ? 0 : 1));
-        if(e == f2 && f == e2) c = m[t][s];
-        m[t + 1][s + 1] = c;
+        int c = m(m[i][j + 1] + 1, m[i + 1][j] + 1, m[i][j] + (e == f ? 0 : 1));
+        if(e == f2 && f == e2) c = m[i][j];
+        m[i + 1][j + 1] = c;
         d = Math.min(d, c);
         f2 = f;
       }
-      if(d > k) return false;
+      if(d > k) return t + cl(tk, t);
       e2 = e;
     }
-    return m[tl][sl] <= k;
+    return m[tl][sl] <= k ? -1 : tk.length;
   }
 
   /**
@@ -94,13 +109,14 @@ public final class Levenshtein {
    * Compares two character arrays for equality.
    * @param tk token to be compared
    * @param sb second token to be compared
-   * @return true if the arrays are equal
+   * @return {@code -1} if the arrays are equal, or the length of the prefix
+   * of the first token that differs
    */
-  private static boolean same(final byte[] tk, final byte[] sb) {
+  private static int same(final byte[] tk, final byte[] sb) {
     int t = 0, s = 0;
     for(; t < tk.length && s < sb.length; t += cl(tk, t), s += cl(sb, s)) {
-      if(lc(norm(cp(tk, t))) != lc(norm(cp(sb, t)))) return false;
+      if(lc(norm(cp(tk, t))) != lc(norm(cp(sb, s)))) return t + cl(tk, t);
     }
-    return true;
+    return -1;
   }
 }
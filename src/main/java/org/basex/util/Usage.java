@@ -0,0 +1,121 @@
+package org.basex.util;
+
+/**
+ * This class counts the resources that are consumed by a single process.
+ * An instance is attached to the current thread while the process is running;
+ * counters are updated by the low-level classes that read data from disk or
+ * index structures, and by the builders of intermediate results.
+ *
+ * NOTE: this class is not thread-safe.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class Usage {
+  /** Usage of the current thread. */
+  private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<Usage>();
+
+  /** Number of table pages read from disk. */
+  public long pages;
+  /** Number of heap blocks read from disk. */
+  public long blocks;
+  /** Number of heap bytes read from disk. */
+  public long bytes;
+  /** Number of returned index entries. */
+  public long hits;
+  /** Number of allocated item slots. */
+  public long items;
+
+  /** Usage that was attached before this instance. */
+  private Usage previous;
+
+  /**
+   * Attaches this instance to the current thread.
+   * @return self reference
+   */
+  public Usage attach() {
+    previous = CURRENT.get();
+    CURRENT.set(this);
+    return this;
+  }
+
+  /**
+   * Detaches this instance from the current thread and reattaches the previous one.
+   */
+  public void detach() {
+    if(previous != null) {
+      // add counters to outer process
+      previous.include(this);
+      CURRENT.set(previous);
+    } else {
+      CURRENT.remove();
+    }
+    previous = null;
+  }
+
+  /**
+   * Adds the counters of a finished sub process, which may have been run by
+   * another thread, to the usage of the current thread.
+   * @param u usage of the sub process
+   */
+  public static void add(final Usage u) {
+    final Usage c = CURRENT.get();
+    if(c != null) c.include(u);
+  }
+
+  /**
+   * Adds the counters of the specified instance.
+   * @param u usage
+   */
+  private void include(final Usage u) {
+    pages += u.pages;
+    blocks += u.blocks;
+    bytes += u.bytes;
+    hits += u.hits;
+    items += u.items;
+  }
+
+  /**
+   * Registers a table page that has been read from disk.
+   */
+  public static void page() {
+    final Usage u = CURRENT.get();
+    if(u != null) u.pages++;
+  }
+
+  /**
+   * Registers a heap block that has been read from disk.
+   * @param n number of read bytes
+   */
+  public static void block(final int n) {
+    final Usage u = CURRENT.get();
+    if(u != null) {
+      u.blocks++;
+      u.bytes += n;
+    }
+  }
+
+  /**
+   * Registers returned index entries.
+   * @param n number of entries
+   */
+  public static void hits(final int n) {
+    final Usage u = CURRENT.get();
+    if(u != null) u.hits += n;
+  }
+
+  /**
+   * Registers allocated item slots.
+   * @param n number of slots
+   */
+  public static void items(final int n) {
+    final Usage u = CURRENT.get();
+    if(u != null) u.items += n;
+  }
+
+  @Override
+  public String toString() {
+    return pages + " pages, " + blocks + " blocks (" + Performance.format(bytes) +
+        "), " + hits + " index hits, " + items + " items";
+  }
+}
@@ -41,4 +41,9 @@ final class DictionaryStemmer extends Stemmer {
   protected byte[] stem(final byte[] word) {
     return dict.stem(word);
   }
+
+  @Override
+  Object rules() {
+    return dict;
+  }
 }
@@ -31,4 +31,9 @@ final class DummyStemmer extends InternalStemmer {
   protected byte[] stem(final byte[] word) {
     return word;
   }
+
+  @Override
+  Object rules() {
+    return null;
+  }
 }
@@ -24,7 +24,7 @@ final class LuceneStemmer extends Stemmer {
 
   /** Stemmer class corresponding to the required properties. */
   private StemmerClass clazz;
-  /** Stemmer instance. */
+  /** Stemmer instance (created on first access). */
   private Object stemmer;
 
   static {
@@ -94,7 +94,6 @@ final class LuceneStemmer extends Stemmer {
   private LuceneStemmer(final Language lang, final FTIterator fti) {
     super(fti);
     clazz = CLASSES.get(lang);
-    stemmer = Reflect.get(clazz.clz);
   }
 
   @Override
@@ -119,6 +118,7 @@ final class LuceneStemmer extends Stemmer {
 
   @Override
   protected byte[] stem(final byte[] word) {
+    if(stemmer == null) stemmer = Reflect.get(clazz.clz);
     String s = string(word);
     if(clazz.chars) {
       final char[] ch = s.toCharArray();
@@ -131,6 +131,11 @@ final class LuceneStemmer extends Stemmer {
     return s == null ? word : token(s);
   }
 
+  @Override
+  Object rules() {
+    return clazz;
+  }
+
   /** Structure, containing stemming methods. */
   private static class StemmerClass {
     /** Class implementing the stemmer. */
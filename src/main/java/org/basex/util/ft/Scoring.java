@@ -13,6 +13,10 @@ public final class Scoring {
   private static final double LOG = Math.E - 1;
   /** Scoring step. */
   private static final double SCORESTEP = 0.8;
+  /** BM25: term frequency saturation. */
+  private static final double K1 = 1.2;
+  /** BM25: length normalization. */
+  private static final double B = 0.75;
 
   /** Private constructor. */
   private Scoring() { }
@@ -81,6 +85,24 @@ public final class Scoring {
     return max((double) npv / is, log(tokl * npv + 1) / log(tl + 1));
   }
 
+  /**
+   * Calculates the BM25 score for a text node. The score is normalized to the
+   * interval {@code [0, 1]} by dividing it by the maximum possible score.
+   * @param tf number of occurrences of the searched term in the text
+   * @param df number of texts containing the term
+   * @param n total number of texts
+   * @param dl text length
+   * @param avgdl average text length
+   * @return score value
+   */
+  public static double bm25(final int tf, final int df, final int n,
+      final int dl, final double avgdl) {
+    final double idf = log(1 + (n - min(df, n) + 0.5) / (min(df, n) + 0.5));
+    final double max = log(1 + (n + 0.5) / 0.5);
+    final double norm = tf / (tf + K1 * (1 - B + B * dl / avgdl));
+    return min(1, norm * idf / max);
+  }
+
   /**
    * Returns a score for a single step.
    * @param sc current score value
@@ -24,7 +24,7 @@ final class SnowballStemmer extends Stemmer {
 
   /** Stemmer class corresponding to the required properties. */
   private StemmerClass clazz;
-  /** Stemmer instance. */
+  /** Stemmer instance (created on first access). */
   private Object stemmer;
 
   static {
@@ -65,7 +65,6 @@ final class SnowballStemmer extends Stemmer {
   private SnowballStemmer(final Language lang, final FTIterator fti) {
     super(fti);
     clazz = CLASSES.get(lang);
-    stemmer = Reflect.get(clazz.clz);
   }
 
   @Override
@@ -90,12 +89,18 @@ final class SnowballStemmer extends Stemmer {
 
   @Override
   protected byte[] stem(final byte[] word) {
+    if(stemmer == null) stemmer = Reflect.get(clazz.clz);
     Reflect.invoke(clazz.setCurrent, stemmer, string(word));
     Reflect.invoke(clazz.stem, stemmer);
     final String s = (String) Reflect.invoke(clazz.getCurrent, stemmer);
     return s == null ? word : token(s);
   }
 
+  @Override
+  Object rules() {
+    return clazz;
+  }
+
   /** Structure, containing stemming methods. */
   private static class StemmerClass {
     /** Class implementing the stemmer. */
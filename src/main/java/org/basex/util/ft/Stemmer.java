@@ -3,6 +3,7 @@ package org.basex.util.ft;
 import java.util.*;
 
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Implementation of common stemmer methods.
@@ -11,6 +12,17 @@ import org.basex.util.*;
  * @author Dimitar Popov
  */
 public abstract class Stemmer extends LanguageImpl {
+  /** Maximum number of cached stems per thread and stemming rules. */
+  private static final int MAXCACHE = 1 << 12;
+  /** Per-thread caches with the stems of frequent words, indexed by rules. */
+  private static final ThreadLocal<IdentityHashMap<Object, TokenObjMap<byte[]>>>
+    CACHES = new ThreadLocal<IdentityHashMap<Object, TokenObjMap<byte[]>>>() {
+      @Override
+      protected IdentityHashMap<Object, TokenObjMap<byte[]>> initialValue() {
+        return new IdentityHashMap<Object, TokenObjMap<byte[]>>();
+      }
+    };
+
   /** List of available stemmers. */
   static final LinkedList<Stemmer> IMPL = new LinkedList<Stemmer>();
 
@@ -33,6 +45,10 @@ public abstract class Stemmer extends LanguageImpl {
 
   /** Full-text iterator. */
   private final FTIterator iter;
+  /** Cached stems (assigned on first access). */
+  private TokenObjMap<byte[]> cache;
+  /** Thread owning the cache. */
+  private Thread owner;
 
   /**
    * Constructor.
@@ -74,6 +90,55 @@ public abstract class Stemmer extends LanguageImpl {
    */
   protected abstract byte[] stem(final byte[] word);
 
+  /**
+   * Returns the object representing the stemming rules of this instance.
+   * Stems are cached for all instances sharing the same rules. If {@code null}
+   * is returned, no stems will be cached.
+   * @return rules
+   */
+  Object rules() {
+    return getClass();
+  }
+
+  /**
+   * Returns the stem of the specified word. Stems of frequent words are cached
+   * per thread, as the same words are stemmed over and over again when texts
+   * are tokenized.
+   * @param word word to be stemmed
+   * @return stem
+   */
+  private byte[] cached(final byte[] word) {
+    final Thread th = Thread.currentThread();
+    if(owner != th) {
+      owner = th;
+      final Object rules = rules();
+      if(rules == null) {
+        cache = null;
+      } else {
+        final IdentityHashMap<Object, TokenObjMap<byte[]>> caches = CACHES.get();
+        cache = caches.get(rules);
+        if(cache == null) {
+          cache = new TokenObjMap<byte[]>();
+          caches.put(rules, cache);
+        }
+      }
+    }
+    if(cache == null) return stem(word);
+
+    byte[] st = cache.get(word);
+    if(st == null) {
+      // some stemmers modify the input array: stem a copy of the key
+      st = stem(word.clone());
+      if(cache.size() == MAXCACHE) {
+        // discard all entries (cheaper than tracking the usage of each entry)
+        cache = new TokenObjMap<byte[]>();
+        CACHES.get().put(rules(), cache);
+      }
+      cache.add(word, st);
+    }
+    return st;
+  }
+
   @Override
   public final Stemmer init(final byte[] txt) {
     iter.init(txt);
@@ -88,13 +153,13 @@ public abstract class Stemmer extends LanguageImpl {
   @Override
   public final FTSpan next() {
     final FTSpan s = iter.next();
-    s.text = stem(s.text);
+    s.text = cached(s.text);
     return s;
   }
 
   @Override
   public final byte[] nextToken() {
-    return stem(iter.nextToken());
+    return cached(iter.nextToken());
   }
 
   @Override
@@ -200,11 +200,28 @@ public final class WesternTokenizer extends Tokenizer {
    * @return result
    */
   private byte[] get() {
-    byte[] n = orig();
-    final boolean a = ascii(n);
-    if(!a && !dc) n = dia(n);
-    if(uc) n = upper(n, a);
-    if(lc || !cs) n = lower(n, a);
+    // fast path: copy and convert ASCII tokens in a single pass
+    final boolean l = lc || !cs;
+    final int s = cpos - spos;
+    final byte[] n = new byte[s];
+    for(int i = 0; i < s; i++) {
+      final byte b = text[spos + i];
+      if(b < 0) return convert(orig());
+      n[i] = (byte) (l ? lc(b) : uc ? uc(b) : b);
+    }
+    return n;
+  }
+
+  /**
+   * Converts a token with non-ASCII characters.
+   * @param t token to be converted
+   * @return converted token
+   */
+  private byte[] convert(final byte[] t) {
+    byte[] n = t;
+    if(!dc) n = dia(n);
+    if(uc) n = upper(n, false);
+    if(lc || !cs) n = lower(n, false);
     return n;
   }
 
@@ -167,6 +167,34 @@ public class JsonParserTest {
     error("newt", Spec.LIBERAL);
   }
 
+  /**
+   * Tests the positions and snippets of error messages.
+   */
+  @Test public void errorMessages() {
+    error("{\"a\": 1,,}", Spec.RFC4627, "(1:8): Expected string, found ','");
+    error("[1, tru]", Spec.RFC4627, "(1:4): Unexpected JSON value: 'tru]'");
+    error("\"abc\"", Spec.RFC4627, "(1:1): Expected '{' or '[', found \"abc\"");
+    error("[1,\n 2,\n x]", Spec.RFC4627, "(3:1): Unexpected JSON value: 'x]'");
+    error("[1, abcdefghijklmnopq]", Spec.RFC4627, "'abcdefghijklmno...'");
+    error("new 12 (", Spec.LIBERAL, "(1:4): Wrong constructor syntax: '12 ('");
+  }
+
+  /**
+   * Tests if the given JSON string is rejected by the parser using the given spec.
+   * @param json JSON string
+   * @param spec specification
+   * @param msg expected part of the error message
+   */
+  private void error(final String json, final Spec spec, final String msg) {
+    try {
+      parse(json, spec);
+      fail("Should have failed: '" + json + "'");
+    } catch(final QueryException qe) {
+      final String m = qe.getMessage();
+      assertTrue("Unexpected message: " + m, m.contains(msg));
+    }
+  }
+
   /**
    * Tests if the given JSON string is rejected by the parser using the given spec.
    * @param json JSON string
@@ -6,6 +6,8 @@ import java.io.*;
 
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.index.resource.*;
 import org.basex.io.*;
 import org.basex.test.*;
 import org.basex.util.*;
@@ -174,6 +176,83 @@ public final class AddDeleteTest extends SandboxTest {
     assertEquals("0", new XQuery("count(//a)").execute(context));
   }
 
+  /**
+   * Looks up documents by their paths after updates and after reopening
+   * the database.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void paths() throws BaseXException {
+    for(final String path : new String[] { "a", "a/x.xml", "a/y.xml", "a/b/z.xml",
+        "a-b/x.xml", "ab.xml", "a/y.xml" }) {
+      new Add(path, XMLFRAG).execute(context);
+    }
+    new Rename("a-b/x.xml", "a/c.xml").execute(context);
+    new Delete("a/x.xml").execute(context);
+    new Replace("ab.xml", "<ab/>").execute(context);
+    for(int i = 0; i < 2; i++) {
+      final Resources res = context.data().resources;
+      assertEquals(5, res.docs("a").size());
+      assertEquals(4, res.docs("a/").size());
+      assertEquals(2, res.docs("a/y.xml").size());
+      assertEquals(1, res.docs("a/b").size());
+      assertEquals(0, res.docs("a-b").size());
+      assertEquals(1, res.docs("a", true).size());
+      assertTrue(res.doc("a/c.xml") > 0);
+      assertEquals(-1, res.doc("a/x.xml"));
+      assertEquals(res.docs("ab.xml").get(0), res.doc("ab.xml"));
+      new Close().execute(context);
+      new Open(NAME).execute(context);
+    }
+  }
+
+  /**
+   * Deletes and renames documents with identical paths.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void identicalPaths() throws BaseXException {
+    query("for $i in 1 to 40 return db:add('" + NAME + "', <doc/>, " +
+        "if($i mod 2 = 0) then 'a/same.xml' else 'b/x' || $i mod 5 || '.xml')");
+    query("db:delete('" + NAME + "', 'a/same.xml')");
+    query("for $i in 1 to 20 return db:add('" + NAME + "', <doc/>, 'a/same.xml')");
+    assertEquals("4", query("count(db:open('" + NAME + "', 'b/x1.xml'))"));
+    query("db:rename('" + NAME + "', 'b/x3.xml', 'a/same.xml')");
+    query("db:delete('" + NAME + "', 'b/x1.xml')");
+    query("for $i in 1 to 5 return db:add('" + NAME + "', <doc/>, 'b/x1.xml')");
+    for(int i = 0; i < 2; i++) {
+      assertEquals("5", query("count(db:open('" + NAME + "', 'b/x1.xml'))"));
+      assertEquals("24", query("count(db:open('" + NAME + "', 'a/same.xml'))"));
+      assertEquals("4", query("count(db:open('" + NAME + "', 'b/x0.xml'))"));
+      assertEquals("0", query("count(db:open('" + NAME + "', 'b/x3.xml'))"));
+      assertEquals("41", query("count(db:open('" + NAME + "'))"));
+      new Close().execute(context);
+      new Open(NAME).execute(context);
+    }
+  }
+
+  /**
+   * Checks if document paths are only written to disk by updates.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void writePaths() throws BaseXException {
+    new Add("a/x.xml", XMLFRAG).execute(context);
+    final IOFile doc = context.data().meta.dbfile(DataText.DATADOC);
+    new Close().execute(context);
+    doc.delete();
+
+    new Open(NAME).execute(context);
+    assertEquals("1", query("count(db:open('" + NAME + "', 'a/'))"));
+    new Close().execute(context);
+    assertFalse(doc.exists());
+
+    new Open(NAME).execute(context);
+    query("db:add('" + NAME + "', <y/>, 'a/y.xml')");
+    new Close().execute(context);
+    assertTrue(doc.exists());
+  }
+
   /**
    * Adds a non-existent file.
    * @throws BaseXException expected.
@@ -255,4 +334,14 @@ public final class AddDeleteTest extends SandboxTest {
   private static int docs() {
     return context.data().resources.docs("").size();
   }
+
+  /**
+   * Returns the result of the specified query.
+   * @param query query
+   * @return result
+   * @throws BaseXException exception
+   */
+  private static String query(final String query) throws BaseXException {
+    return new XQuery(query).execute(context);
+  }
 }
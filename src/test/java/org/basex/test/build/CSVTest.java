@@ -109,6 +109,39 @@ public final class CSVTest extends SandboxTest {
     assertEquals("0", new XQuery("count(//Name)").execute(context));
   }
 
+  /**
+   * Parses a CSV file with multiple threads.
+   * @throws Exception exception
+   */
+  @Test
+  public void parallel() throws Exception {
+    // create input with line breaks in quoted fields, spanning multiple chunks
+    final StringBuilder sb = new StringBuilder("id,text\n");
+    for(int i = 0; i < 150000; i++) {
+      sb.append(i).append(i % 3 == 0 ? ",\"a\n\"\"b\"\",c\"" :
+        ",text " + i + " of a line that is long enough");
+      sb.append("\n\n".substring(i % 5 == 0 ? 0 : 1));
+    }
+    write(sb.toString());
+    final String query = "count(//record), count(//text[. = 'a\n\"b\",c'])," +
+      "string-join(//record[position() = (1, 75000, 150000)]/id, ' ')";
+
+    new CreateDB(NAME, TEMP).execute(context);
+    final String result = new XQuery(query).execute(context);
+    assertEquals("150000 50000 0 74999 149999", result);
+
+    new Set(Prop.PARSEROPT, "header=true,threads=4").execute(context);
+    new CreateDB(NAME, TEMP).execute(context);
+    assertEquals(result, new XQuery(query).execute(context));
+
+    // carriage returns as record boundaries
+    for(final String nl : new String[] { "\r", "\r\n" }) {
+      write(sb.toString().replace("\n", nl));
+      new CreateDB(NAME, TEMP).execute(context);
+      assertEquals(result, new XQuery(query).execute(context));
+    }
+  }
+
   /**
    * Writes the specified test file.
    * @param data data to write
@@ -0,0 +1,155 @@
+package org.basex.test.build;
+
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.io.in.*;
+import org.basex.test.*;
+import org.junit.*;
+
+/**
+ * JSON Parser Test.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class JSONTest extends SandboxTest {
+  /** Temporary JSON file. */
+  private static final String TEMP = Prop.TMP + NAME + IO.JSONSUFFIX;
+
+  /**
+   * Creates the initial database.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void before() throws BaseXException {
+    new Set(Prop.PARSER, "json").execute(context);
+  }
+
+  /**
+   * Removes the temporary JSON file and resets the options.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void after() throws BaseXException {
+    new IOFile(TEMP).delete();
+    new Set(Prop.PARSER, "xml").execute(context);
+    new Set(Prop.PARSEROPT, "").execute(context);
+  }
+
+  /**
+   * Drops the database.
+   * @throws BaseXException exception
+   */
+  @After
+  public void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+    new Set(Prop.PARSEROPT, "").execute(context);
+  }
+
+  /**
+   * Adds JSON documents in the default format.
+   * @throws Exception exception
+   */
+  @Test
+  public void cg() throws Exception {
+    create("{}");
+    assertEquals("<json objects=\"json\"/>", query("."));
+
+    create("{ \"a\": 1, \"b\": \"x\", \"c\": [ true, null ], \"d\": { \"a\": \"y\" } }");
+    assertEquals("objects", query("name(/json/@*[. = 'json d'])"));
+    assertEquals("c", query("/json/@arrays/string()"));
+    assertEquals("number", query("string(//a/@type)"));
+    assertEquals("boolean null", query("string-join(//value/@type, ' ')"));
+    assertEquals("1xtruey", query("string(.)"));
+
+    // names are converted to valid element names
+    create("{ \"\": 0, \"a b\": 1, \"a_b\": 2 }");
+    assertEquals("_ a_0020b a__b", query("string-join(/json/*/name(), ' ')"));
+  }
+
+  /**
+   * Adds a JSON document in the default format from an input stream.
+   * @throws Exception exception
+   */
+  @Test
+  public void cgStream() throws Exception {
+    final CreateDB cmd = new CreateDB(NAME);
+    cmd.setInput(new ArrayInput("{ \"a\": [ 1, \"x\" ], \"b\": { \"a\": [] } }"));
+    cmd.execute(context);
+    assertEquals("a", query("/json/@arrays/string()"));
+    assertEquals("2", query("count(/json/a/value)"));
+    assertEquals("number", query("string(/json/a/value/@type)"));
+    assertEquals("1x", query("string(.)"));
+  }
+
+  /**
+   * Adds JSON documents in the JsonML format.
+   * @throws Exception exception
+   */
+  @Test
+  public void jsonml() throws Exception {
+    new Set(Prop.PARSEROPT, "jsonml=true").execute(context);
+    create("[\"a\", { \"x\": \"1\" }, \"t\", [\"b\", \"u\"], [\"c\"]]");
+    assertEquals("a b c", query("string-join(//*/name(), ' ')"));
+    assertEquals("1", query("string(/a/@x)"));
+    assertEquals("tu", query("string(.)"));
+  }
+
+  /**
+   * Checks if invalid input is rejected.
+   * @throws Exception exception
+   */
+  @Test
+  public void error() throws Exception {
+    for(final String json : new String[] { "", "{", "{ \"a\": 0, }", "[] []" }) {
+      write(json);
+      try {
+        new CreateDB(NAME, TEMP).execute(context);
+        fail("Invalid input was accepted: " + json);
+      } catch(final BaseXException ex) { /* expected */ }
+    }
+    new Set(Prop.PARSEROPT, "jsonml=true").execute(context);
+    for(final String json : new String[] { "[]", "[\"a\", 1]", "[\"a\", \"t\", {}]" }) {
+      write(json);
+      try {
+        new CreateDB(NAME, TEMP).execute(context);
+        fail("Invalid input was accepted: " + json);
+      } catch(final BaseXException ex) { /* expected */ }
+    }
+  }
+
+  /**
+   * Creates a database from the specified JSON input.
+   * @param json JSON input
+   * @throws IOException I/O exception
+   */
+  private static void create(final String json) throws IOException {
+    write(json);
+    new CreateDB(NAME, TEMP).execute(context);
+  }
+
+  /**
+   * Returns the result of the specified query.
+   * @param query query
+   * @return result
+   * @throws BaseXException exception
+   */
+  private static String query(final String query) throws BaseXException {
+    return new XQuery(query).execute(context);
+  }
+
+  /**
+   * Writes the specified test file.
+   * @param data data to write
+   * @throws IOException I/O exception
+   */
+  private static void write(final String data) throws IOException {
+    new IOFile(TEMP).write(token(data));
+  }
+}
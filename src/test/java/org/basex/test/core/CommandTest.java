@@ -254,6 +254,29 @@ public class CommandTest extends SandboxTest {
     ok(io.delete());
   }
 
+  /** Command test. */
+  @Test
+  public final void exportParallel() throws IOException {
+    final IOFile seq = new IOFile(NAME + "seq"), par = new IOFile(NAME);
+    ok(new CreateDB(NAME, FLDR + "/dir"));
+    ok(new Export(seq.path()));
+    ok(new Set(Prop.EXPORTPARALLEL, 4));
+    ok(new Export(par.path()));
+    ok(new Set(Prop.EXPORTPARALLEL, 1));
+
+    // parallel export must yield the same files and contents
+    final IOFile[] files = seq.children();
+    assertEquals(files.length, par.children().length);
+    ok(new IOFile(par, FN).exists());
+    for(final IOFile f : files) {
+      final IOFile p = new IOFile(par, f.name());
+      ok(p.exists());
+      assertEquals(f.name(), string(f.read()), string(p.read()));
+    }
+    ok(seq.delete());
+    ok(par.delete());
+  }
+
   /** Command test. */
   @Test
   public final void find() {
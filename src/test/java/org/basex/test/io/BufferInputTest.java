@@ -6,6 +6,7 @@ import java.io.*;
 
 import org.basex.io.*;
 import org.basex.io.in.*;
+import org.basex.io.out.*;
 import org.basex.util.*;
 import org.junit.*;
 
@@ -59,6 +60,29 @@ public final class BufferInputTest {
     run(data);
   }
 
+  /**
+   * Test block-wise copying of the remaining input.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void copy() throws IOException {
+    final byte[] data = new byte[200000];
+    for(int d = 0; d < data.length; d++) data[d] = (byte) d;
+    final BufferInput bi = new BufferInput(new ByteArrayInputStream(data));
+    assertEquals(0, bi.read());
+    assertEquals(1, bi.read());
+    final ArrayOutput ao = new ArrayOutput();
+    bi.copy(new EncodingOutput(ao));
+
+    // check encoded output: 0x00 and 0xFF are prefixed with 0xFF
+    final TokenBuilder tb = new TokenBuilder();
+    for(int d = 2; d < data.length; d++) {
+      if(data[d] == 0 || data[d] == -1) tb.addByte((byte) 0xFF);
+      tb.addByte(data[d]);
+    }
+    assertSame(tb.finish(), ao.toArray());
+  }
+
   /**
    * Test unknown encoding.
    * @throws IOException I/O exception
@@ -87,6 +87,28 @@ public final class FTIndexQueryTest extends SandboxTest {
         _FT_MARK.args(" //*[text() contains text 'A' ftand 'B'], 'b'"));
   }
 
+  /**
+   * Cached index results are discarded after updates.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void testCachedResults() throws BaseXException {
+    final String[] queries = {
+      "//*[text() contains text 'A']",
+      "//*[text() contains text 'A.*' using wildcards]",
+      "//*[text() contains text 'AA' using fuzzy]"
+    };
+    for(final String q : queries) {
+      assertQuery(q);
+      assertQuery(q);
+    }
+    final String upd = "insert node <x>AB A</x> into /x";
+    new XQuery(upd).execute(context);
+    new XQuery(upd).execute(CTX_IX);
+    new Optimize().execute(CTX_IX);
+    for(final String q : queries) assertQuery(q);
+  }
+
   /**
    * Assert that a query returns the same result with and without ft index.
    * @param q query
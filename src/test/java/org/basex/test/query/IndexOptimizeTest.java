@@ -167,6 +167,224 @@ public final class IndexOptimizeTest extends SandboxTest {
         "//text()[. contains text { $x }] }; local:x('1')", "1");
   }
 
+  /**
+   * Checks if the name index is used for selective name steps.
+   * @throws Exception unexpected exception
+   */
+  @Test
+  public void nameTest() throws Exception {
+    new Set(Prop.NAMEINDEX, true).execute(context);
+    try {
+      createNames();
+      new Open(NAME).execute(context);
+      check("//b", "<b id=\"1\">X</b>");
+      check("data(//@id)", "1");
+      check("count(/xml//b)", "1");
+      check("data(//@id/..)", "X");
+    } finally {
+      new Set(Prop.NAMEINDEX, false).execute(context);
+    }
+  }
+
+  /**
+   * Checks if the path index is used for selective paths.
+   * @throws Exception unexpected exception
+   */
+  @Test
+  public void pathTest() throws Exception {
+    new Set(Prop.NAMEINDEX, true).execute(context);
+    try {
+      createNames();
+      new Open(NAME).execute(context);
+      check("/xml/b", "<b id=\"1\">X</b>");
+      check("data(/xml/b/@id)", "1");
+      check("/xml/b[@id = 1]/text()", "X");
+
+      new Add("two.xml", "<xml><b id='2'>Y</b><a/><a/><a/><a/><a/><a/><a/></xml>").
+        execute(context);
+      new Optimize().execute(context);
+      check("data(/xml/b)", "X Y");
+      check("data(" + _DB_OPEN.args(NAME, "two.xml") + "/xml/b)", "Y");
+    } finally {
+      new Set(Prop.NAMEINDEX, false).execute(context);
+    }
+  }
+
+  /**
+   * Checks if results of the name and path index, which may contain nested nodes,
+   * are sorted and duplicate-free if they are followed by other steps.
+   * @throws Exception unexpected exception
+   */
+  @Test
+  public void nestedNamesTest() throws Exception {
+    new Set(Prop.NAMEINDEX, true).execute(context);
+    try {
+      final StringBuilder sb = new StringBuilder("<xml>");
+      for(int i = 0; i < 100; i++) sb.append("<c/>");
+      sb.append("<a><b x='1'><b x='2'>t</b></b><a><b/></a><e/></a><b/></xml>");
+      new CreateDB(NAME, sb.toString()).execute(context);
+      // name index
+      check("count(//b/following::b)", "2");
+      check("count(//a/descendant-or-self::node())", "7");
+      check("count(//b/descendant-or-self::node()/@*)", "2");
+      check("string-join(for $n in //a/node() return name($n), ' ')", "b a b e");
+      check("count(//b/following-sibling::*)", "2");
+      // path index
+      check("count(/xml/a//b/following::b)", "2");
+      check("count(/xml/a//b/descendant-or-self::node())", "4");
+      check("string-join(for $n in /xml/a//b/node() return name($n), '/')", "b/");
+    } finally {
+      new Set(Prop.NAMEINDEX, false).execute(context);
+    }
+  }
+
+  /**
+   * Checks if the name index is used for elements with a default namespace.
+   * @throws Exception unexpected exception
+   */
+  @Test
+  public void nameNamespaceTest() throws Exception {
+    new Set(Prop.NAMEINDEX, true).execute(context);
+    try {
+      final StringBuilder sb = new StringBuilder("<xml xmlns='U' xmlns:p='P'>");
+      for(int i = 0; i < 100; i++) sb.append("<c/>");
+      sb.append("<b>1</b><p:b>2</p:b><b xmlns=''>3</b></xml>");
+      new CreateDB(NAME, sb.toString()).execute(context);
+      check("declare default element namespace 'U'; data(//b)", "1");
+      check("declare namespace p = 'P'; data(//p:b)", "2");
+      check("data(//*:b)", "1 2 3");
+    } finally {
+      new Set(Prop.NAMEINDEX, false).execute(context);
+    }
+  }
+
+  /**
+   * Checks if the name index is updated if {@link Prop#UPDINDEX} is enabled.
+   * @throws Exception unexpected exception
+   */
+  @Test
+  public void nameUpdateTest() throws Exception {
+    new Set(Prop.NAMEINDEX, true).execute(context);
+    new Set(Prop.UPDINDEX, true).execute(context);
+    try {
+      createNames();
+      new Open(NAME).execute(context);
+      new XQuery("insert node <b id='2'>Y</b> into /xml").execute(context);
+      check("data(//b)", "X Y");
+      new XQuery("rename node (//b)[1] as 'c'").execute(context);
+      check("data(//b)", "Y");
+      new XQuery("delete node //@id").execute(context);
+      new XQuery("insert node attribute id { 3 } into (//a)[1]").execute(context);
+      check("data(//@id)", "3");
+      new XQuery("delete node //b").execute(context);
+      check("//b", "");
+    } finally {
+      new Set(Prop.NAMEINDEX, false).execute(context);
+      new Set(Prop.UPDINDEX, false).execute(context);
+    }
+  }
+
+  /**
+   * Checks if the full-text index is updated if {@link Prop#UPDINDEX} is enabled.
+   * @throws Exception unexpected exception
+   */
+  @Test
+  public void ftUpdateTest() throws Exception {
+    new Set(Prop.UPDINDEX, true).execute(context);
+    try {
+      createDoc();
+      new Open(NAME).execute(context);
+      new XQuery("insert node <b>4 5</b> into /xml").execute(context);
+      check("data(//*[text() contains text '4'])", "4 5");
+      check("data(//*[text() contains text { '3', '5' } any])", "2 3 4 5");
+      new XQuery("replace value of node //a[2] with '5 6'").execute(context);
+      check("data(//*[text() contains text '5'])", "5 6 4 5");
+      check("//*[text() contains text '3']", "");
+      new XQuery("delete node //b").execute(context);
+      check("data(//*[text() contains text '5'])", "5 6");
+
+      // pending updates are stored on disk and merged when optimizing
+      new Close().execute(context);
+      new Open(NAME).execute(context);
+      check("data(//*[text() contains text '6'])", "5 6");
+      new Optimize().execute(context);
+      check("data(//*[text() contains text '6'])", "5 6");
+      check("//*[text() contains text '4']", "");
+    } finally {
+      new Set(Prop.UPDINDEX, false).execute(context);
+    }
+  }
+
+  /**
+   * Checks if index access is skipped if the estimated costs of a sequential
+   * evaluation are lower.
+   * @throws Exception unexpected exception
+   */
+  @Test
+  public void costsTest() throws Exception {
+    final StringBuilder sb = new StringBuilder("<xml><b>x</b><c>");
+    for(int i = 0; i < 100; i++) sb.append("<a>x</a>");
+    new CreateDB(NAME, sb.append("</c></xml>").toString()).execute(context);
+    check("count(//a[text() = 'x'])", "100");
+    check("/xml/b[text() = 'x']", "<b>x</b>", false);
+    check("for $x in ('x', 'y') return count(//a[text() = $x])", "100 0");
+  }
+
+  /**
+   * Checks if posting lists are relocated if they grow after deletions.
+   * @throws Exception unexpected exception
+   */
+  @Test
+  public void nameGrowTest() throws Exception {
+    new Set(Prop.NAMEINDEX, true).execute(context);
+    new Set(Prop.UPDINDEX, true).execute(context);
+    try {
+      // ids of the b elements: 2, 65 (+0x3F), 16448 (+0x3FFF)
+      final StringBuilder sb = new StringBuilder("<xml><b/>");
+      sb.append(fill(61));
+      sb.append("<b/>");
+      for(int i = 0; i < 264; i++) sb.append(fill(61));
+      sb.append(fill(13)).append("<b/><c/></xml>");
+      new CreateDB(NAME, sb.toString()).execute(context);
+      check("count(//a)", "266");
+      // merged distance 0x403E is compressed to 4 instead of 1 + 2 bytes
+      new XQuery("delete node (//b)[2]").execute(context);
+      check("count(//b)", "2");
+      check("count(//a)", "266");
+      check("count(//c)", "1");
+      new XQuery("delete node (//b)[1]").execute(context);
+      check("count(//b)", "1");
+      check("count(//a)", "266");
+    } finally {
+      new Set(Prop.NAMEINDEX, false).execute(context);
+      new Set(Prop.UPDINDEX, false).execute(context);
+    }
+  }
+
+  /**
+   * Returns an element with the specified number of attributes.
+   * @param atts number of attributes
+   * @return element
+   */
+  private static String fill(final int atts) {
+    final StringBuilder sb = new StringBuilder("<a");
+    for(int a = 0; a < atts; a++) sb.append(" x").append(a).append("=''");
+    return sb.append("/>").toString();
+  }
+
+  /**
+   * Creates a test database with a single element and attribute with a
+   * different name.
+   * @throws Exception exception
+   */
+  private static void createNames() throws Exception {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 0; i < 20; i++) sb.append("<a>").append(i).append("</a>");
+    sb.append("<b id='1'>X</b></xml>");
+    new CreateDB(NAME, sb.toString()).execute(context);
+    new Close().execute(context);
+  }
+
   /**
    * Creates a test database.
    * @throws Exception exception
@@ -203,6 +421,18 @@ public final class IndexOptimizeTest extends SandboxTest {
    * @param result expected query result
    */
   private static void check(final String query, final String result) {
+    check(query, result, true);
+  }
+
+  /**
+   * Checks if specified query was rewritten for index access, and checks the
+   * query result.
+   * @param query query to be tested
+   * @param result expected query result
+   * @param index expected index access
+   */
+  private static void check(final String query, final String result,
+      final boolean index) {
     // compile query
     String plan = null;
     final QueryProcessor qp = new QueryProcessor(query, context);
@@ -219,10 +449,12 @@ public final class IndexOptimizeTest extends SandboxTest {
       // check if index is used
       ao = new QueryProcessor(plan + "/descendant-or-self::*" +
           "[self::" + Util.name(ValueAccess.class) +
-          "|self::" + Util.name(FTIndexAccess.class) + "]",
+          "|self::" + Util.name(FTIndexAccess.class) +
+          "|self::" + Util.name(NameAccess.class) +
+          "|self::" + Util.name(PathAccess.class) + "]",
           context).execute().serialize();
-      assertFalse("No index used:\nQuery: " + query + "\nInfo: " + info +
-          "\nPlan: " + plan, ao.toString().isEmpty());
+      assertEquals((index ? "No index used" : "Index used") + ":\nQuery: " + query +
+          "\nInfo: " + info + "\nPlan: " + plan, index, !ao.toString().isEmpty());
     } catch(final QueryException ex) {
       fail(Util.message(ex) + "\nQuery: " + query + "\nPlan: " + plan);
     } catch(final IOException ex) {
@@ -0,0 +1,97 @@
+package org.basex.test.query;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.junit.*;
+
+/**
+ * Tests for the {@link SeqBuilder} class.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class SeqBuilderTest {
+  /** Integers are stored as longs. */
+  @Test public void integers() {
+    final Value v = build(Int.get(1), Int.get(2), Int.get(3));
+    assertTrue(v instanceof IntSeq);
+    check(v, Int.get(1), Int.get(2), Int.get(3));
+    assertTrue(build(Int.get(1), Int.get(2, AtomType.BYT)) instanceof ItemSeq);
+  }
+
+  /** Doubles and strings are stored in their primitive representation. */
+  @Test public void atomics() {
+    assertTrue(build(Dbl.get(1), Dbl.get(2)) instanceof DblSeq);
+    assertTrue(build(Str.get("a"), Str.get("b")) instanceof StrSeq);
+    assertTrue(build(Str.get("a"), Uri.uri("b")) instanceof ItemSeq);
+  }
+
+  /** Heterogeneous items are converted to items. */
+  @Test public void mixed() {
+    final Item[] items = {
+      Int.get(1), Int.get(2), Str.get("a"), Dbl.get(1.5), Int.get(3)
+    };
+    final Value v = build(items);
+    assertTrue(v instanceof ItemSeq);
+    check(v, items);
+  }
+
+  /**
+   * Database nodes are stored as pre values.
+   * @throws Exception exception
+   */
+  @Test public void nodes() throws Exception {
+    final Data data = new DBNode(new IOContent("<a><b/><c/></a>"), new Prop()).data;
+    final DBNode a = new DBNode(data, 1), b = new DBNode(data, 2);
+    final DBNode c = new DBNode(data, 3);
+    final Value v = build(a, b, c);
+    assertTrue(v instanceof DBNodeSeq);
+    assertSame(NodeType.ELM, v.type);
+    check(v, a, b, c);
+    // unordered nodes
+    final Value w = build(a, c, b);
+    assertTrue(w instanceof ItemSeq);
+    check(w, a, c, b);
+  }
+
+  /**
+   * Builds a value.
+   * @param items items
+   * @return value
+   */
+  private static Value build(final Item... items) {
+    final SeqBuilder sb = new SeqBuilder();
+    for(final Item it : items) sb.add(it);
+    assertEquals(items.length, sb.size());
+    return sb.value();
+  }
+
+  /**
+   * Compares the items of a value.
+   * @param v value
+   * @param items expected items
+   */
+  private static void check(final Value v, final Item... items) {
+    assertEquals(items.length, v.size());
+    try {
+      for(int i = 0; i < items.length; i++) {
+        final Item it = v.itemAt(i);
+        assertSame(items[i].type, it.type);
+        assertTrue(items[i].equiv(null, it) ||
+            it instanceof ANode && ((ANode) it).is((ANode) items[i]));
+      }
+    } catch(final QueryException ex) {
+      fail(ex.getMessage());
+    }
+  }
+}
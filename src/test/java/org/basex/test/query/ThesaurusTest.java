@@ -0,0 +1,88 @@
+package org.basex.test.query;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.junit.*;
+
+/**
+ * Full-text thesaurus tests.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class ThesaurusTest extends AdvancedQueryTest {
+  /** Thesaurus file. */
+  private static final IOFile FILE = new IOFile(Prop.TMP + NAME + IO.XMLSUFFIX);
+  /** Thesaurus. */
+  private static final String THES =
+    "<thesaurus xmlns='http://www.w3.org/2007/xqftts/thesaurus'>" +
+    "<entry><term>car</term>" +
+    "<synonym><term>automobile</term><relationship>RT</relationship></synonym>" +
+    "<synonym><term>vehicle</term><relationship>BT</relationship>" +
+    "<synonym><term>conveyance</term><relationship>BT</relationship></synonym>" +
+    "</synonym>%</entry></thesaurus>";
+
+  /**
+   * Writes the thesaurus file.
+   * @throws IOException I/O exception
+   */
+  @BeforeClass
+  public static void init() throws IOException {
+    FILE.write(token(THES.replace("%", "")));
+  }
+
+  /** Removes the thesaurus file. */
+  @AfterClass
+  public static void finish() {
+    FILE.delete();
+  }
+
+  /** Expands query terms. */
+  @Test
+  public void expand() {
+    check("automobile", "car", "", true);
+    check("vehicle", "car", "", true);
+    check("car", "automobile", "", true);
+    check("bus", "car", "", false);
+  }
+
+  /** Restricts relationships and levels. */
+  @Test
+  public void restrict() {
+    check("conveyance", "car", "relationship 'BT'", true);
+    check("automobile", "car", "relationship 'BT'", false);
+    check("conveyance", "car", "relationship 'BT' at most 1 levels", false);
+    check("vehicle", "car", "relationship 'BT' at most 1 levels", true);
+  }
+
+  /**
+   * Reloads a modified thesaurus.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void reload() throws IOException {
+    check("motorcar", "car", "", false);
+    FILE.write(token(THES.replace("%", "<synonym><term>motorcar</term>" +
+        "<relationship>UF</relationship></synonym>")));
+    new File(FILE.path()).setLastModified(FILE.timeStamp() + 2000);
+    check("motorcar", "car", "", true);
+    init();
+  }
+
+  /**
+   * Checks if a text contains a term, using the thesaurus.
+   * @param text text
+   * @param term query term
+   * @param options thesaurus options
+   * @param result expected result
+   */
+  private static void check(final String text, final String term,
+      final String options, final boolean result) {
+    query("'" + text + "' contains text '" + term + "' using thesaurus at '" +
+        FILE.path() + "' " + options, result);
+  }
+}
@@ -1,8 +1,13 @@
 package org.basex.test.query.ast;
 
+import static org.junit.Assert.*;
+
 import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.gflwor.*;
+import org.basex.query.util.*;
 import org.basex.util.*;
 import org.junit.*;
 
@@ -210,6 +215,26 @@ public final class FlworOptimizeTest extends QueryPlanTest {
     );
   }
 
+  /**
+   * Tests if comparisons are rewritten for index access instead of being joined.
+   * @throws BaseXException database exception
+   */
+  @Test public void dontHashJoinIndex() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<cs>");
+    for(int i = 0; i < 1000; i++) sb.append("<customer id='").append(i).append("'/>");
+    new CreateDB(NAME, sb.append("</cs>").toString()).execute(context);
+    try {
+      check("for $o in (<order cid='5'/>, <order cid='7'/>) " +
+          "for $c in db:open('" + NAME + "')//customer " +
+          "where $c/@id = $o/@cid return string($c/@id)",
+          "5 7",
+          "empty(//HashJoin) and exists(//ValueAccess)"
+      );
+    } finally {
+      new DropDB(NAME).execute(context);
+    }
+  }
+
   /** Tests if {@link And} expressions inside {@code where} are split. */
   @Test public void splitWhereTest() {
     check("for $i in 1 to 5, $j in 1 to 5 where $i < 3 and $j < 3 return $i * $j",
@@ -260,6 +285,88 @@ public final class FlworOptimizeTest extends QueryPlanTest {
     );
   }
 
+  /** Tests if equality comparisons between two {@code for} clauses are joined. */
+  @Test public void hashJoin() {
+    check("for $i in 1 to 5 for $j in (4, 2, 3, 2) where $j = $i return $i * 10 + $j",
+        "22 22 33 44",
+        "exists(//HashJoin) and empty(//Where)"
+    );
+    check("for $a in <x><a>1</a><a>2</a></x>/a " +
+        "for $b in (<b k='2'/>, <b k='1 2'/>, <b k='1'/>) " +
+        "where tokenize($b/@k, ' ') = $a return $a || ':' || $b/@k",
+        "1:1 2 1:1 2:2 2:1 2",
+        "exists(//HashJoin)"
+    );
+    // keys that cannot be hashed
+    check("for $i in (1, 2) for $j in (<x>1</x>, xs:untypedAtomic('2'), 2.0, " +
+        "xs:float(1)) where $j = $i return string($j)",
+        "1 1 2 2",
+        "exists(//HashJoin)"
+    );
+  }
+
+  /**
+   * Tests if errors of joined comparisons are reported as without the join.
+   * @throws Exception exception
+   */
+  @Test public void hashJoinError() throws Exception {
+    // both queries have the same length; only the first one is joined
+    final String join = "for $i in (1, 2) for $j in ('a', 'b') where $i = $j return $j";
+    final String plain = "for $i in (1, 2) let $j := ('a', 'b') where $i = $j return $j";
+    final String msg = typeError(join);
+    assertTrue(msg, msg.contains("xs:integer and xs:string"));
+    assertEquals(typeError(plain), msg);
+  }
+
+  /**
+   * Returns the message of the type error raised by the specified query.
+   * @param query query
+   * @return error message
+   * @throws Exception exception
+   */
+  private static String typeError(final String query) throws Exception {
+    final QueryProcessor qp = new QueryProcessor(query, context);
+    try {
+      qp.execute();
+      fail("Query did not fail: " + query);
+      return null;
+    } catch(final QueryException ex) {
+      assertEquals(Err.XPTYPECMP, ex.err());
+      return ex.getMessage();
+    } finally {
+      qp.close();
+    }
+  }
+
+  /** Tests if clauses are not joined if the sequence depends on the outer clause. */
+  @Test public void dontHashJoin() {
+    check("for $i in 1 to 3 for $j in $i to 5 where $j = $i * 2 return $j",
+        "2 4",
+        "empty(//HashJoin)"
+    );
+    check("for $j in 1 to 5 where $j = 3 return $j",
+        "3",
+        "empty(//HashJoin)"
+    );
+  }
+
+  /** Tests the selection of the first tuples of an ordered FLWOR expression. */
+  @Test public void topK() {
+    check("(for $i in 1 to 100 order by $i mod 7 descending, $i return $i)" +
+        "[position() le 3]",
+        "6 13 20",
+        "//OrderBy/@max = 3"
+    );
+    check("(for $i in (3, 1, 2, 1) order by $i return $i)[1]",
+        "1",
+        "//OrderBy/@max = 1"
+    );
+    check("(for $i in 1 to 5 order by $i return ($i, $i))[position() le 2]",
+        "1 1",
+        "empty(//OrderBy/@max)"
+    );
+  }
+
   /** Tests if {@link And} expressions inside {@code where} are split. */
   @Test public void dontInlineNDTTest() {
     check("let $rnd := random:double() return (1 to 10) ! $rnd",
@@ -0,0 +1,150 @@
+package org.basex.test.query.expr;
+
+import static org.basex.query.func.Function.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.test.query.*;
+import org.junit.*;
+
+/**
+ * Tests for location paths on database nodes.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class PathTest extends AdvancedQueryTest {
+  /** Test document. */
+  private static final String DOC = "<x a='1'><a n='1'><a n='2'><b n='3'/>t</a>" +
+      "<b n='4'/></a><!--c--><b n='5'/><?p i?></x>";
+
+  /**
+   * Creates the test database.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void before() throws BaseXException {
+    new CreateDB(NAME, DOC).execute(context);
+  }
+
+  /**
+   * Drops the test database.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void after() throws BaseXException {
+    new DropDB(NAME).execute(context);
+  }
+
+  /** Child and descendant steps. */
+  @Test
+  public void steps() {
+    query("data(//a/b/@n)", "3 4");
+    query("data(//a//@n)", "1 2 3 4");
+    query("data(//b/@n)", "3 4 5");
+    query("data(/x/*/@n)", "1 5");
+    query("data(//a/self::a/@n)", "1 2");
+    query("data(//a/descendant-or-self::a/@n)", "1 2");
+    query("//a/text()", "t");
+  }
+
+  /** Ancestor and following steps. */
+  @Test
+  public void joins() {
+    query("data(//b/ancestor::a/@n)", "1 2");
+    query("count(//b/ancestor::node())", "4");
+    query("data(//b/ancestor-or-self::*/@n)", "1 2 3 4 5");
+    query("data(//a/following::b/@n)", "4 5");
+    query("count(//b/following::node())", "5");
+    query("data(//b/following::*/@n)", "4 5");
+    query("//@n[. = '3']/following::text()", "t");
+    query("data(" + _DB_TEXT.args(NAME, "t") + "/ancestor::a/@n)", "1 2");
+    query("data(" + _DB_ATTRIBUTE.args(NAME, "2") + "/following::*/@n)", "3 4 5");
+  }
+
+  /** Node tests. */
+  @Test
+  public void tests() {
+    query("count(//node())", "9");
+    query("count(/descendant-or-self::node())", "10");
+    query("count(//@*)", "6");
+    query("count(/x/node())", "4");
+    query("/x/comment()", "<!--c-->");
+    query("/x/processing-instruction()", "<?p i?>");
+    query("count(//*:b)", "3");
+    query("count(//@*:n)", "5");
+  }
+
+  /**
+   * Paths on several documents.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void documents() throws BaseXException {
+    new Add("two.xml", DOC).execute(context);
+    try {
+      query("count(" + COLLECTION.args(NAME) + "//a/b)", "4");
+      query("data(" + COLLECTION.args(NAME) + "/x/b/@n)", "5 5");
+      query("count(" + _DB_OPEN.args(NAME, "two.xml") + "//b)", "3");
+      query("count(" + COLLECTION.args(NAME) + "//a/following::b)", "4");
+      query("count(" + COLLECTION.args(NAME) + "//b/ancestor::a)", "4");
+    } finally {
+      new Delete("two.xml").execute(context);
+    }
+  }
+
+  /**
+   * Descendant steps on attributes.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void attributes() throws BaseXException {
+    new Add("att.xml", "<r><x a='1'><y/></x><x a='2'/></r>").execute(context);
+    try {
+      final String doc = _DB_OPEN.args(NAME, "att.xml");
+      final String vars = "declare variable $n := " + doc + "//x | " + doc + "//x/@a; ";
+      // block-wise evaluation
+      query(vars + "for $i in $n/descendant-or-self::node() return name($i)",
+          "x a y x a");
+      query(vars + "for $i in $n/descendant::node() return name($i)", "y");
+      query(vars + "for $i in $n/descendant-or-self::attribute() return name($i)", "a a");
+      // structural joins
+      final String nodes = "((" + doc + "//x | " + doc + "//x/@a)" +
+          "/descendant-or-self::node()";
+      query(nodes + "/descendant-or-self::node()) ! name()", "x a y x a");
+      query(nodes + "/descendant::node()) ! name()", "y");
+    } finally {
+      new Delete("att.xml").execute(context);
+    }
+  }
+
+  /**
+   * Parallel evaluation of paths.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void parallel() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 20000; i++) sb.append("<a n='" + i + "'><b/>t</a>");
+    new Add("big.xml", sb.append("</x>").toString()).execute(context);
+    final String[] queries = {
+      "count(//b)", "count(//a/b)", "count(//@n)", "sum(//a/@n)",
+      "count(/x/a/b)", "count(/*/*/node())", "count(//b/ancestor::*)",
+      "count(//text()/following::b)",
+      "count((/x | //a/@n)/descendant-or-self::node()/descendant-or-self::node())",
+      "sum((/x | //a/@n)/descendant-or-self::node()/descendant-or-self::attribute())",
+      "count(" + COLLECTION.args(NAME) + "/descendant-or-self::node())"
+    };
+    try {
+      final String[] results = new String[queries.length];
+      for(int q = 0; q < queries.length; q++) results[q] = query(queries[q]);
+      new Set(Prop.QUERYPARALLEL, 4).execute(context);
+      for(int q = 0; q < queries.length; q++) query(queries[q], results[q]);
+      new Set(Prop.QUERYPARALLEL, 1).execute(context);
+      query("(# db:queryparallel 4 #) { count(//a/b) }", "20002");
+    } finally {
+      new Set(Prop.QUERYPARALLEL, 1).execute(context);
+      new Delete("big.xml").execute(context);
+    }
+  }
+}
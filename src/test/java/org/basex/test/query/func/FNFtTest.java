@@ -71,6 +71,25 @@ public final class FNFtTest extends AdvancedQueryTest {
     error(_FT_SEARCH.args(" .", "x", " 1"), Err.ELMMAPTYPE);
   }
 
+  /**
+   * Test method.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void sortedDict() throws BaseXException {
+    new Set(Prop.FTSORTED, true).execute(context);
+    try {
+      new CreateIndex("fulltext").execute(context);
+      final String wc = " map { 'wildcards':='' }";
+      query(_FT_SEARCH.args(" .", "assign.*", wc), "Assignments");
+      query(_FT_SEARCH.args(" .", "exer.ise", wc), "Exercise 1Exercise 2");
+      query(_FT_SEARCH.args(" .", ".*ments", wc), "Assignments");
+      query(_FT_SEARCH.args(" .", "zzz.*", wc), "");
+    } finally {
+      new Set(Prop.FTSORTED, false).execute(context);
+    }
+  }
+
   /** Test method. */
   @Test
   public void count() {
@@ -99,6 +118,10 @@ public final class FNFtTest extends AdvancedQueryTest {
         _FT_MARK.args("$a[. contains text 'ab'], 'b'"), "<b>ab</b>");
     query("copy $a := text { 'a b' } modify () return " +
         _FT_MARK.args("$a[. contains text 'a b'], 'b'"), "<b>a</b> <b>b</b>");
+    // distant matches are not combined
+    query("copy $a := text { 'a b x x x a b' } modify () return " +
+        _FT_MARK.args("$a[. contains text 'a' ftand 'b' window 3 words], 'b'"),
+        "<b>a</b> <b>b</b> x x x <b>a</b> <b>b</b>");
 
     new CreateDB(NAME, "<a:a xmlns:a='A'>C</a:a>").execute(context);
     query(_FT_MARK.args(" /descendant::*[text() contains text 'C']", 'b'),
@@ -128,6 +151,24 @@ public final class FNFtTest extends AdvancedQueryTest {
     query(_FT_SCORE.args(_FT_SEARCH.args(" . ", "XML")), "1 0.5");
   }
 
+  /**
+   * Test method.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void bm25() throws BaseXException {
+    new CreateDB(NAME, "<x><t>a b</t><t>a a b c d e f g</t><t>c</t></x>").
+      execute(context);
+    new CreateIndex("fulltext").execute(context);
+    new Set(Prop.BM25, true).execute(context);
+    final String q = "for $t score $s in " + _FT_SEARCH.args(" .", "a") +
+        " order by $s descending return ";
+    query("string-join(" + q + "string($t), '|')", "a b|a a b c d e f g");
+    query("every $s in (" + q + "$s) satisfies $s > 0 and $s <= 1", "true");
+    query(_FT_SCORE.args(_FT_SEARCH.args(" .", "c")) + "[1] < 1", "true");
+    new Set(Prop.BM25, false).execute(context);
+  }
+
   /**
    * Test method.
    * @throws BaseXException database exception
@@ -12,6 +12,34 @@ import org.junit.*;
  * @author Leo Woerteler
  */
 public final class FNPatTest extends AdvancedQueryTest {
+  /** Tests for the {@code fn:matches} function. */
+  @Test
+  public void matches() {
+    // literals, which are matched byte-wise
+    query("matches('abc', 'b'), matches('abc', 'd'), matches('', '')", "true false true");
+    query("matches('abc', '^ab'), matches('abc', '^bc')", "true false");
+    query("matches('abc', 'bc$'), matches('abc', 'ab$'), matches('bc&#10;', 'bc$')",
+        "true false false");
+    query("matches('abc', '^abc$'), matches('abcabc', '^abc$')", "true false");
+    query("matches('äöü', 'ö'), matches('äöü', '^ä'), matches('äöü', 'ö$')",
+        "true true false");
+    query("matches('a.c', '.', 'q'), matches('abc', '.', 'q')", "true false");
+    // character classes
+    query("matches('x1', '[0-9]'), matches('xy', '[0-9]+'), matches('xy', '[0-9]*')",
+        "true false true");
+    query("matches('123', '^[0-9]+$'), matches('12a', '^[0-9]+$'), " +
+        "matches('', '^[0-9]+$'), matches('', '^[0-9]*$')", "true false false true");
+    query("matches('ä', '^[a-z]$'), matches('aä', '[a-z]$'), matches('äa', '^[a-z]')",
+        "false false false");
+    query("matches('a', '^[ab]$'), matches('ab', '^[ab]$')", "true false");
+    // patterns with modifiers or metacharacters
+    query("matches('ABC', '^ab', 'i'), matches('a&#10;b', '^b', 'm')", "true true");
+    query("matches('a c', 'a c', 'x'), matches('a c', '[^a]')", "false true");
+    query("matches('a$', 'a\\$'), matches('a', 'a\\$')", "true false");
+    error("matches('a', '[a')", Err.REGPAT);
+    error("matches('a', 'a', 'z')", Err.REGMOD);
+  }
+
   /** Tests for the {@code fn:replate} function. */
   @Test
   public void replace() {
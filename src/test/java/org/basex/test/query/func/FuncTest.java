@@ -120,6 +120,16 @@ public final class FuncTest extends QueryTest {
         "for $i in distinct-values(//line) return string($i)" },
       { "distinct-values 2", itr(2),
         "count(distinct-values(//line/text()))" },
+      { "distinct-values 3", itr(1, 2, 3), "distinct-values((1, 2, 1, 3, 2))" },
+      { "distinct-values 4", itr(1, 2), "distinct-values((1, 1.0, 1e0, xs:byte(1), 2))" },
+      { "distinct-values 5", itr(3),
+        "count(distinct-values((0e0, -0e0, xs:double('NaN'), 1e0, xs:double('NaN'))))" },
+      { "distinct-values 6", str("a", "b"),
+        "distinct-values(('a', 'b', xs:untypedAtomic('a'), xs:anyURI('b')))" },
+      { "distinct-values 7", itr(3), "count(distinct-values(('a', 1, 'a', 1e0, 2)))" },
+      { "distinct-values 8", itr(1001), "count(distinct-values((" +
+        "for $i in 1 to 10000 return $i mod 1000, " +
+        "for $i in 1 to 1000 return $i * 1e0)))" },
 
       { "subsequence 1", empty(),
         "subsequence(1 to 9223372036854775807, xs:double('-INF'), 1)" },
@@ -392,6 +392,12 @@ public final class FTTest extends QueryTest {
         "'a b' <- 'a' ftand ('b') distance exactly 0 words" },
       { "FTDistance 11", bool(true),
         "'a b' <- ('a') ftand ('b') entire content" },
+      { "FTDistance 12", bool(true),
+        "'a x x x a b' <- 'a' ftand 'b' distance at most 0 words" },
+      { "FTDistance 13", bool(false),
+        "'a x x b x x a' <- 'a' ftand 'b' distance at most 1 words" },
+      { "FTDistance 14", bool(true),
+        "'b x a c x x b a' <- 'a' ftand 'b' ftand 'c' distance at most 1 words" },
 
       { "FTWindow 1", node(3, 37),
         "//w [. <- 'second' ftand 'fifth' window 7 words]" },
@@ -407,6 +413,10 @@ public final class FTTest extends QueryTest {
       { "FTWindow 5", node(37),
         "//w [. <- 'fifth' ftand 'third' " +
         "ftand 'second' window 7 words ordered]" },
+      { "FTWindow 6", bool(true),
+        "'a x x x x b a x b' <- 'a' ftand 'b' window 2 words" },
+      { "FTWindow 7", bool(false),
+        "'a x x b x x a' <- 'a' ftand 'b' window 3 words" },
 
       { "FTScope 1", node(25, 27, 29, 31, 33),
         "//fti [. <- 'wordt ook' same sentence]" },
@@ -0,0 +1,169 @@
+package org.basex.test.server;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.server.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * This class tests the synchronous and asynchronous writing of log entries.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class LogTest extends SandboxTest {
+  /** Number of threads. */
+  private static final int THREADS = 8;
+  /** Number of entries per thread. */
+  private static final int ENTRIES = 500;
+  /** Log instance. */
+  private Log log;
+
+  /** Creates a new log instance with an empty log directory. */
+  @Before
+  public void init() {
+    log = new Log(context);
+    log.dir().delete();
+  }
+
+  /** Closes the log and resets the options. */
+  @After
+  public void finish() {
+    log.close();
+    log.dir().delete();
+    context.mprop.set(MainProp.LOGBUFFER, 0);
+  }
+
+  /**
+   * Checks if all buffered entries are written when the log is closed.
+   * @throws Exception exception
+   */
+  @Test
+  public void flush() throws Exception {
+    context.mprop.set(MainProp.LOGBUFFER, THREADS * ENTRIES);
+    write();
+    log.close();
+    assertEquals(0, log.dropped());
+    assertEquals(THREADS * ENTRIES, entries());
+  }
+
+  /**
+   * Checks if entries that do not fit into a small buffer are counted.
+   * @throws Exception exception
+   */
+  @Test
+  public void drop() throws Exception {
+    context.mprop.set(MainProp.LOGBUFFER, 1);
+    write();
+    log.close();
+    final long dropped = log.dropped();
+    assertEquals(THREADS * ENTRIES, entries() + dropped);
+    if(dropped != 0) assertTrue(read().contains("log entries have been dropped"));
+  }
+
+  /**
+   * Checks if entries are written while and after the log is closed.
+   * @throws Exception exception
+   */
+  @Test
+  public void shutdown() throws Exception {
+    context.mprop.set(MainProp.LOGBUFFER, 4);
+    final int before = writers();
+    final Thread[] threads = threads();
+    for(final Thread t : threads) t.start();
+    log.close();
+    for(final Thread t : threads) t.join();
+    // no writer is restarted after the log has been closed
+    log.write("test", "admin", "after");
+    assertEquals(before, writers());
+    log.close();
+    assertEquals(THREADS * ENTRIES, entries() + log.dropped());
+    assertTrue(read().contains("\tafter"));
+  }
+
+  /**
+   * Checks if the asynchronous writer is stopped if the buffer is disabled.
+   * @throws Exception exception
+   */
+  @Test
+  public void disable() throws Exception {
+    final int before = writers();
+    context.mprop.set(MainProp.LOGBUFFER, 16);
+    log.write("test", "admin", "async");
+    assertEquals(before + 1, writers());
+    context.mprop.set(MainProp.LOGBUFFER, 0);
+    log.write("test", "admin", "sync");
+    assertEquals(before, writers());
+    assertTrue(read().contains("\tasync"));
+    assertTrue(read().contains("\tsync"));
+  }
+
+  /**
+   * Writes log entries in parallel.
+   * @throws InterruptedException interrupted exception
+   */
+  private void write() throws InterruptedException {
+    final Thread[] threads = threads();
+    for(final Thread t : threads) t.start();
+    for(final Thread t : threads) t.join();
+  }
+
+  /**
+   * Creates threads that write log entries.
+   * @return threads
+   */
+  private Thread[] threads() {
+    final Thread[] threads = new Thread[THREADS];
+    for(int t = 0; t < THREADS; t++) {
+      final int n = t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for(int e = 0; e < ENTRIES; e++) {
+            log.write("test", "admin", "entry" + n + '.' + e);
+          }
+        }
+      };
+    }
+    return threads;
+  }
+
+  /**
+   * Returns the number of written test entries.
+   * @return number of entries
+   * @throws Exception exception
+   */
+  private int entries() throws Exception {
+    int c = 0;
+    for(final String line : read().split("\n")) if(line.contains("\tentry")) c++;
+    return c;
+  }
+
+  /**
+   * Returns the contents of all log files.
+   * @return contents
+   * @throws Exception exception
+   */
+  private String read() throws Exception {
+    final StringBuilder sb = new StringBuilder();
+    for(final IOFile f : log.files()) sb.append(Token.string(f.read()));
+    return sb.toString();
+  }
+
+  /**
+   * Returns the number of running log writers.
+   * @return number of threads
+   */
+  private static int writers() {
+    int c = 0;
+    final Set<Thread> threads = Thread.getAllStackTraces().keySet();
+    for(final Thread t : threads) if(t.isAlive() && t.getName().equals("Log")) c++;
+    return c;
+  }
+}
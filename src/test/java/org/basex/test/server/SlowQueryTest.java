@@ -0,0 +1,163 @@
+package org.basex.test.server;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.server.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * This class tests the resource accounting of queries and the slow query log.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class SlowQueryTest extends SandboxTest {
+  /** Slow query. */
+  private static final String SLOW = "prof:sleep(50), 'slow'";
+  /** Slow, failing query. */
+  private static final String FAIL = "prof:sleep(50), error(xs:QName('SLOWERR'))";
+
+  /**
+   * Creates the test database and removes old log files.
+   * @throws BaseXException database exception
+   */
+  @Before
+  public void init() throws BaseXException {
+    context.log.dir().delete();
+    final String text = new String(new char[20000]).replace('\0', 'b');
+    new CreateDB(NAME, "<x><a>1</a><a>2</a><a>1</a><b>" + text + "</b></x>").
+        execute(context);
+    new Close().execute(context);
+  }
+
+  /**
+   * Drops the test database and resets the options.
+   * @throws BaseXException database exception
+   */
+  @After
+  public void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+    context.mprop.set(MainProp.SLOWQUERY, 0);
+    context.log.close();
+    context.log.dir().delete();
+  }
+
+  /**
+   * Counts index hits.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void hits() throws BaseXException {
+    final Usage u = query("db:open('" + NAME + "')//a[text() = '1']");
+    assertEquals(2, u.hits);
+  }
+
+  /**
+   * Counts table pages and heap blocks that are read from disk.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void disk() throws BaseXException {
+    final Usage u = query("string-length(db:open('" + NAME + "')//b)");
+    assertTrue(u.pages > 0);
+    assertTrue(u.blocks > 0);
+    assertTrue(u.bytes >= u.blocks);
+  }
+
+  /**
+   * Writes slow queries to the slow query log.
+   * @throws Exception exception
+   */
+  @Test
+  public void slow() throws Exception {
+    context.mprop.set(MainProp.SLOWQUERY, 10);
+    new XQuery(SLOW).execute(context);
+    final String log = slowLog();
+    assertTrue(log, log.contains(SLOW));
+    assertFalse(log, log.contains(Log.ERROR));
+  }
+
+  /**
+   * Ignores queries that are faster than the threshold.
+   * @throws Exception exception
+   */
+  @Test
+  public void fast() throws Exception {
+    context.mprop.set(MainProp.SLOWQUERY, 10000);
+    new XQuery(SLOW).execute(context);
+    assertEquals("", slowLog());
+  }
+
+  /**
+   * Writes slow failing queries to the slow query log.
+   * @throws Exception exception
+   */
+  @Test
+  public void slowError() throws Exception {
+    context.mprop.set(MainProp.SLOWQUERY, 10);
+    try {
+      new XQuery(FAIL).execute(context);
+      fail("Query was expected to fail.");
+    } catch(final BaseXException ex) {
+      // expected
+    }
+    final String log = slowLog();
+    assertTrue(log, log.contains(FAIL));
+    assertTrue(log, log.contains(Log.ERROR));
+    assertTrue(log, log.contains("SLOWERR"));
+  }
+
+  /**
+   * Writes slow failing queries of sessions to the slow query log.
+   * @throws Exception exception
+   */
+  @Test
+  public void slowSessionError() throws Exception {
+    context.mprop.set(MainProp.SLOWQUERY, 10);
+    final LocalSession session = new LocalSession(context);
+    try {
+      session.query(FAIL).execute();
+      fail("Query was expected to fail.");
+    } catch(final BaseXException ex) {
+      // expected
+    } finally {
+      session.close();
+    }
+    final String log = slowLog();
+    assertTrue(log, log.contains(FAIL));
+    assertTrue(log, log.contains("SLOWERR"));
+  }
+
+  /**
+   * Evaluates a query and returns the consumed resources.
+   * @param query query
+   * @return usage
+   * @throws BaseXException database exception
+   */
+  private static Usage query(final String query) throws BaseXException {
+    final Usage u = new Usage().attach();
+    try {
+      new XQuery(query).execute(context);
+    } finally {
+      u.detach();
+    }
+    return u;
+  }
+
+  /**
+   * Returns the contents of the slow query logs.
+   * @return contents
+   * @throws Exception exception
+   */
+  private static String slowLog() throws Exception {
+    final StringBuilder sb = new StringBuilder();
+    final IOFile[] files = context.log.dir().children(".*\\" + Log.SLOWSUFFIX);
+    for(final IOFile f : files) sb.append(Token.string(f.read()));
+    return sb.toString();
+  }
+}
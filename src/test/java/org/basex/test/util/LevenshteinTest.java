@@ -0,0 +1,43 @@
+package org.basex.test.util;
+
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Tests for the {@link Levenshtein} implementation.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class LevenshteinTest {
+  /** Levenshtein instance. */
+  private final Levenshtein ls = new Levenshtein();
+
+  /** Similar tokens. */
+  @Test
+  public void similar() {
+    assertTrue(ls.similar(token("database"), token("databaze"), 0));
+    assertTrue(ls.similar(token("database"), token("datbase"), 0));
+    assertTrue(ls.similar(token("database"), token("dtaabase"), 0));
+    assertTrue(ls.similar(token("ab"), token("AB"), 0));
+    assertTrue(ls.similar(token("bäume"), token("baume"), 0));
+    assertFalse(ls.similar(token("database"), token("databasing"), 0));
+    assertFalse(ls.similar(token("ab"), token("ac"), 0));
+  }
+
+  /** Lengths of dissimilar prefixes. */
+  @Test
+  public void prefix() {
+    assertEquals(-1, ls.prefix(token("databaze"), token("database"), 0));
+    // exact search: prefix ends with the first differing character
+    assertEquals(2, ls.prefix(token("acd"), token("abc"), 0));
+    // more errors than allowed after the fourth character
+    assertEquals(4, ls.prefix(token("dxxxbase"), token("database"), 2));
+    // different lengths: only the token itself is dissimilar
+    assertEquals(3, ls.prefix(token("abc"), token("ab"), 0));
+    assertEquals(8, ls.prefix(token("abcdefgh"), token("abcd"), 1));
+  }
+}
@@ -141,6 +141,24 @@ public final class WesternTokenizerTest {
     run(TEXT, "\\TÉST.*\\TÄSTE", "TOAST");
   }
 
+  /** Test stemming of repeated tokens. */
+  @Test
+  public void stemming() {
+    opt.set(FTFlag.ST, true);
+    opt.ln = Language.get("en");
+    final byte[] text = token("Connected connections, connected CONNECTIONS.");
+    // stems are cached: repeat tokenization with new lexer instances
+    for(int r = 0; r < 2; r++) {
+      final FTLexer lex = new FTLexer(opt).init(text);
+      int i = 0;
+      while(lex.hasNext()) {
+        assertEquals("connect", string(lex.nextToken()));
+        i++;
+      }
+      assertEquals(4, i);
+    }
+  }
+
   /**
    * Perform tokenization test.
    * @param input input text to tokenize